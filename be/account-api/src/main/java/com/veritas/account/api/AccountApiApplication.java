@@ -2,13 +2,17 @@ package com.veritas.account.api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main class for the Account Api.
  */
 @SpringBootApplication
 @EnableFeignClients
+@EnableCaching
+@EnableScheduling
 public class AccountApiApplication {
 
 	public static void main(String[] args) {
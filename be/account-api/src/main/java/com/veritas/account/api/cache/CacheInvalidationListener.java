@@ -0,0 +1,53 @@
+package com.veritas.account.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.io.IOException;
+
+/**
+ * Applies cache invalidations published by other account-api instances to the local tier.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements MessageListener {
+
+    private final TwoTierCacheManager cacheManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final String instanceId;
+
+    /**
+     * Evicts the invalidated entry from the in-process tier, unless this instance published it.
+     *
+     * @param message The received message.
+     * @param pattern The matched channel pattern.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation;
+        try {
+            invalidation = objectMapper.readValue(message.getBody(), CacheInvalidationMessage.class);
+        } catch (IOException e) {
+            log.warn("Ignoring malformed cache invalidation message", e);
+            return;
+        }
+        if (instanceId.equals(invalidation.getOrigin())) {
+            return;
+        }
+
+        TwoTierCache cache = cacheManager.getTwoTierCache(invalidation.getCacheName());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.getKey() == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(invalidation.getKey());
+        }
+    }
+}
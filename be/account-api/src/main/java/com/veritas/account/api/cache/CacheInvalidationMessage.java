@@ -0,0 +1,17 @@
+package com.veritas.account.api.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents an invalidation of an in-process cache entry, broadcast between account-api instances.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheInvalidationMessage {
+    private String origin; // instance that changed the entry
+    private String cacheName;
+    private String key; // null clears the whole cache
+}
@@ -0,0 +1,44 @@
+package com.veritas.account.api.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts in-process cache invalidations to the other account-api instances over Redis pub/sub.
+ */
+@RequiredArgsConstructor
+public class CacheInvalidationPublisher {
+
+    /**
+     * The Redis channel carrying the invalidation messages.
+     */
+    public static final String CHANNEL = "account-api:cache-invalidation";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * Publishes the invalidation of a single entry.
+     *
+     * @param cacheName The name of the cache.
+     * @param key The key of the changed entry, or null if the whole cache was cleared.
+     */
+    public void publish(String cacheName, Object key) {
+        CacheInvalidationMessage message = new CacheInvalidationMessage(instanceId, cacheName,
+                key != null ? key.toString() : null);
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cache invalidation for " + cacheName, e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.veritas.account.api.cache;
+
+import lombok.Getter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.lang.NonNull;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache that serves reads from a bounded in-process tier (L1) and falls back to a shared remote tier (L2).
+ * <p>
+ * Writes go to both tiers and are broadcast, so that other instances drop their now stale L1 copy.
+ * Keys are expected to be strings, as invalidations are exchanged in their string form.
+ */
+@Getter
+public class TwoTierCache implements Cache {
+
+    private final CaffeineCache localCache;
+
+    private final Cache remoteCache;
+
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    /**
+     * Creates a new instance of TwoTierCache.
+     *
+     * @param localCache The in-process tier.
+     * @param remoteCache The shared remote tier, sharing the name of the local tier.
+     * @param invalidationPublisher The publisher broadcasting changes to other instances.
+     */
+    public TwoTierCache(CaffeineCache localCache, Cache remoteCache,
+                        CacheInvalidationPublisher invalidationPublisher) {
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return remoteCache.getName();
+    }
+
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(@NonNull Object key) {
+        ValueWrapper value = localCache.get(key);
+        if (value == null) {
+            value = remoteCache.get(key);
+            if (value != null) {
+                localCache.put(key, value.get());
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        return localCache.get(key, () -> remoteCache.get(key, valueLoader));
+    }
+
+    @Override
+    public void put(@NonNull Object key, Object value) {
+        remoteCache.put(key, value);
+        localCache.put(key, value);
+        invalidationPublisher.publish(getName(), key);
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        remoteCache.evict(key);
+        localCache.evict(key);
+        invalidationPublisher.publish(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.clear();
+        invalidationPublisher.publish(getName(), null);
+    }
+
+    /**
+     * Evicts an entry from the in-process tier only, after another instance changed it.
+     *
+     * @param key The key of the entry.
+     */
+    public void evictLocal(Object key) {
+        localCache.evict(key);
+    }
+
+    /**
+     * Clears the in-process tier only, after another instance cleared the cache.
+     */
+    public void clearLocal() {
+        localCache.clear();
+    }
+}
@@ -0,0 +1,64 @@
+package com.veritas.account.api.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cache manager that puts a bounded in-process tier in front of every cache of a remote cache manager.
+ */
+public class TwoTierCacheManager extends AbstractCacheManager {
+
+    private final CacheManager remoteCacheManager;
+
+    private final Map<String, Caffeine<Object, Object>> localCacheBuilders;
+
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    /**
+     * Creates a new instance of TwoTierCacheManager.
+     *
+     * @param remoteCacheManager The manager of the remote tier, defining the available caches.
+     * @param localCacheBuilders The builders of the in-process tier, by cache name.
+     * @param invalidationPublisher The publisher broadcasting changes to other instances.
+     */
+    public TwoTierCacheManager(CacheManager remoteCacheManager, Map<String, Caffeine<Object, Object>> localCacheBuilders,
+                               CacheInvalidationPublisher invalidationPublisher) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.localCacheBuilders = localCacheBuilders;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    @NonNull
+    protected Collection<? extends Cache> loadCaches() {
+        return remoteCacheManager.getCacheNames().stream()
+                .map(this::createTwoTierCache)
+                .toList();
+    }
+
+    /**
+     * Returns the two-tier cache with the given name.
+     *
+     * @param name The name of the cache.
+     * @return The cache, or null if no such cache is configured.
+     */
+    public TwoTierCache getTwoTierCache(String name) {
+        return (TwoTierCache) getCache(name);
+    }
+
+    private TwoTierCache createTwoTierCache(String name) {
+        Caffeine<Object, Object> localCacheBuilder = Objects.requireNonNull(localCacheBuilders.get(name),
+                "No local tier configured for cache " + name);
+        CaffeineCache localCache = new CaffeineCache(name, localCacheBuilder.build(), false);
+        Cache remoteCache = Objects.requireNonNull(remoteCacheManager.getCache(name));
+        return new TwoTierCache(localCache, remoteCache, invalidationPublisher);
+    }
+}
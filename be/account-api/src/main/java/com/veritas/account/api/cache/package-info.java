@@ -0,0 +1,6 @@
+/**
+ * Two-tier caching for account lookups.
+ * It combines a bounded in-process cache with the shared Redis cache and keeps the in-process tier
+ * of every account-api instance coherent through Redis pub/sub invalidation messages.
+ */
+package com.veritas.account.api.cache;
@@ -0,0 +1,42 @@
+package com.veritas.account.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the two-tier account caches, settable per cache name, e.g.
+ * {@code account.cache.caches.account.local-maximum-size=10000}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "account.cache")
+public class AccountCacheProperties {
+
+    private Map<String, CacheSpec> caches = new HashMap<>();
+
+    /**
+     * Returns the settings of a cache, falling back to the defaults if it is not configured.
+     *
+     * @param name The name of the cache.
+     * @return The settings of the cache.
+     */
+    public CacheSpec getCache(String name) {
+        return caches.getOrDefault(name, new CacheSpec());
+    }
+
+    /**
+     * Size and expiry settings of a single cache.
+     */
+    @Getter
+    @Setter
+    public static class CacheSpec {
+        private long localMaximumSize = 10_000; // 0 disables the in-process tier
+        private Duration localTimeToLive = Duration.ofSeconds(30);
+        private Duration timeToLive = Duration.ofMinutes(5); // remote tier
+    }
+}
@@ -0,0 +1,159 @@
+package com.veritas.account.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.veritas.account.api.cache.CacheInvalidationListener;
+import com.veritas.account.api.cache.CacheInvalidationPublisher;
+import com.veritas.account.api.cache.TwoTierCache;
+import com.veritas.account.api.cache.TwoTierCacheManager;
+import com.veritas.account.api.dto.AccountResponse;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Configuration class for the two-tier account caches.
+ * <p>
+ * Every cache is served from a bounded Caffeine cache in front of Redis. Changes are broadcast over
+ * Redis pub/sub so that the other account-api instances drop their in-process copy.
+ */
+@Configuration
+@EnableConfigurationProperties(AccountCacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * Name of the cache holding single accounts, keyed by account id.
+     */
+    public static final String ACCOUNT_CACHE = "account";
+
+    /**
+     * Name of the cache holding the accounts of a user, keyed by user id.
+     */
+    public static final String USER_ACCOUNTS_CACHE = "user-accounts";
+
+    /**
+     * Creates the publisher broadcasting cache changes to the other instances.
+     *
+     * @param stringRedisTemplate The Redis template used for publishing.
+     * @param objectMapper The object mapper.
+     * @return The invalidation publisher.
+     */
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate,
+                                                                 ObjectMapper objectMapper) {
+        return new CacheInvalidationPublisher(stringRedisTemplate, objectMapper);
+    }
+
+    /**
+     * Creates the two-tier cache manager.
+     * <p>
+     * Entries are stored in Redis under {@code account:{id}} and {@code user-accounts:{userId}} as plain
+     * JSON of their concrete type.
+     *
+     * @param connectionFactory The Redis connection factory.
+     * @param properties The per-cache size and expiry settings.
+     * @param objectMapper The object mapper.
+     * @param invalidationPublisher The invalidation publisher.
+     * @return The cache manager.
+     */
+    @Bean
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory, AccountCacheProperties properties,
+                                           ObjectMapper objectMapper, CacheInvalidationPublisher invalidationPublisher) {
+        Map<String, RedisSerializer<?>> valueSerializers = Map.of(
+                ACCOUNT_CACHE, new Jackson2JsonRedisSerializer<>(objectMapper, AccountResponse.class),
+                USER_ACCOUNTS_CACHE, new Jackson2JsonRedisSerializer<>(objectMapper, objectMapper.getTypeFactory()
+                        .constructCollectionType(List.class, AccountResponse.class)));
+
+        RedisCacheManager remoteCacheManager = RedisCacheManager.builder(connectionFactory)
+                .withInitialCacheConfigurations(valueSerializers.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> createRemoteCacheConfiguration(
+                                properties.getCache(entry.getKey()), entry.getValue()))))
+                .disableCreateOnMissingCache()
+                .enableStatistics()
+                .build();
+        remoteCacheManager.afterPropertiesSet();
+
+        Map<String, Caffeine<Object, Object>> localCacheBuilders = valueSerializers.keySet().stream()
+                .collect(Collectors.toMap(Function.identity(),
+                        name -> createLocalCacheBuilder(properties.getCache(name))));
+
+        return new TwoTierCacheManager(remoteCacheManager, localCacheBuilders, invalidationPublisher);
+    }
+
+    /**
+     * Creates the listener container applying invalidations published by the other instances.
+     *
+     * @param connectionFactory The Redis connection factory.
+     * @param cacheManager The two-tier cache manager.
+     * @param objectMapper The object mapper.
+     * @param invalidationPublisher The invalidation publisher, identifying this instance.
+     * @return The listener container.
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, TwoTierCacheManager cacheManager,
+            ObjectMapper objectMapper, CacheInvalidationPublisher invalidationPublisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                new CacheInvalidationListener(cacheManager, objectMapper, invalidationPublisher.getInstanceId()),
+                new ChannelTopic(CacheInvalidationPublisher.CHANNEL));
+        return container;
+    }
+
+    /**
+     * Binds the metrics of both tiers, tagged with {@code tier=l1} and {@code tier=l2},
+     * so that their hit ratios can be told apart.
+     *
+     * @return The meter binder provider for two-tier caches.
+     */
+    @Bean
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return (cache, tags) -> {
+            MeterBinder localMetrics = new CaffeineCacheMetrics<>(cache.getLocalCache().getNativeCache(),
+                    cache.getName(), Tags.concat(tags, "tier", "l1"));
+            MeterBinder remoteMetrics = new RedisCacheMetrics((RedisCache) cache.getRemoteCache(),
+                    Tags.concat(tags, "tier", "l2"));
+            return registry -> {
+                localMetrics.bindTo(registry);
+                remoteMetrics.bindTo(registry);
+            };
+        };
+    }
+
+    private RedisCacheConfiguration createRemoteCacheConfiguration(AccountCacheProperties.CacheSpec spec,
+                                                                   RedisSerializer<?> valueSerializer) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(spec.getTimeToLive())
+                .disableCachingNullValues()
+                .computePrefixWith(cacheName -> cacheName + ":")
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
+    }
+
+    private Caffeine<Object, Object> createLocalCacheBuilder(AccountCacheProperties.CacheSpec spec) {
+        return Caffeine.newBuilder()
+                .maximumSize(spec.getLocalMaximumSize())
+                .expireAfterWrite(spec.getLocalTimeToLive())
+                .recordStats();
+    }
+}
@@ -0,0 +1,133 @@
+package com.veritas.account.api.config;
+
+import com.veritas.account.api.model.Account;
+import com.veritas.account.api.model.LedgerPosting;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Configuration class for the MongoDB integration.
+ */
+@Slf4j
+@Configuration
+public class MongoConfig {
+
+    private static final String MIGRATION_COLLECTION = "ledger_reconciliation";
+
+    private static final String LEGACY_LEDGER_MIGRATION = "legacy-postings-folded";
+
+    /**
+     * Creates the indexes declared on {@link Account} and {@link LedgerPosting} if they do not exist yet.
+     * <p>
+     * Automatic index creation is disabled by default, so the indexes backing the account
+     * lookups and the ledger are ensured explicitly on startup.
+     *
+     * @param mongoTemplate The Mongo template.
+     * @return The command line runner creating the indexes.
+     */
+    @Bean
+    public CommandLineRunner accountIndexInitializer(MongoTemplate mongoTemplate) {
+        return args -> {
+            MongoPersistentEntityIndexResolver indexResolver =
+                    new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            for (Class<?> entity : new Class<?>[] {Account.class, LedgerPosting.class}) {
+                IndexOperations indexOperations = mongoTemplate.indexOps(entity);
+                indexResolver.resolveIndexFor(entity).forEach(indexOperations::ensureIndex);
+            }
+        };
+    }
+
+    /**
+     * Converts account balances that were stored as strings into Decimal128 values.
+     * <p>
+     * Older documents hold the balance as a string, which neither the {@code $gte} guard
+     * of a debit nor the {@code $add} and {@code $inc} updates of the ledger can operate
+     * on. The conversion runs once per startup, before the ledger migration, and is a
+     * no-op when every balance is already numeric.
+     *
+     * @param mongoTemplate The Mongo template.
+     * @return The command line runner performing the conversion.
+     */
+    @Bean
+    @Order(1)
+    public CommandLineRunner decimalBalanceMigration(MongoTemplate mongoTemplate) {
+        return args -> {
+            Query legacyBalances = Query.query(Criteria.where("balance").type(JsonSchemaObject.Type.STRING));
+            AggregationUpdate toDecimal = AggregationUpdate.update()
+                    .set("balance").toValue(new Document("$toDecimal", "$balance"));
+
+            long converted = mongoTemplate.updateMulti(legacyBalances, toDecimal, Account.class).getModifiedCount();
+            if (converted > 0) {
+                log.info("Converted {} account balances to Decimal128", converted);
+            }
+        };
+    }
+
+    /**
+     * Folds the ledger postings written before the accounts numbered their entries into the account balances.
+     * <p>
+     * Those postings carry no sequence number, and the ones after the {@code ledgerCheckpoint} of an account
+     * were not in its balance yet. Every account is folded with a single update that moves its checkpoint past
+     * the folded postings, so an interrupted migration is resumed by the next startup, and a completed one is
+     * not run again.
+     *
+     * @param mongoTemplate The Mongo template.
+     * @return The command line runner performing the migration.
+     */
+    @Bean
+    @Order(2)
+    public CommandLineRunner legacyLedgerMigration(MongoTemplate mongoTemplate) {
+        return args -> {
+            Query completed = Query.query(Criteria.where("_id").is(LEGACY_LEDGER_MIGRATION));
+            if (mongoTemplate.exists(completed, MIGRATION_COLLECTION)) {
+                return;
+            }
+            String accountCollection = mongoTemplate.getCollectionName(Account.class);
+            int folded = 0;
+            try (Stream<Document> accounts = mongoTemplate.stream(new Query(), Document.class, accountCollection)) {
+                for (Document account : (Iterable<Document>) accounts::iterator) {
+                    Object checkpoint = account.get("ledgerCheckpoint");
+                    Criteria legacyPostings = Criteria.where("accountId").is(account.get("_id").toString())
+                            .and("sequence").exists(false);
+                    if (checkpoint != null) {
+                        legacyPostings = legacyPostings.and("postedAt").gt(checkpoint);
+                    }
+                    Document total = mongoTemplate.aggregate(Aggregation.newAggregation(
+                            Aggregation.match(legacyPostings),
+                            Aggregation.group().sum("amount").as("amount").max("postedAt").as("postedAt")),
+                            LedgerPosting.class, Document.class).getUniqueMappedResult();
+                    if (total == null) {
+                        continue;
+                    }
+                    Object amount = total.get("amount");
+                    AggregationUpdate fold = AggregationUpdate.update().set(SetOperation
+                            .set("balance").toValue(new Document("$add", List.of("$balance", amount)))
+                            .and().set("reconciledBalance").toValue(new Document("$add", List.of(
+                                    new Document("$ifNull", List.of("$reconciledBalance", "$balance")), amount)))
+                            .and().set("ledgerCheckpoint").toValue(total.get("postedAt")));
+                    Query unchanged = Query.query(Criteria.where("_id").is(account.get("_id"))
+                            .and("ledgerCheckpoint").is(checkpoint));
+                    folded += (int) mongoTemplate.updateFirst(unchanged, fold, accountCollection).getModifiedCount();
+                }
+            }
+            mongoTemplate.insert(new Document("_id", LEGACY_LEDGER_MIGRATION), MIGRATION_COLLECTION);
+            log.info("Folded the legacy ledger postings of {} accounts into their balances", folded);
+        };
+    }
+}
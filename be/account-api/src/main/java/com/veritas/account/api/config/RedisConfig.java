@@ -3,8 +3,6 @@ package com.veritas.account.api.config;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.veritas.account.api.dto.AccountResponse;
-import com.veritas.account.api.serializer.CustomBigDecimalRedisSerializer;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,10 +11,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.*;
-
-import java.util.List;
 
 /**
  * Configuration class for Redis.
@@ -32,32 +26,6 @@ public class RedisConfig {
     @Value("${spring.data.redis.port}")
     private int redisPort;
 
-    /**
-     * Creates a Redis template for storing and retrieving account responses.
-     *
-     * @param connectionFactory The Redis connection factory.
-     * @return The Redis template for account responses.
-     */
-    @Bean
-    public RedisTemplate<String, List<AccountResponse>> redisTemplate(RedisConnectionFactory connectionFactory) {
-        RedisTemplate<String, List<AccountResponse>> redisTemplate = new RedisTemplate<>();
-        redisTemplate.setConnectionFactory(connectionFactory);
-        redisTemplate.setKeySerializer(new StringRedisSerializer());
-        redisTemplate.setValueSerializer(createValueSerializer());
-
-        return redisTemplate;
-    }
-
-    /**
-     * Creates a custom serializer for BigDecimal values.
-     *
-     * @return The serializer for BigDecimal values.
-     */
-    private RedisSerializer<Object> createValueSerializer() {
-        RedisSerializer<Object> jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper());
-        return new CustomBigDecimalRedisSerializer(jsonSerializer);
-    }
-
     /**
      * Creates and configures an instance of ObjectMapper for JSON serialization and deserialization.
      *
@@ -1,4 +1,4 @@
 /**
- * Configuration classes for the Redis integration.
+ * Configuration classes for the Redis and MongoDB integrations.
  */
 package com.veritas.account.api.config;
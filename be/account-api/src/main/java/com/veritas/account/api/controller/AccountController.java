@@ -3,15 +3,27 @@ package com.veritas.account.api.controller;
 import com.veritas.account.api.service.AccountService;
 import com.veritas.account.api.dto.AccountResponse;
 import com.veritas.account.api.dto.AccountRequest;
+import com.veritas.account.api.dto.AccountPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import com.veritas.account.api.util.JwtUtil;
+import java.util.function.Consumer;
+import com.veritas.account.api.util.UserIdResolver;
 import com.veritas.account.api.dto.DebitCreditRequest;
+import com.veritas.account.api.dto.MovementRequest;
+import com.veritas.account.api.dto.MovementResult;
 import java.util.NoSuchElementException;
 
 /**
@@ -24,6 +36,10 @@ public class AccountController {
 
     private final AccountService accountService;
 
+    private final ObjectMapper objectMapper;
+
+    private final UserIdResolver userIdResolver;
+
     /**
      * Creates a new bank account.
      *
@@ -32,26 +48,7 @@ public class AccountController {
      */
     @PostMapping
     public ResponseEntity<String> createAccount(@RequestBody AccountRequest accountRequest, HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        String userId = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            // Simple JWT parsing to extract 'sub' claim (user id)
-            try {
-                String[] parts = token.split("\\.");
-                if (parts.length == 3) {
-                    String payloadJson = new String(java.util.Base64.getUrlDecoder().decode(parts[1]));
-                    int subIndex = payloadJson.indexOf("\"sub\":");
-                    if (subIndex != -1) {
-                        int start = payloadJson.indexOf('"', subIndex + 6) + 1;
-                        int end = payloadJson.indexOf('"', start);
-                        userId = payloadJson.substring(start, end);
-                    }
-                }
-            } catch (Exception e) {
-                // fallback: userId remains null
-            }
-        }
+        String userId = userIdResolver.resolveUserId(request);
         accountRequest.setUserId(userId);
         accountService.createAccount(accountRequest);
         return ResponseEntity.status(HttpStatus.CREATED).body
@@ -68,26 +65,91 @@ public class AccountController {
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public List<AccountResponse> getAllAccounts(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        String userId = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            try {
-                String[] parts = token.split("\\.");
-                if (parts.length == 3) {
-                    String payloadJson = new String(java.util.Base64.getUrlDecoder().decode(parts[1]));
-                    int subIndex = payloadJson.indexOf("\"sub\":");
-                    if (subIndex != -1) {
-                        int start = payloadJson.indexOf('"', subIndex + 6) + 1;
-                        int end = payloadJson.indexOf('"', start);
-                        userId = payloadJson.substring(start, end);
+        String userId = userIdResolver.resolveUserId(request);
+        return accountService.getAllAccounts(userId);
+    }
+
+    /**
+     * Retrieves a page of the caller's bank accounts, ordered by id.
+     *
+     * @param after The cursor returned with the previous page, omitted for the first page.
+     * @param size The maximum number of accounts in the page.
+     * @return The page of accounts and the cursor of the next page, or 401 if the caller is not authenticated.
+     */
+    @GetMapping("/all")
+    public ResponseEntity<AccountPage> getAccountPage(@RequestParam(required = false) String after,
+                                                      @RequestParam(defaultValue = "50") int size,
+                                                      HttpServletRequest request) {
+        String userId = userIdResolver.resolveUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(accountService.getAccountPage(userId, after, size));
+    }
+
+    /**
+     * Exports the caller's bank accounts as newline-delimited JSON.
+     * <p>
+     * Accounts are written to the response as they are read from the database cursor,
+     * so the export runs in constant memory.
+     *
+     * @return A ResponseEntity streaming one JSON document per account, or 401 if the caller is not authenticated.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAccounts(HttpServletRequest request) {
+        String userId = userIdResolver.resolveUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ndjson(action -> accountService.forEachAccount(userId, action));
+    }
+
+    /**
+     * Exports the bank accounts of all users as newline-delimited JSON, for operators.
+     * <p>
+     * Like the export of the caller's accounts, it runs in constant memory however many accounts exist.
+     *
+     * @return A ResponseEntity streaming one JSON document per account, 401 if the caller is not authenticated,
+     *         or 403 if the caller is not an operator.
+     */
+    @GetMapping("/admin/export")
+    public ResponseEntity<StreamingResponseBody> exportAllAccounts(HttpServletRequest request) {
+        String userId = userIdResolver.resolveUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!userIdResolver.isOperator(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ndjson(accountService::forEachAccount);
+    }
+
+    /**
+     * Streams accounts to the response as newline-delimited JSON, each as soon as it is read.
+     *
+     * @param accounts Hands every account to the given action.
+     * @return A ResponseEntity streaming one JSON document per account.
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<AccountResponse>> accounts) {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                accounts.accept(account -> {
+                    try {
+                        writer.write(account);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
                     }
-                }
-            } catch (Exception e) {
-                // fallback: userId remains null
+                });
             }
-        }
-        return accountService.getAllAccounts(userId);
+            outputStream.write('\n');
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
@@ -99,12 +161,7 @@ public class AccountController {
      */
     @DeleteMapping
     public ResponseEntity<String> deleteAccount(@RequestBody AccountRequest accountRequest, HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        String userId = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            userId = JwtUtil.extractUserId(token);
-        }
+        String userId = userIdResolver.resolveUserId(request);
         try {
             accountService.deleteAccountByAccountHolderNameAndUserId(accountRequest.getAccountHolderName(), userId);
             return ResponseEntity.status(HttpStatus.OK).body("Successfully deleted " +
@@ -143,6 +200,22 @@ public class AccountController {
         }
     }
 
+    /**
+     * Applies a batch of signed balance movements.
+     *
+     * @param movements The movements, positive amounts credit and negative amounts debit.
+     * @return A ResponseEntity with the outcome of every movement in request order,
+     *         or HTTP status code 400 if the batch is invalid.
+     */
+    @PostMapping("/movements")
+    public ResponseEntity<List<MovementResult>> applyMovements(@RequestBody List<MovementRequest> movements) {
+        try {
+            return ResponseEntity.ok(accountService.applyMovements(movements));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/{id}/credit")
     public ResponseEntity<String> creditAccount(@PathVariable String id, @RequestBody DebitCreditRequest request) {
         accountService.creditAccount(id, request.getAmount());
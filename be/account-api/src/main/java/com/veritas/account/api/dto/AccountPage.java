@@ -0,0 +1,20 @@
+package com.veritas.account.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) class that represents a page of bank accounts.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountPage {
+    private List<AccountResponse> accounts;
+    private String nextCursor; // id of the last account, null on the last page
+}
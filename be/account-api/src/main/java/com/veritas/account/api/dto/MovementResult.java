@@ -0,0 +1,22 @@
+package com.veritas.account.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object (DTO) class that represents the outcome of a single balance movement.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovementResult {
+    private String movementId;
+    private String accountId;
+    private BigDecimal amount;
+    private MovementStatus status;
+}
@@ -5,15 +5,26 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.util.Currency;
+import java.util.List;
 
 /**
  * Represents a bank account.
+ * <p>
+ * The account is the head of its part of the ledger: it holds the balance and numbers the ledger entries
+ * applied to it, see {@code LedgerService}.
  */
 @Document(value = "account")
+@CompoundIndex(name = "userId_accountHolderName", def = "{'userId': 1, 'accountHolderName': 1}") // also serves userId lookups
+@CompoundIndex(name = "userId_id", def = "{'userId': 1, '_id': 1}") // pages and exports of a user's accounts
+@CompoundIndex(name = "pendingEntries_appliedAt", def = "{'pendingEntries.appliedAt': 1}", sparse = true)
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
@@ -21,10 +32,20 @@ import java.util.Currency;
 public class Account {
     @Id
     private String id;
+    @Indexed
     private String accountNumber;
     private String accountName;
+    @Indexed
     private String accountHolderName;
-    private BigDecimal balance;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal balance; // opening balance plus the settled credits and all applied debits
+    private Long ledgerSequence; // sequence number of the last ledger entry applied to the account
+    private List<PendingEntry> pendingEntries; // applied entries whose postings are not settled yet
+    private Long reconciledSequence; // sequence number up to which the postings are reconciled
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal reconciledBalance; // opening balance plus the postings up to the reconciled sequence
+    @Indexed(sparse = true)
+    private Boolean unreconciled; // set by every applied entry, removed by the reconciliation
     private Currency currency;
     private String userId; // Auth0 user ID
 }
@@ -0,0 +1,38 @@
+package com.veritas.account.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Represents one leg of a double-entry ledger entry. The postings of an entry sum to zero.
+ * <p>
+ * Postings are never updated nor deleted, a wrong entry is corrected by a new one.
+ */
+@Document(value = "ledger_posting")
+@CompoundIndex(name = "accountId_postedAt", def = "{'accountId': 1, 'postedAt': 1}")
+@CompoundIndex(name = "accountId_sequence", def = "{'accountId': 1, 'sequence': 1}", unique = true,
+        partialFilter = "{'sequence': {'$exists': true}}") // reconciliation of an account in sequence order
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class LedgerPosting {
+    @Id
+    private String id; // entry id and leg number
+    private String entryId;
+    private String accountId;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal amount; // positive credits, negative debits
+    private Instant postedAt;
+    private Long sequence; // sequence number of the entry on the account, not set on the counter leg
+}
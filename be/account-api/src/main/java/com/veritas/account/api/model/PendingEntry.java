@@ -0,0 +1,29 @@
+package com.veritas.account.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Represents a ledger entry that was applied to an account but whose postings are not settled yet.
+ * <p>
+ * A pending debit has already been taken from the balance of the account, a pending credit is added to it
+ * once its postings are written.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class PendingEntry {
+    private String entryId;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal amount; // positive credits, negative debits
+    private long sequence;
+    private Instant appliedAt;
+}
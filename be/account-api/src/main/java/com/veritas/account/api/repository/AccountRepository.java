@@ -4,6 +4,7 @@ import com.veritas.account.api.model.Account;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for storing bank accounts in the MongoDB database.
@@ -11,4 +12,6 @@ import java.util.List;
  */
 public interface AccountRepository extends MongoRepository<Account, String> {
     List<Account> findByUserId(String userId);
+    Optional<Account> findFirstByAccountHolderName(String accountHolderName);
+    Optional<Account> findFirstByUserIdAndAccountHolderName(String userId, String accountHolderName);
 }
\ No newline at end of file
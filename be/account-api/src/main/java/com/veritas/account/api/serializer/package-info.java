@@ -1,4 +0,0 @@
-/**
- * Provides custom serializers for specific data types.
- */
-package com.veritas.account.api.serializer;
@@ -4,16 +4,34 @@ import com.veritas.account.api.model.Account;
 import com.veritas.account.api.repository.AccountRepository;
 import com.veritas.account.api.dto.AccountResponse;
 import com.veritas.account.api.dto.AccountRequest;
+import com.veritas.account.api.dto.AccountPage;
+import com.veritas.account.api.dto.MovementRequest;
+import com.veritas.account.api.dto.MovementResult;
+import com.veritas.account.api.dto.MovementStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.bson.types.ObjectId;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import com.veritas.account.api.client.TransactionApiClient;
 import com.veritas.account.api.dto.TransactionRequest;
 
+import static com.veritas.account.api.config.CacheConfig.ACCOUNT_CACHE;
+import static com.veritas.account.api.config.CacheConfig.USER_ACCOUNTS_CACHE;
+
 /**
  * Service class that provides operations for managing bank accounts.
  */
@@ -24,11 +42,25 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
 
-    private final RedisTemplate<String, List<AccountResponse>> redisTemplate;
+    private final MongoTemplate mongoTemplate;
 
     private final TransactionApiClient transactionApiClient;
 
-    private static final String CACHE_KEY = "accounts";
+    private final CacheManager cacheManager;
+
+    private final LedgerService ledgerService;
+
+    /**
+     * Upper bound for the size of an account page.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    /**
+     * Upper bound for the number of movements in a batch.
+     */
+    public static final int MAX_MOVEMENTS = 1000;
 
     private static final Random random = new Random();
 
@@ -48,7 +80,7 @@ public class AccountService {
                 .build();
 
         accountRepository.save(account);
-        redisTemplate.delete(CACHE_KEY);
+        evictUserAccounts(account.getUserId());
         log.info("Account for {} is created", account.getAccountHolderName());
 
         // Call transaction API for initial deposit
@@ -82,50 +114,133 @@ public class AccountService {
     }
 
     /**
-     * Retrieves all bank accounts.
+     * Retrieves a page of the bank accounts of a user in id order.
+     * <p>
+     * Pages are addressed by the id of the last account of the previous page rather than by an offset,
+     * so every page is a single index range scan on {@code userId, _id}, however deep it is.
      *
-     * @return A list of AccountResponse objects representing the bank accounts.
+     * @param userId The user ID from the JWT.
+     * @param after The id of the last account of the previous page, or null for the first page.
+     * @param size The maximum number of accounts in the page, capped at {@value #MAX_PAGE_SIZE}.
+     * @return The page of accounts and the cursor of the next page.
      */
-    public List<AccountResponse> getAllAccounts() {
-        List<AccountResponse> cachedAccounts = redisTemplate.opsForValue().get(CACHE_KEY);
+    public AccountPage getAccountPage(String userId, String after, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Query query = new Query(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(pageSize);
+        if (after != null) {
+            query.addCriteria(afterId(after));
+        }
 
-        if (cachedAccounts != null) {
-            return cachedAccounts;
-        } else {
-            List<Account> accounts = accountRepository.findAll();
+        List<AccountResponse> accounts = mapToAccountResponses(mongoTemplate.find(query, Account.class));
+        String nextCursor = accounts.size() == pageSize ? accounts.get(pageSize - 1).getId() : null;
+        return AccountPage.builder()
+                .accounts(accounts)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Streams every bank account of a user in id order straight from a database cursor.
+     * <p>
+     * Accounts are fetched in batches and handed over one at a time, so the memory use does not depend
+     * on the number of accounts.
+     *
+     * @param userId The user ID from the JWT.
+     * @param action The action to perform for each account.
+     */
+    public void forEachAccount(String userId, Consumer<AccountResponse> action) {
+        forEachAccount(Criteria.where("userId").is(userId), action);
+    }
 
-            List<AccountResponse> accountResponses = accounts.stream()
-                    .map(this::mapToAccountResponse)
-                    .toList();
-            redisTemplate.opsForValue().set(CACHE_KEY, accountResponses);
-            return accountResponses;
+    /**
+     * Streams every bank account of all users in id order straight from a database cursor, in constant memory
+     * like {@link #forEachAccount(String, Consumer)}.
+     *
+     * @param action The action to perform for each account.
+     */
+    public void forEachAccount(Consumer<AccountResponse> action) {
+        forEachAccount(new Criteria(), action);
+    }
+
+    private void forEachAccount(Criteria criteria, Consumer<AccountResponse> action) {
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .cursorBatchSize(EXPORT_BATCH_SIZE);
+        try (Stream<Account> accounts = mongoTemplate.stream(query, Account.class)) {
+            List<Account> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+            Iterator<Account> iterator = accounts.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == EXPORT_BATCH_SIZE || !iterator.hasNext()) {
+                    mapToAccountResponses(batch).forEach(action);
+                    batch.clear();
+                }
+            }
         }
     }
 
+    /**
+     * Creates the criteria for the accounts following the given id in {@code _id} order.
+     * <p>
+     * Accounts created by the application have ObjectId ids, seeded ones such as the bank account have
+     * string ids. MongoDB orders strings before ObjectIds and only compares values of the same type, so
+     * a string cursor has to include every ObjectId explicitly.
+     *
+     * @param after The id of the last account of the previous page.
+     * @return The criteria.
+     */
+    private Criteria afterId(String after) {
+        if (ObjectId.isValid(after)) {
+            return Criteria.where("id").gt(new ObjectId(after));
+        }
+        return new Criteria().orOperator(
+                Criteria.where("id").gt(after),
+                Criteria.where("id").type(JsonSchemaObject.Type.OBJECT_ID));
+    }
+
     /**
      * Retrieves all bank accounts for a specific user.
+     * The result is cached under {@code user-accounts:{userId}}.
      *
      * @param userId The ID of the user whose accounts to retrieve.
      * @return A list of AccountResponse objects representing the user's bank accounts.
      */
+    @Cacheable(cacheNames = USER_ACCOUNTS_CACHE, key = "#userId", condition = "#userId != null")
     public List<AccountResponse> getAllAccounts(String userId) {
-        List<Account> accounts = accountRepository.findByUserId(userId);
-        return accounts.stream().map(this::mapToAccountResponse).toList();
+        return mapToAccountResponses(accountRepository.findByUserId(userId));
+    }
+
+    /**
+     * Maps Account objects to AccountResponse objects.
+     *
+     * @param accounts The Account objects to map.
+     * @return The mapped AccountResponse objects, in the same order.
+     */
+    private List<AccountResponse> mapToAccountResponses(List<Account> accounts) {
+        if (accounts.isEmpty()) {
+            return List.of();
+        }
+        return accounts.stream()
+                .map(account -> mapToAccountResponse(account, ledgerService.balanceOf(account)))
+                .toList();
     }
 
     /**
      * Maps an Account object to an AccountResponse object.
      *
      * @param account The Account object to map.
+     * @param balance The balance of the account.
      * @return The mapped AccountResponse object.
      */
-    private AccountResponse mapToAccountResponse(Account account) {
+    private AccountResponse mapToAccountResponse(Account account, BigDecimal balance) {
         return AccountResponse.builder()
                 .id(account.getId())
                 .accountNumber(account.getAccountNumber())
                 .accountName(account.getAccountName())
                 .accountHolderName(account.getAccountHolderName())
-                .balance(account.getBalance())
+                .balance(balance)
                 .currency(account.getCurrency())
                 .userId(account.getUserId()) // include userId in response
                 .build();
@@ -138,15 +253,11 @@ public class AccountService {
      * @throws NoSuchElementException if the account is not found.
      */
     public void deleteAccountByAccountHolderName(String name) {
-        List<Account> accounts = accountRepository.findAll();
-
-        Optional<Account> accountToDelete = accounts.stream()
-                .filter(a -> a.getAccountHolderName() != null &&
-                        a.getAccountHolderName().equals(name)).findFirst();
+        Optional<Account> accountToDelete = accountRepository.findFirstByAccountHolderName(name);
 
         if (accountToDelete.isPresent()) {
             accountRepository.delete(accountToDelete.get());
-            redisTemplate.delete(CACHE_KEY);
+            evictCachedAccount(accountToDelete.get());
         } else {
             throw new NoSuchElementException("The bank account information for "
                     + name + " was not found.");
@@ -161,14 +272,11 @@ public class AccountService {
      * @throws NoSuchElementException if the account is not found or does not belong to the user.
      */
     public void deleteAccountByAccountHolderNameAndUserId(String name, String userId) {
-        List<Account> accounts = accountRepository.findByUserId(userId);
-        Optional<Account> accountToDelete = accounts.stream()
-                .filter(a -> a.getAccountHolderName() != null &&
-                        a.getAccountHolderName().equals(name)).findFirst();
+        Optional<Account> accountToDelete = accountRepository.findFirstByUserIdAndAccountHolderName(userId, name);
 
         if (accountToDelete.isPresent()) {
             accountRepository.delete(accountToDelete.get());
-            redisTemplate.delete(CACHE_KEY);
+            evictCachedAccount(accountToDelete.get());
         } else {
             throw new NoSuchElementException("The bank account information for "
                     + name + " was not found or does not belong to the user.");
@@ -184,31 +292,154 @@ public class AccountService {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new NoSuchElementException("Account with id " + accountId + " not found."));
         accountRepository.delete(account);
-        redisTemplate.delete(CACHE_KEY);
+        evictCachedAccount(account);
     }
 
-    public void debitAccount(String accountId, java.math.BigDecimal amount) {
+    /**
+     * Debits an account by appending a ledger entry, unless that would overdraw it.
+     * <p>
+     * The debit is taken from the balance by a single update guarded by the balance, so concurrent debits
+     * of the account can neither lose updates nor overdraw it, see {@link LedgerService}.
+     *
+     * @param accountId The account id.
+     * @param amount The amount to debit.
+     * @throws IllegalArgumentException if the account is not found or has insufficient funds.
+     */
+    public void debitAccount(String accountId, BigDecimal amount) {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        if (account.getBalance().compareTo(amount) < 0) {
+        if (ledgerService.debit(UUID.randomUUID().toString(), accountId, amount) != MovementStatus.APPLIED) {
             throw new IllegalArgumentException("Insufficient funds");
         }
-        account.setBalance(account.getBalance().subtract(amount));
-        accountRepository.save(account);
-        redisTemplate.delete(CACHE_KEY);
+        evictCachedAccount(account);
     }
 
-    public void creditAccount(String accountId, java.math.BigDecimal amount) {
+    /**
+     * Credits an account by appending a ledger entry.
+     *
+     * @param accountId The account id.
+     * @param amount The amount to credit.
+     * @throws IllegalArgumentException if the account is not found.
+     */
+    public void creditAccount(String accountId, BigDecimal amount) {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        account.setBalance(account.getBalance().add(amount));
-        accountRepository.save(account);
-        redisTemplate.delete(CACHE_KEY);
+        ledgerService.credit(UUID.randomUUID().toString(), accountId, amount);
+        evictCachedAccount(account);
+    }
+
+    /**
+     * Applies a batch of balance movements as ledger entries, one per movement, keyed by the movement id.
+     * <p>
+     * Debits are applied first, each guarded by the balance of its account. Credits follow, except those
+     * of a group in which a debit was not applied, so that a transfer never credits money that was not
+     * debited. The credits are applied with a few unordered bulk writes. A movement whose entry is already in
+     * the ledger is not applied again, so a batch can safely be retried.
+     *
+     * @param movements The movements to apply.
+     * @return The outcome of every movement, in request order.
+     * @throws IllegalArgumentException if the batch is too large or a movement is incomplete.
+     */
+    public List<MovementResult> applyMovements(List<MovementRequest> movements) {
+        if (movements.size() > MAX_MOVEMENTS) {
+            throw new IllegalArgumentException("A batch holds at most " + MAX_MOVEMENTS + " movements");
+        }
+        List<MovementRequest> debits = new ArrayList<>();
+        List<MovementRequest> credits = new ArrayList<>();
+        Set<String> movementIds = new HashSet<>();
+        for (MovementRequest movement : movements) {
+            if (movement.getAccountId() == null || movement.getAmount() == null || movement.getAmount().signum() == 0) {
+                throw new IllegalArgumentException("Every movement needs an account id and a non-zero amount");
+            }
+            if (movement.getMovementId() == null) {
+                movement.setMovementId(UUID.randomUUID().toString());
+            }
+            if (!movementIds.add(movement.getMovementId())) {
+                throw new IllegalArgumentException("Duplicate movement id " + movement.getMovementId());
+            }
+            (movement.getAmount().signum() < 0 ? debits : credits).add(movement);
+        }
+
+        Map<String, Account> accounts = mongoTemplate.find(Query.query(Criteria.where("id").in(movements.stream()
+                        .map(MovementRequest::getAccountId)
+                        .collect(Collectors.toSet()))), Account.class).stream()
+                .collect(Collectors.toMap(Account::getId, account -> account));
+        Map<String, MovementStatus> statuses = new HashMap<>();
+        for (MovementRequest debit : debits) {
+            Account account = accounts.get(debit.getAccountId());
+            statuses.put(debit.getMovementId(), account == null ? MovementStatus.ACCOUNT_NOT_FOUND
+                    : ledgerService.debit(debit.getMovementId(), account.getId(), debit.getAmount().negate()));
+        }
+        Set<String> failedGroups = debits.stream()
+                .filter(debit -> debit.getGroup() != null && statuses.get(debit.getMovementId()) != MovementStatus.APPLIED)
+                .map(MovementRequest::getGroup)
+                .collect(Collectors.toSet());
+        List<MovementRequest> applicableCredits = new ArrayList<>();
+        for (MovementRequest credit : credits) {
+            if (credit.getGroup() != null && failedGroups.contains(credit.getGroup())) {
+                statuses.put(credit.getMovementId(), MovementStatus.SKIPPED);
+            } else if (!accounts.containsKey(credit.getAccountId())) {
+                statuses.put(credit.getMovementId(), MovementStatus.ACCOUNT_NOT_FOUND);
+            } else {
+                applicableCredits.add(credit);
+                statuses.put(credit.getMovementId(), MovementStatus.APPLIED);
+            }
+        }
+        ledgerService.creditAll(applicableCredits);
+
+        movements.stream()
+                .filter(movement -> statuses.get(movement.getMovementId()) == MovementStatus.APPLIED)
+                .map(movement -> accounts.get(movement.getAccountId()))
+                .distinct()
+                .forEach(this::evictCachedAccount);
+
+        return movements.stream()
+                .map(movement -> MovementResult.builder()
+                        .movementId(movement.getMovementId())
+                        .accountId(movement.getAccountId())
+                        .amount(movement.getAmount())
+                        .status(statuses.get(movement.getMovementId()))
+                        .build())
+                .toList();
     }
 
+    /**
+     * Retrieves a bank account by account id.
+     * The result is cached under {@code account:{id}}.
+     *
+     * @param accountId The account id.
+     * @return The AccountResponse object, or null if the account is not found.
+     */
+    @Cacheable(cacheNames = ACCOUNT_CACHE, key = "#accountId", unless = "#result == null")
     public AccountResponse getAccountById(String accountId) {
         Account account = accountRepository.findById(accountId)
             .orElse(null);
-        return account != null ? mapToAccountResponse(account) : null;
+        return account != null ? mapToAccountResponse(account, ledgerService.balanceOf(account)) : null;
+    }
+
+    /**
+     * Evicts a changed or removed account and the cached account list of its owner,
+     * which carries the balance as well.
+     *
+     * @param account The changed or removed account.
+     */
+    private void evictCachedAccount(Account account) {
+        getCache(ACCOUNT_CACHE).evict(account.getId());
+        evictUserAccounts(account.getUserId());
+    }
+
+    /**
+     * Evicts the cached account list of a user.
+     *
+     * @param userId The user ID, may be null for accounts created without a token.
+     */
+    private void evictUserAccounts(String userId) {
+        if (userId != null) {
+            getCache(USER_ACCOUNTS_CACHE).evict(userId);
+        }
+    }
+
+    private Cache getCache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), "Cache " + name + " is not configured");
     }
 }
@@ -0,0 +1,152 @@
+package com.veritas.account.api.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.veritas.account.api.model.Account;
+import com.veritas.account.api.model.LedgerPosting;
+import com.veritas.account.api.model.PendingEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service class that reconciles the ledger with the account balances, one account at a time.
+ * <p>
+ * Each run first settles the entries that have been pending for longer than the pending timeout, which a
+ * writer that stopped halfway left behind. It then reconciles every account that had entries applied since its
+ * previous reconciliation. The postings of the account are taken in the order of their sequence numbers, from
+ * the reconciled sequence number of the account up to its first pending entry, so a posting is never skipped
+ * however late it was written. It reports the entries that do not sum to zero, adds the postings to the
+ * reconciled balance of the account and, once no entry is pending, checks that the reconciled balance is the
+ * balance. The reconciled sequence number and balance are written together and only if the reconciled sequence
+ * number did not move in the meantime, so instances running the job at the same time do no harm.
+ */
+@Slf4j
+@Service
+public class LedgerReconciliationJob {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final LedgerService ledgerService;
+
+    @Value("${account.ledger.pending-timeout:PT1M}")
+    private Duration pendingTimeout = Duration.ofMinutes(1);
+
+    public LedgerReconciliationJob(MongoTemplate mongoTemplate, LedgerService ledgerService) {
+        this.mongoTemplate = mongoTemplate;
+        this.ledgerService = ledgerService;
+    }
+
+    /**
+     * Settles the entries pending for longer than the pending timeout and reconciles the accounts.
+     */
+    @Scheduled(initialDelayString = "${account.ledger.reconciliation-interval-ms:60000}",
+            fixedDelayString = "${account.ledger.reconciliation-interval-ms:60000}")
+    public void reconcile() {
+        reconcile(Instant.now().minus(pendingTimeout));
+    }
+
+    /**
+     * Settles the entries applied before a point in time that are still pending and reconciles the accounts.
+     *
+     * @param pendingBefore The point in time before which pending entries are settled.
+     * @return The number of accounts whose reconciled sequence number moved forward.
+     */
+    public int reconcile(Instant pendingBefore) {
+        List<LedgerService.Applied> stale = new ArrayList<>();
+        Query stalePending = Query.query(Criteria.where("pendingEntries.appliedAt").lt(pendingBefore));
+        for (Account account : mongoTemplate.find(stalePending, Account.class)) {
+            account.getPendingEntries().stream()
+                    .filter(pending -> pending.getAppliedAt().isBefore(pendingBefore))
+                    .forEach(pending -> stale.add(new LedgerService.Applied(account.getId(), pending)));
+        }
+        ledgerService.settle(stale);
+
+        int reconciled = 0;
+        try (Stream<Account> accounts = mongoTemplate.stream(Query.query(Criteria.where("unreconciled").is(true)),
+                Account.class)) {
+            for (Account account : (Iterable<Account>) accounts::iterator) {
+                if (reconcile(account)) {
+                    reconciled++;
+                }
+            }
+        }
+        log.info("Reconciled the ledger: {} stale pending entries settled, {} accounts reconciled",
+                stale.size(), reconciled);
+        return reconciled;
+    }
+
+    /**
+     * Reconciles the postings of an account from its reconciled sequence number up to its first pending entry.
+     *
+     * @return Whether the reconciled sequence number moved forward.
+     */
+    private boolean reconcile(Account account) {
+        long ledgerSequence = account.getLedgerSequence() == null ? 0 : account.getLedgerSequence();
+        long from = account.getReconciledSequence() == null ? 0 : account.getReconciledSequence();
+        List<PendingEntry> pendingEntries = account.getPendingEntries() == null ? List.of()
+                : account.getPendingEntries();
+        long to = pendingEntries.stream()
+                .mapToLong(PendingEntry::getSequence)
+                .min()
+                .orElse(ledgerSequence + 1) - 1;
+        BigDecimal balance = account.getReconciledBalance() == null ? BigDecimal.ZERO
+                : account.getReconciledBalance();
+
+        List<LedgerPosting> postings = mongoTemplate.find(Query.query(Criteria.where("accountId").is(account.getId())
+                .and("sequence").gt(from).lte(to)), LedgerPosting.class);
+        Map<String, BigDecimal> counterLegs = postings.isEmpty() ? Map.of() : mongoTemplate.find(
+                        Query.query(Criteria.where("id").in(postings.stream()
+                                .map(posting -> posting.getEntryId() + ":1")
+                                .toList())), LedgerPosting.class).stream()
+                .collect(Collectors.toMap(LedgerPosting::getEntryId, LedgerPosting::getAmount));
+        for (LedgerPosting posting : postings) {
+            balance = balance.add(posting.getAmount());
+            BigDecimal offBy = posting.getAmount().add(counterLegs.getOrDefault(posting.getEntryId(), BigDecimal.ZERO));
+            if (offBy.signum() != 0) {
+                log.error("Ledger entry {} is off by {}", posting.getEntryId(), offBy);
+            }
+        }
+
+        boolean moved = false;
+        if (to > from) {
+            UpdateResult result = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("id").is(account.getId())
+                            .and("reconciledSequence").is(account.getReconciledSequence())),
+                    new Update().set("reconciledSequence", to).set("reconciledBalance", new Decimal128(balance)),
+                    Account.class);
+            if (result.getModifiedCount() == 0) {
+                return false; // reconciled by another instance
+            }
+            moved = true;
+        }
+        if (to == ledgerSequence) {
+            // No entry was pending, so every applied entry is in the reconciled balance
+            if (ledgerService.balanceOf(account).compareTo(balance) != 0) {
+                log.error("Account {} has a balance of {} but its ledger sums to {}",
+                        account.getId(), account.getBalance(), balance);
+            }
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(account.getId())
+                    .and("ledgerSequence").is(account.getLedgerSequence())), new Update().unset("unreconciled"),
+                    Account.class);
+        }
+        if (balance.signum() < 0) {
+            log.error("Account {} has a negative balance of {} at sequence number {}", account.getId(), balance, to);
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,286 @@
+package com.veritas.account.api.service;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.veritas.account.api.dto.MovementRequest;
+import com.veritas.account.api.dto.MovementStatus;
+import com.veritas.account.api.model.Account;
+import com.veritas.account.api.model.LedgerPosting;
+import com.veritas.account.api.model.PendingEntry;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class that keeps the double-entry ledger of the bank accounts.
+ * <p>
+ * Every balance change is an entry of postings that sum to zero. Deposits and withdrawals are balanced against
+ * {@value #EXTERNAL_ACCOUNT_ID}, the money outside the bank. An entry is applied in three writes:
+ * <ol>
+ *     <li>The account document numbers the entry with its next sequence number and records it as pending. A
+ *     debit is taken from the balance by the same update, which only matches while the balance covers it, so
+ *     concurrent debits of an account neither lose updates nor overdraw it.</li>
+ *     <li>The postings of the entry are inserted, keyed by the entry id.</li>
+ *     <li>The entry is settled: it is removed from the pending entries of the account, and a credit is added to
+ *     the balance.</li>
+ * </ol>
+ * An entry id is applied once. It cannot be applied again while it is pending, and an entry applied again after
+ * it settled finds postings with another sequence number, so it settles without changing the balance.
+ * {@link LedgerReconciliationJob} settles the entries left pending by a writer that stopped halfway.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+
+    /**
+     * Counter account of deposits and withdrawals.
+     */
+    public static final String EXTERNAL_ACCOUNT_ID = "EXTERNAL";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Credits an account. Posting an entry id a second time has no effect.
+     *
+     * @param entryId The id of the ledger entry.
+     * @param accountId The account id.
+     * @param amount The positive amount to credit.
+     */
+    public void credit(String entryId, String accountId, BigDecimal amount) {
+        PendingEntry pending = apply(entryId, accountId, amount);
+        if (pending != null) {
+            settle(List.of(new Applied(accountId, pending)));
+        }
+    }
+
+    /**
+     * Credits accounts, one entry per movement, keyed by the movement id. The entries are applied, posted and
+     * settled with one bulk write each. Movements posted before have no effect.
+     *
+     * @param credits The movements, with positive amounts.
+     */
+    public void creditAll(List<MovementRequest> credits) {
+        if (credits.isEmpty()) {
+            return;
+        }
+        List<UpdateOneModel<Document>> updates = credits.stream()
+                .map(credit -> new UpdateOneModel<Document>(
+                        applicableTo(credit.getMovementId(), credit.getAccountId(), credit.getAmount()),
+                        applyPipeline(credit.getMovementId(), credit.getAmount())))
+                .toList();
+        accounts().bulkWrite(updates, new BulkWriteOptions().ordered(false));
+
+        // The sequence numbers are read back, credits left pending by an earlier attempt are settled as well
+        Map<String, String> accountIds = credits.stream()
+                .collect(Collectors.toMap(MovementRequest::getMovementId, MovementRequest::getAccountId));
+        List<Applied> applied = new ArrayList<>();
+        Query accountsQuery = Query.query(Criteria.where("id").in(new HashSet<>(accountIds.values())));
+        for (Account account : mongoTemplate.find(accountsQuery, Account.class)) {
+            for (PendingEntry pending : pendingEntries(account)) {
+                if (account.getId().equals(accountIds.get(pending.getEntryId()))) {
+                    applied.add(new Applied(account.getId(), pending));
+                }
+            }
+        }
+        settle(applied);
+    }
+
+    /**
+     * Debits an account unless that would overdraw it. Posting an entry id a second time has no effect.
+     *
+     * @param entryId The id of the ledger entry.
+     * @param accountId The account id.
+     * @param amount The positive amount to debit.
+     * @return {@link MovementStatus#APPLIED} or {@link MovementStatus#INSUFFICIENT_FUNDS}.
+     */
+    public MovementStatus debit(String entryId, String accountId, BigDecimal amount) {
+        PendingEntry pending = apply(entryId, accountId, amount.negate());
+        if (pending == null) {
+            // Either the entry is pending or posted already, or the balance does not cover it
+            Account account = mongoTemplate.findById(accountId, Account.class);
+            pending = account == null ? null : pendingEntry(account, entryId);
+        }
+        if (pending != null) {
+            settle(List.of(new Applied(accountId, pending)));
+            return MovementStatus.APPLIED;
+        }
+        return mongoTemplate.exists(Query.query(Criteria.where("id").is(entryId + ":0")), LedgerPosting.class)
+                ? MovementStatus.APPLIED : MovementStatus.INSUFFICIENT_FUNDS;
+    }
+
+    /**
+     * Returns the balance of an account, which is kept on the account.
+     *
+     * @param account The account.
+     * @return The balance.
+     */
+    public BigDecimal balanceOf(Account account) {
+        return account.getBalance() == null ? BigDecimal.ZERO : account.getBalance();
+    }
+
+    /**
+     * Writes the postings of applied entries and settles the entries, with one bulk write each. Settling is
+     * conditional on the entry being still pending, so an entry settled concurrently by two writers changes the
+     * balance once.
+     *
+     * @param entries The applied entries.
+     */
+    void settle(List<Applied> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<LedgerPosting> postings = new ArrayList<>();
+        entries.forEach(applied -> postings.addAll(entry(applied)));
+        Set<String> duplicateLegs = insertIgnoringDuplicates(postings).stream()
+                .filter(index -> index % 2 == 0)
+                .map(index -> postings.get(index).getId())
+                .collect(Collectors.toSet());
+        Map<String, LedgerPosting> existingLegs = new HashMap<>();
+        if (!duplicateLegs.isEmpty()) {
+            mongoTemplate.find(Query.query(Criteria.where("id").in(duplicateLegs)), LedgerPosting.class)
+                    .forEach(leg -> existingLegs.put(leg.getId(), leg));
+        }
+
+        BulkOperations settlements = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        for (Applied applied : entries) {
+            PendingEntry pending = applied.entry();
+            LedgerPosting existing = existingLegs.get(pending.getEntryId() + ":0");
+            // A leg with another sequence number was posted by an earlier application of the entry
+            boolean posted = existing == null || Long.valueOf(pending.getSequence()).equals(existing.getSequence());
+            BigDecimal amount = pending.getAmount();
+            BigDecimal change = posted ? amount.max(BigDecimal.ZERO) : amount.min(BigDecimal.ZERO).negate();
+            Update update = new Update().pull("pendingEntries", new Document("sequence", pending.getSequence()));
+            if (change.signum() != 0) {
+                update.inc("balance", new Decimal128(change));
+            }
+            settlements.updateOne(Query.query(Criteria.where("id").is(applied.accountId())
+                    .and("pendingEntries.sequence").is(pending.getSequence())), update);
+        }
+        settlements.execute();
+    }
+
+    /**
+     * Applies an entry to an account: numbers it, records it as pending and takes a debit from the balance.
+     *
+     * @return The pending entry, or null if the account does not exist, the entry is pending already or the
+     *         balance does not cover the debit.
+     */
+    private PendingEntry apply(String entryId, String accountId, BigDecimal amount) {
+        Document account = accounts().findOneAndUpdate(applicableTo(entryId, accountId, amount),
+                applyPipeline(entryId, amount), new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+        return account == null ? null : pendingEntry(mongoTemplate.getConverter().read(Account.class, account),
+                entryId);
+    }
+
+    /**
+     * Matches the account unless the entry is pending on it already, or the entry is a debit that the balance
+     * does not cover.
+     */
+    private Document applicableTo(String entryId, String accountId, BigDecimal amount) {
+        Criteria criteria = Criteria.where("id").is(accountId).and("pendingEntries.entryId").ne(entryId);
+        if (amount.signum() < 0) {
+            criteria = criteria.and("balance").gte(new Decimal128(amount.negate()));
+        }
+        return new QueryMapper(mongoTemplate.getConverter()).getMappedObject(Query.query(criteria).getQueryObject(),
+                mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Account.class));
+    }
+
+    /**
+     * Numbers the entry with the next sequence number of the account and records it as pending in a single
+     * pipeline stage, so every field is computed from the account as it was before.
+     */
+    private static List<Document> applyPipeline(String entryId, BigDecimal amount) {
+        Document sequence = new Document("$add", List.of(new Document("$ifNull", List.of("$ledgerSequence", 0L)), 1L));
+        Document pending = new Document("entryId", new Document("$literal", entryId))
+                .append("amount", new Decimal128(amount))
+                .append("sequence", sequence)
+                .append("appliedAt", "$$NOW");
+        Document fields = new Document("ledgerSequence", sequence)
+                .append("pendingEntries", new Document("$concatArrays",
+                        List.of(new Document("$ifNull", List.of("$pendingEntries", List.of())), List.of(pending))))
+                .append("reconciledBalance", new Document("$ifNull", List.of("$reconciledBalance", "$balance")))
+                .append("unreconciled", true);
+        if (amount.signum() < 0) {
+            fields.append("balance", new Document("$add", List.of("$balance", new Decimal128(amount))));
+        }
+        return List.of(new Document("$set", fields));
+    }
+
+    private MongoCollection<Document> accounts() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Account.class));
+    }
+
+    private static PendingEntry pendingEntry(Account account, String entryId) {
+        return pendingEntries(account).stream()
+                .filter(pending -> pending.getEntryId().equals(entryId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static List<PendingEntry> pendingEntries(Account account) {
+        return account.getPendingEntries() == null ? List.of() : account.getPendingEntries();
+    }
+
+    /**
+     * Builds the postings of an entry, the leg of the account first.
+     */
+    private static List<LedgerPosting> entry(Applied applied) {
+        PendingEntry pending = applied.entry();
+        String entryId = pending.getEntryId();
+        Instant postedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        return List.of(
+                new LedgerPosting(entryId + ":0", entryId, applied.accountId(), pending.getAmount(), postedAt,
+                        pending.getSequence()),
+                new LedgerPosting(entryId + ":1", entryId, EXTERNAL_ACCOUNT_ID, pending.getAmount().negate(),
+                        postedAt, null));
+    }
+
+    /**
+     * Inserts postings in any order, skipping the ones that already exist, so that a retried entry completes
+     * instead of failing.
+     *
+     * @return The indexes of the postings that existed already.
+     */
+    private Set<Integer> insertIgnoringDuplicates(List<LedgerPosting> postings) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LedgerPosting.class).insert(postings).execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            boolean onlyDuplicates = e.getErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+            return e.getErrors().stream().map(error -> error.getIndex()).collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Entry applied to an account.
+     */
+    record Applied(String accountId, PendingEntry entry) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.veritas.account.api.util;
+
+import com.veritas.identity.IdentitySignature;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Resolves the id of the user on whose behalf a request is made.
+ * <p>
+ * Requests routed through the API gateway carry the user id in the signed {@link IdentitySignature#USER_ID_HEADER}
+ * header, which is checked with a single HMAC. A request without a valid identity header is not authenticated:
+ * the bearer token is not decoded, since only the gateway verifies its signature.
+ * <p>
+ * There is no role model yet, so the operators allowed to read every account are configured by user id.
+ */
+@Component
+public class UserIdResolver {
+
+    private final IdentitySignature identitySignature;
+
+    private final Set<String> operatorUserIds;
+
+    /**
+     * Creates a resolver for the given shared secret.
+     *
+     * @param signingKey The secret shared by the gateway and the backend services.
+     * @param operatorUserIds The user ids of the operators, none by default.
+     * @throws IllegalStateException if the secret is blank, so that a misconfigured service fails at startup.
+     */
+    public UserIdResolver(@Value("${veritas.identity.signing-key}") String signingKey,
+                          @Value("${account.operator-user-ids:}") Set<String> operatorUserIds) {
+        if (signingKey.isBlank()) {
+            throw new IllegalStateException("veritas.identity.signing-key must be set");
+        }
+        this.identitySignature = new IdentitySignature(signingKey);
+        this.operatorUserIds = Set.copyOf(operatorUserIds);
+    }
+
+    /**
+     * Resolves the user id of a request.
+     *
+     * @param request The HTTP request.
+     * @return The user id, or null if the request has no valid identity header.
+     */
+    public String resolveUserId(HttpServletRequest request) {
+        String userId = request.getHeader(IdentitySignature.USER_ID_HEADER);
+        return identitySignature.verify(userId, request.getHeader(IdentitySignature.SIGNATURE_HEADER)) ? userId : null;
+    }
+
+    /**
+     * Tells whether a resolved user is an operator.
+     *
+     * @param userId The user id resolved from a request, may be null.
+     * @return Whether the user is one of the configured operators.
+     */
+    public boolean isOperator(String userId) {
+        return userId != null && operatorUserIds.contains(userId);
+    }
+}
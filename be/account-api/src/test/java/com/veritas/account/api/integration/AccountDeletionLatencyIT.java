@@ -0,0 +1,127 @@
+package com.veritas.account.api.integration;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.veritas.account.api.client.TransactionApiClient;
+import com.veritas.account.api.model.Account;
+import com.veritas.account.api.repository.AccountRepository;
+import com.veritas.account.api.service.AccountService;
+import com.veritas.account.api.service.LedgerService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency benchmark for the account deletion of {@link AccountService}.
+ * <p>
+ * The collection is grown from 10k to 1M documents and the median latency of deleting an account by
+ * holder name is measured at each size. With indexed lookups it has to stay flat.
+ */
+@Slf4j
+@Testcontainers
+class AccountDeletionLatencyIT {
+
+    private static final int[] COLLECTION_SIZES = {10_000, 100_000, 1_000_000};
+
+    private static final int DELETIONS_PER_SIZE = 200;
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.5");
+
+    private static MongoClient mongoClient;
+
+    private static MongoTemplate mongoTemplate;
+
+    private static AccountService accountService;
+
+    @BeforeAll
+    static void setUp() {
+        mongoClient = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(mongoClient, "account-api-mongo");
+        AccountRepository accountRepository = new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(AccountRepository.class);
+        accountService = new AccountService(accountRepository, mongoTemplate,
+                Mockito.mock(TransactionApiClient.class), new ConcurrentMapCacheManager(),
+                new LedgerService(mongoTemplate));
+
+        IndexOperations indexOperations = mongoTemplate.indexOps(Account.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Account.class)
+                .forEach(indexOperations::ensureIndex);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        mongoClient.close();
+    }
+
+    @Test
+    void deletionLatencyStaysFlatAsCollectionGrows() {
+        Map<Integer, Long> medianNanosBySize = new LinkedHashMap<>();
+        int inserted = 0;
+        for (int size : COLLECTION_SIZES) {
+            inserted = insertAccounts(inserted, size);
+            medianNanosBySize.put(size, measureMedianDeletionNanos(size));
+        }
+
+        medianNanosBySize.forEach((size, nanos) ->
+                log.info("Median deletion latency at {} accounts: {} µs", size, nanos / 1_000));
+        long smallest = medianNanosBySize.get(COLLECTION_SIZES[0]);
+        long largest = medianNanosBySize.get(COLLECTION_SIZES[COLLECTION_SIZES.length - 1]);
+        // 100x the data may cost a few extra B-tree levels, but nowhere near the linear growth of a scan
+        Assertions.assertTrue(largest < smallest * 5 + 1_000_000,
+                "Deletion latency grew from " + smallest + " ns to " + largest + " ns");
+    }
+
+    private int insertAccounts(int from, int to) {
+        for (int batchStart = from; batchStart < to; batchStart += INSERT_BATCH_SIZE) {
+            List<Account> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (int i = batchStart; i < Math.min(batchStart + INSERT_BATCH_SIZE, to); i++) {
+                batch.add(Account.builder()
+                        .accountNumber(AccountService.generateIBAN())
+                        .accountName("Savings")
+                        .accountHolderName("Holder " + i)
+                        .balance(BigDecimal.valueOf(i))
+                        .currency(Currency.getInstance("EUR"))
+                        .userId("auth0|" + i)
+                        .build());
+            }
+            mongoTemplate.insert(batch, Account.class);
+        }
+        return to;
+    }
+
+    private long measureMedianDeletionNanos(int size) {
+        long[] latencies = new long[DELETIONS_PER_SIZE];
+        int stride = size / DELETIONS_PER_SIZE;
+        for (int i = 0; i < DELETIONS_PER_SIZE; i++) {
+            String holderName = "Holder " + (i * stride + stride / 2);
+            long startedAt = System.nanoTime();
+            accountService.deleteAccountByAccountHolderName(holderName);
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(latencies);
+        return latencies[DELETIONS_PER_SIZE / 2];
+    }
+}
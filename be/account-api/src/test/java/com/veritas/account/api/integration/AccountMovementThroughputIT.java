@@ -0,0 +1,164 @@
+package com.veritas.account.api.integration;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.veritas.account.api.client.TransactionApiClient;
+import com.veritas.account.api.dto.MovementRequest;
+import com.veritas.account.api.dto.MovementResult;
+import com.veritas.account.api.dto.MovementStatus;
+import com.veritas.account.api.model.Account;
+import com.veritas.account.api.model.LedgerPosting;
+import com.veritas.account.api.repository.AccountRepository;
+import com.veritas.account.api.service.AccountService;
+import com.veritas.account.api.service.LedgerService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Throughput benchmark and correctness checks for the batched balance movements of {@link AccountService}.
+ */
+@Slf4j
+@Testcontainers
+class AccountMovementThroughputIT {
+
+    private static final int ACCOUNTS = 100;
+
+    private static final int MOVEMENTS = 10_000;
+
+    private static final int[] BATCH_SIZES = {10, 100, 1000};
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.5");
+
+    private static MongoClient mongoClient;
+
+    private static MongoTemplate mongoTemplate;
+
+    private static AccountRepository accountRepository;
+
+    private AccountService accountService;
+
+    private List<String> accountIds;
+
+    @BeforeAll
+    static void setUpMongo() {
+        mongoClient = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(mongoClient, "account-api-mongo");
+        accountRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(AccountRepository.class);
+
+        IndexOperations indexOperations = mongoTemplate.indexOps(LedgerPosting.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(LedgerPosting.class)
+                .forEach(indexOperations::ensureIndex);
+    }
+
+    @AfterAll
+    static void tearDownMongo() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountService(accountRepository, mongoTemplate,
+                Mockito.mock(TransactionApiClient.class), new ConcurrentMapCacheManager(),
+                new LedgerService(mongoTemplate));
+        resetAccounts();
+    }
+
+    @Test
+    void batchedCreditsOutperformSingleCalls() {
+        BigDecimal amount = BigDecimal.ONE;
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < MOVEMENTS; i++) {
+            accountService.creditAccount(accountIds.get(i % ACCOUNTS), amount);
+        }
+        log.info("Single calls: {} movements/s", Math.round(MOVEMENTS / secondsSince(startedAt)));
+        assertBalances(amount.multiply(BigDecimal.valueOf(MOVEMENTS / ACCOUNTS)));
+
+        for (int batchSize : BATCH_SIZES) {
+            resetAccounts();
+            startedAt = System.nanoTime();
+            for (int offset = 0; offset < MOVEMENTS; offset += batchSize) {
+                List<MovementRequest> batch = new ArrayList<>(batchSize);
+                for (int i = offset; i < offset + batchSize; i++) {
+                    batch.add(MovementRequest.builder().accountId(accountIds.get(i % ACCOUNTS)).amount(amount).build());
+                }
+                accountService.applyMovements(batch);
+            }
+            log.info("Batches of {}: {} movements/s", batchSize, Math.round(MOVEMENTS / secondsSince(startedAt)));
+            assertBalances(amount.multiply(BigDecimal.valueOf(MOVEMENTS / ACCOUNTS)));
+        }
+    }
+
+    @Test
+    void creditOfGroupIsSkippedWhenDebitFails() {
+        String poorAccountId = accountIds.get(0);
+        String richAccountId = accountIds.get(1);
+        mongoTemplate.save(account(richAccountId, BigDecimal.valueOf(100)));
+
+        List<MovementResult> results = accountService.applyMovements(List.of(
+                MovementRequest.builder().accountId(poorAccountId).amount(BigDecimal.valueOf(-50)).group("t1").build(),
+                MovementRequest.builder().accountId(richAccountId).amount(BigDecimal.valueOf(50)).group("t1").build(),
+                MovementRequest.builder().accountId(richAccountId).amount(BigDecimal.valueOf(-30)).group("t2").build(),
+                MovementRequest.builder().accountId(poorAccountId).amount(BigDecimal.valueOf(30)).group("t2").build(),
+                MovementRequest.builder().accountId("missing").amount(BigDecimal.TEN).build()));
+
+        Assertions.assertEquals(List.of(MovementStatus.INSUFFICIENT_FUNDS, MovementStatus.SKIPPED,
+                        MovementStatus.APPLIED, MovementStatus.APPLIED, MovementStatus.ACCOUNT_NOT_FOUND),
+                results.stream().map(MovementResult::getStatus).toList());
+        Assertions.assertEquals(0, BigDecimal.valueOf(30).compareTo(balanceOf(poorAccountId)));
+        Assertions.assertEquals(0, BigDecimal.valueOf(70).compareTo(balanceOf(richAccountId)));
+    }
+
+    private void resetAccounts() {
+        accountRepository.deleteAll();
+        mongoTemplate.remove(new Query(), LedgerPosting.class);
+        accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds.add("account-" + i);
+            mongoTemplate.save(account("account-" + i, BigDecimal.ZERO));
+        }
+    }
+
+    private Account account(String id, BigDecimal balance) {
+        return Account.builder()
+                .id(id)
+                .accountNumber(AccountService.generateIBAN())
+                .accountHolderName("Holder " + id)
+                .balance(balance)
+                .currency(Currency.getInstance("EUR"))
+                .build();
+    }
+
+    private BigDecimal balanceOf(String accountId) {
+        return accountService.getAccountById(accountId).getBalance();
+    }
+
+    private void assertBalances(BigDecimal expected) {
+        accountIds.forEach(id -> Assertions.assertEquals(0, expected.compareTo(balanceOf(id)), id));
+    }
+
+    private static double secondsSince(long startedAt) {
+        return (System.nanoTime() - startedAt) / 1_000_000_000.0;
+    }
+}
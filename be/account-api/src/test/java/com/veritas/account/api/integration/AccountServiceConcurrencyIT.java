@@ -0,0 +1,186 @@
+package com.veritas.account.api.integration;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.veritas.account.api.client.TransactionApiClient;
+import com.veritas.account.api.dto.AccountResponse;
+import com.veritas.account.api.model.Account;
+import com.veritas.account.api.model.LedgerPosting;
+import com.veritas.account.api.repository.AccountRepository;
+import com.veritas.account.api.service.AccountService;
+import com.veritas.account.api.service.LedgerService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency stress tests for the balance operations of {@link AccountService}.
+ * <p>
+ * Each test hammers a single hot account from {@value #WRITERS} concurrent writers and logs the
+ * achieved throughput of the legacy read-modify-write path next to the ledger path.
+ */
+@Slf4j
+@Testcontainers
+class AccountServiceConcurrencyIT {
+
+    private static final int WRITERS = 64;
+
+    private static final int OPERATIONS_PER_WRITER = 50;
+
+    private static final String HOT_ACCOUNT_ID = "BANK_ACCOUNT_ID";
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.5");
+
+    private static MongoClient mongoClient;
+
+    private static MongoTemplate mongoTemplate;
+
+    private static AccountRepository accountRepository;
+
+    private AccountService accountService;
+
+    @BeforeAll
+    static void setUpMongo() {
+        mongoClient = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(mongoClient, "account-api-mongo");
+        accountRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(AccountRepository.class);
+
+        IndexOperations indexOperations = mongoTemplate.indexOps(LedgerPosting.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(LedgerPosting.class)
+                .forEach(indexOperations::ensureIndex);
+    }
+
+    @AfterAll
+    static void tearDownMongo() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        accountRepository.deleteAll();
+        accountService = new AccountService(accountRepository, mongoTemplate,
+                Mockito.mock(TransactionApiClient.class), new ConcurrentMapCacheManager(),
+                new LedgerService(mongoTemplate));
+    }
+
+    @Test
+    void concurrentCreditsDoNotLoseUpdates() throws InterruptedException {
+        BigDecimal amount = BigDecimal.valueOf(10);
+        int expectedOperations = WRITERS * OPERATIONS_PER_WRITER;
+
+        saveHotAccount(BigDecimal.ZERO);
+        double legacyOpsPerSecond = runConcurrently(() -> legacyCredit(amount));
+        BigDecimal legacyBalance = accountRepository.findById(HOT_ACCOUNT_ID).orElseThrow().getBalance();
+
+        saveHotAccount(BigDecimal.ZERO);
+        double ledgerOpsPerSecond = runConcurrently(() -> accountService.creditAccount(HOT_ACCOUNT_ID, amount));
+        AccountResponse account = accountService.getAccountById(HOT_ACCOUNT_ID);
+
+        log.info("Credits with {} writers: read-modify-write {} ops/s (balance {}), ledger {} ops/s (balance {})",
+                WRITERS, Math.round(legacyOpsPerSecond), legacyBalance,
+                Math.round(ledgerOpsPerSecond), account.getBalance());
+        Assertions.assertEquals(0, amount.multiply(BigDecimal.valueOf(expectedOperations))
+                .compareTo(account.getBalance()));
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws InterruptedException {
+        BigDecimal amount = BigDecimal.valueOf(10);
+        int affordableOperations = WRITERS * OPERATIONS_PER_WRITER / 2;
+        BigDecimal initialBalance = amount.multiply(BigDecimal.valueOf(affordableOperations));
+        AtomicInteger succeeded = new AtomicInteger();
+
+        saveHotAccount(initialBalance);
+        double ledgerOpsPerSecond = runConcurrently(() -> {
+            try {
+                accountService.debitAccount(HOT_ACCOUNT_ID, amount);
+                succeeded.incrementAndGet();
+            } catch (IllegalArgumentException insufficientFunds) {
+                // expected once the balance is exhausted
+            }
+        });
+        AccountResponse account = accountService.getAccountById(HOT_ACCOUNT_ID);
+
+        log.info("Debits with {} writers: ledger {} ops/s, {} succeeded", WRITERS,
+                Math.round(ledgerOpsPerSecond), succeeded.get());
+        Assertions.assertEquals(affordableOperations, succeeded.get());
+        Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(account.getBalance()));
+    }
+
+    private void saveHotAccount(BigDecimal balance) {
+        mongoTemplate.remove(new Query(), LedgerPosting.class);
+        accountRepository.save(Account.builder()
+                .id(HOT_ACCOUNT_ID)
+                .accountNumber("BANK-0000-0000-0000-0000")
+                .accountHolderName("Bank")
+                .balance(balance)
+                .currency(Currency.getInstance("USD"))
+                .build());
+    }
+
+    /**
+     * The read-modify-write credit the service used before balance changes were ledger entries.
+     */
+    private void legacyCredit(BigDecimal amount) {
+        Account account = accountRepository.findById(HOT_ACCOUNT_ID).orElseThrow();
+        account.setBalance(account.getBalance().add(amount));
+        accountRepository.save(account);
+    }
+
+    /**
+     * Runs the operation {@value #OPERATIONS_PER_WRITER} times on each of {@value #WRITERS} threads.
+     *
+     * @return The achieved throughput in operations per second.
+     */
+    private double runConcurrently(Runnable operation) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Runnable> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            writers.add(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < OPERATIONS_PER_WRITER; j++) {
+                        operation.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        writers.forEach(executor::execute);
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - startedAt;
+
+        return WRITERS * OPERATIONS_PER_WRITER / (elapsed / 1_000_000_000.0);
+    }
+}
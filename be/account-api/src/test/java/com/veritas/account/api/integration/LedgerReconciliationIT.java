@@ -0,0 +1,177 @@
+package com.veritas.account.api.integration;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.veritas.account.api.client.TransactionApiClient;
+import com.veritas.account.api.dto.MovementRequest;
+import com.veritas.account.api.dto.MovementStatus;
+import com.veritas.account.api.model.Account;
+import com.veritas.account.api.model.LedgerPosting;
+import com.veritas.account.api.model.PendingEntry;
+import com.veritas.account.api.repository.AccountRepository;
+import com.veritas.account.api.service.AccountService;
+import com.veritas.account.api.service.LedgerReconciliationJob;
+import com.veritas.account.api.service.LedgerService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that the balances reconciled by {@link LedgerReconciliationJob} agree with the ledger written
+ * concurrently through {@link AccountService}, and that the job settles the entries a writer left pending.
+ */
+@Testcontainers
+class LedgerReconciliationIT {
+
+    private static final int ACCOUNTS = 20;
+
+    private static final int WRITERS = 16;
+
+    private static final int TRANSFERS_PER_WRITER = 200;
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.5");
+
+    private static MongoClient mongoClient;
+
+    private static MongoTemplate mongoTemplate;
+
+    private static AccountRepository accountRepository;
+
+    @BeforeAll
+    static void setUpMongo() {
+        mongoClient = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(mongoClient, "account-api-mongo");
+        accountRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(AccountRepository.class);
+
+        IndexOperations indexOperations = mongoTemplate.indexOps(LedgerPosting.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(LedgerPosting.class)
+                .forEach(indexOperations::ensureIndex);
+    }
+
+    @AfterAll
+    static void tearDownMongo() {
+        mongoClient.close();
+    }
+
+    @Test
+    void reconciledBalancesMatchTheLedger() throws InterruptedException {
+        LedgerService ledgerService = new LedgerService(mongoTemplate);
+        AccountService accountService = new AccountService(accountRepository, mongoTemplate,
+                Mockito.mock(TransactionApiClient.class), new ConcurrentMapCacheManager(), ledgerService);
+        LedgerReconciliationJob reconciliationJob = new LedgerReconciliationJob(mongoTemplate, ledgerService);
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds.add("account-" + i);
+            accountRepository.save(Account.builder()
+                    .id("account-" + i)
+                    .accountNumber(AccountService.generateIBAN())
+                    .accountHolderName("Holder " + i)
+                    .balance(BigDecimal.valueOf(100))
+                    .currency(Currency.getInstance("EUR"))
+                    .build());
+        }
+
+        // Transfers between random accounts, with reconciliation runs in between
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        for (int writer = 0; writer < WRITERS; writer++) {
+            Random random = new Random(writer);
+            executor.execute(() -> {
+                for (int i = 0; i < TRANSFERS_PER_WRITER; i++) {
+                    String group = "transfer-" + random.nextLong();
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(50) + 1);
+                    accountService.applyMovements(List.of(
+                            MovementRequest.builder().accountId(accountIds.get(random.nextInt(ACCOUNTS)))
+                                    .amount(amount.negate()).group(group).build(),
+                            MovementRequest.builder().accountId(accountIds.get(random.nextInt(ACCOUNTS)))
+                                    .amount(amount).group(group).build()));
+                }
+            });
+        }
+        executor.shutdown();
+        while (!executor.awaitTermination(200, TimeUnit.MILLISECONDS)) {
+            reconciliationJob.reconcile(Instant.now().minusSeconds(2));
+        }
+        reconciliationJob.reconcile(Instant.now().plusSeconds(1));
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (String accountId : accountIds) {
+            Account account = accountRepository.findById(accountId).orElseThrow();
+            Assertions.assertEquals(0, account.getReconciledBalance().compareTo(account.getBalance()), accountId);
+            Assertions.assertEquals(account.getLedgerSequence(), account.getReconciledSequence(), accountId);
+            Assertions.assertTrue(account.getPendingEntries().isEmpty(), accountId);
+            Assertions.assertNull(account.getUnreconciled(), accountId);
+            Assertions.assertTrue(account.getBalance().signum() >= 0, accountId);
+            total = total.add(account.getBalance());
+        }
+        Assertions.assertEquals(0, BigDecimal.valueOf(100L * ACCOUNTS).compareTo(total));
+        Assertions.assertEquals(0, reconciliationJob.reconcile(Instant.now().plusSeconds(1)));
+    }
+
+    @Test
+    void settlesEntriesLeftPending() {
+        LedgerService ledgerService = new LedgerService(mongoTemplate);
+        LedgerReconciliationJob reconciliationJob = new LedgerReconciliationJob(mongoTemplate, ledgerService);
+        accountRepository.save(Account.builder()
+                .id("stopped-writer")
+                .accountNumber(AccountService.generateIBAN())
+                .accountHolderName("Stopped writer")
+                .balance(BigDecimal.valueOf(100))
+                .currency(Currency.getInstance("EUR"))
+                .build());
+        ledgerService.credit("settled-credit", "stopped-writer", BigDecimal.valueOf(10));
+
+        // A credit and a debit applied by a writer that stopped before posting them
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is("stopped-writer")), new Update()
+                .set("ledgerSequence", 3L)
+                .inc("balance", new Decimal128(BigDecimal.valueOf(-30)))
+                .push("pendingEntries").each(
+                        new PendingEntry("pending-credit", BigDecimal.valueOf(20), 2, Instant.now().minusSeconds(60)),
+                        new PendingEntry("pending-debit", BigDecimal.valueOf(-30), 3, Instant.now().minusSeconds(60))),
+                Account.class);
+        // Not stale yet, the account is reconciled up to its first pending entry
+        Assertions.assertEquals(1, reconciliationJob.reconcile(Instant.now().minusSeconds(120)));
+        Assertions.assertEquals(1L, accountRepository.findById("stopped-writer").orElseThrow().getReconciledSequence());
+
+        Assertions.assertEquals(1, reconciliationJob.reconcile(Instant.now()));
+        Account account = accountRepository.findById("stopped-writer").orElseThrow();
+        Assertions.assertEquals(0, BigDecimal.valueOf(100).compareTo(account.getBalance()));
+        Assertions.assertEquals(0, BigDecimal.valueOf(100).compareTo(account.getReconciledBalance()));
+        Assertions.assertEquals(3L, account.getReconciledSequence());
+        Assertions.assertTrue(account.getPendingEntries().isEmpty());
+        Assertions.assertTrue(mongoTemplate.exists(Query.query(Criteria.where("id").is("pending-debit:0")),
+                LedgerPosting.class));
+
+        // Applying a settled entry again leaves the balance alone
+        ledgerService.credit("pending-credit", "stopped-writer", BigDecimal.valueOf(20));
+        Assertions.assertEquals(MovementStatus.APPLIED,
+                ledgerService.debit("pending-debit", "stopped-writer", BigDecimal.valueOf(30)));
+        Assertions.assertEquals(0, BigDecimal.valueOf(100).compareTo(
+                accountRepository.findById("stopped-writer").orElseThrow().getBalance()));
+    }
+}
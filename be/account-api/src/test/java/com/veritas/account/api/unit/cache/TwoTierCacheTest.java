@@ -0,0 +1,79 @@
+package com.veritas.account.api.unit.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.veritas.account.api.cache.CacheInvalidationPublisher;
+import com.veritas.account.api.cache.TwoTierCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * Unit tests for {@link TwoTierCache} class.
+ */
+class TwoTierCacheTest {
+
+    private ConcurrentMapCache remoteCache;
+
+    private CacheInvalidationPublisher invalidationPublisher;
+
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remoteCache = new ConcurrentMapCache("account");
+        invalidationPublisher = Mockito.mock(CacheInvalidationPublisher.class);
+        cache = new TwoTierCache(new CaffeineCache("account", Caffeine.newBuilder().build(), false),
+                remoteCache, invalidationPublisher);
+    }
+
+    /**
+     * Test that a remote hit is promoted to the local tier.
+     */
+    @Test
+    void testGetPromotesRemoteHitToLocalTier() {
+        // Given
+        remoteCache.put("644d736d24862f0104ae52f7", "Harrison Ford");
+
+        // When
+        Object value = cache.get("644d736d24862f0104ae52f7", String.class);
+        remoteCache.clear();
+
+        // Then
+        Assertions.assertEquals("Harrison Ford", value);
+        Assertions.assertEquals("Harrison Ford", cache.get("644d736d24862f0104ae52f7", String.class));
+    }
+
+    /**
+     * Test that a write updates both tiers and is broadcast to the other instances.
+     */
+    @Test
+    void testPutWritesBothTiersAndPublishesInvalidation() {
+        // When
+        cache.put("644d736d24862f0104ae52f7", "Harrison Ford");
+
+        // Then
+        Assertions.assertEquals("Harrison Ford", remoteCache.get("644d736d24862f0104ae52f7", String.class));
+        Assertions.assertNotNull(cache.getLocalCache().get("644d736d24862f0104ae52f7"));
+        Mockito.verify(invalidationPublisher).publish("account", "644d736d24862f0104ae52f7");
+    }
+
+    /**
+     * Test that a local eviction, as triggered by another instance, falls back to the remote tier.
+     */
+    @Test
+    void testEvictLocalFallsBackToRemoteTier() {
+        // Given
+        cache.put("644d736d24862f0104ae52f7", "Harrison Ford");
+        remoteCache.put("644d736d24862f0104ae52f7", "Harrison Ford Jr.");
+
+        // When
+        cache.evictLocal("644d736d24862f0104ae52f7");
+
+        // Then
+        Assertions.assertEquals("Harrison Ford Jr.", cache.get("644d736d24862f0104ae52f7", String.class));
+        Mockito.verify(invalidationPublisher, Mockito.times(1)).publish("account", "644d736d24862f0104ae52f7");
+    }
+}
@@ -0,0 +1,86 @@
+package com.veritas.account.api.unit.util;
+
+import com.veritas.account.api.util.UserIdResolver;
+import com.veritas.identity.IdentitySignature;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link UserIdResolver} class.
+ */
+class UserIdResolverTest {
+
+    private static final String SIGNING_KEY = "test-signing-key";
+
+    private final UserIdResolver userIdResolver = new UserIdResolver(SIGNING_KEY, Set.of("auth0|operator"));
+
+    private final IdentitySignature identitySignature = new IdentitySignature(SIGNING_KEY);
+
+    /**
+     * Test for {@link UserIdResolver#resolveUserId(jakarta.servlet.http.HttpServletRequest)} with a signed identity.
+     */
+    @Test
+    void testSignedIdentityIsTrusted() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(IdentitySignature.USER_ID_HEADER, "auth0|1");
+        request.addHeader(IdentitySignature.SIGNATURE_HEADER,
+                identitySignature.sign("auth0|1", Instant.now().plusSeconds(60)));
+
+        // When
+        String userId = userIdResolver.resolveUserId(request);
+
+        // Then
+        Assertions.assertEquals("auth0|1", userId);
+    }
+
+    /**
+     * Test for {@link UserIdResolver#resolveUserId(jakarta.servlet.http.HttpServletRequest)} without a valid
+     * signature, where an unsigned bearer token must not authenticate.
+     */
+    @Test
+    void testUnsignedIdentityIsRejected() {
+        // Given
+        String forgedToken = base64("{\"alg\":\"none\"}") + "." + base64("{\"sub\":\"auth0|1\"}") + ".";
+        MockHttpServletRequest bearerOnly = new MockHttpServletRequest();
+        bearerOnly.addHeader("Authorization", "Bearer " + forgedToken);
+        MockHttpServletRequest otherUser = new MockHttpServletRequest();
+        otherUser.addHeader(IdentitySignature.USER_ID_HEADER, "auth0|2");
+        otherUser.addHeader(IdentitySignature.SIGNATURE_HEADER,
+                identitySignature.sign("auth0|1", Instant.now().plusSeconds(60)));
+        MockHttpServletRequest expired = new MockHttpServletRequest();
+        expired.addHeader(IdentitySignature.USER_ID_HEADER, "auth0|1");
+        expired.addHeader(IdentitySignature.SIGNATURE_HEADER,
+                identitySignature.sign("auth0|1", Instant.now().minusSeconds(60)));
+
+        // When / Then
+        Assertions.assertNull(userIdResolver.resolveUserId(bearerOnly));
+        Assertions.assertNull(userIdResolver.resolveUserId(otherUser));
+        Assertions.assertNull(userIdResolver.resolveUserId(expired));
+        Assertions.assertThrows(IllegalStateException.class, () -> new UserIdResolver(" ", Set.of()));
+    }
+
+    /**
+     * Test for {@link UserIdResolver#isOperator(String)}.
+     */
+    @Test
+    void testOnlyConfiguredUsersAreOperators() {
+        // Given
+        String operator = "auth0|operator";
+
+        // When / Then
+        Assertions.assertTrue(userIdResolver.isOperator(operator));
+        Assertions.assertFalse(userIdResolver.isOperator("auth0|1"));
+        Assertions.assertFalse(userIdResolver.isOperator(null));
+    }
+
+    private static String base64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
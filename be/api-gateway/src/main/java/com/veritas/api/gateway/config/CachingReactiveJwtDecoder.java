@@ -0,0 +1,75 @@
+package com.veritas.api.gateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A {@link ReactiveJwtDecoder} that remembers successfully decoded tokens until they expire.
+ * <p>
+ * Clients send the same bearer token with every request of a session, so the signature of a token only
+ * has to be verified once. Entries are kept at most until the token's {@code exp} claim and never longer
+ * than the configured lifetime; tokens that fail validation are never cached.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+
+    private final Cache<String, Jwt> decodedTokens;
+
+    /**
+     * Creates a caching decoder.
+     *
+     * @param delegate The decoder verifying the tokens.
+     * @param maximumSize The maximum number of cached tokens.
+     * @param maximumLifetime The maximum time a decoded token is cached.
+     */
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maximumSize, Duration maximumLifetime) {
+        this.delegate = delegate;
+        this.decodedTokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(maximumLifetime.toNanos()))
+                .build();
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        Jwt cached = decodedTokens.getIfPresent(token);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return delegate.decode(token).doOnNext(jwt -> decodedTokens.put(token, jwt));
+    }
+
+    /**
+     * Expires a cached token with its {@code exp} claim.
+     */
+    private record TokenExpiry(long maximumLifetimeNanos) implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String token, Jwt jwt, long currentTime) {
+            if (jwt.getExpiresAt() == null) {
+                return maximumLifetimeNanos;
+            }
+            long remainingNanos = Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos();
+            return Math.max(0, Math.min(maximumLifetimeNanos, remainingNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
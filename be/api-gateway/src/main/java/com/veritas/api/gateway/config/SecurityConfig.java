@@ -1,16 +1,21 @@
 package com.veritas.api.gateway.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoders;
+import org.springframework.security.oauth2.jwt.SupplierReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -21,6 +26,10 @@ import java.util.List;
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
+  private static final long MAXIMUM_CACHED_TOKENS = 10_000;
+
+  private static final Duration MAXIMUM_TOKEN_CACHE_LIFETIME = Duration.ofMinutes(15);
+
   /**
    * Configures the security filters and rules for the server.
    *
@@ -41,6 +50,24 @@ public class SecurityConfig {
     return http.build();
   }
 
+  /**
+   * Creates the JWT decoder for the configured issuer.
+   * <p>
+   * The signing keys are discovered lazily from the issuer and kept by the Nimbus decoder, which only
+   * refetches the JWK set when a token names an unknown key id. Verified tokens are cached on top of that,
+   * so a session's token is checked once rather than on every request.
+   *
+   * @param issuerUri the URI of the token issuer
+   * @return the caching JWT decoder
+   */
+  @Bean
+  public ReactiveJwtDecoder jwtDecoder(
+      @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri) {
+    return new CachingReactiveJwtDecoder(
+        new SupplierReactiveJwtDecoder(() -> ReactiveJwtDecoders.fromIssuerLocation(issuerUri)),
+        MAXIMUM_CACHED_TOKENS, MAXIMUM_TOKEN_CACHE_LIFETIME);
+  }
+
   @Bean
   @Order(Ordered.HIGHEST_PRECEDENCE) // Crucial: CORS filter *before* security filters
   public CorsWebFilter corsWebFilter() {
@@ -48,7 +75,7 @@ public class SecurityConfig {
     corsConfig.addAllowedOrigin("http://localhost:5173");
     corsConfig.setAllowCredentials(true);
     corsConfig.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
-    corsConfig.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+    corsConfig.setAllowedHeaders(List.of("Authorization", "Content-Type", "Idempotency-Key"));
     corsConfig.setMaxAge(3600L);
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,71 @@
+package com.veritas.api.gateway.filter;
+
+import com.veritas.identity.IdentitySignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Forwards the identity of the authenticated caller to the backend services as signed headers.
+ * <p>
+ * The JWT has already been validated by the security filter chain when this filter runs, so the services
+ * can trust {@link IdentitySignature#USER_ID_HEADER} once its signature checks out instead of decoding the
+ * token again. Identity headers sent by clients are always removed.
+ */
+@Component
+public class UserIdentityFilter implements GlobalFilter, Ordered {
+
+    private static final Duration MAXIMUM_SIGNATURE_LIFETIME = Duration.ofMinutes(15);
+
+    private final IdentitySignature identitySignature;
+
+    public UserIdentityFilter(@Value("${veritas.identity.signing-key}") String signingKey) {
+        if (signingKey.isBlank()) {
+            throw new IllegalStateException("veritas.identity.signing-key must be set");
+        }
+        this.identitySignature = new IdentitySignature(signingKey);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return exchange.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(principal -> withIdentity(exchange, ((JwtAuthenticationToken) principal).getToken()))
+                .switchIfEmpty(Mono.fromSupplier(() -> withIdentity(exchange, null)))
+                .flatMap(chain::filter);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private ServerWebExchange withIdentity(ServerWebExchange exchange, Jwt jwt) {
+        return exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    headers.remove(IdentitySignature.USER_ID_HEADER);
+                    headers.remove(IdentitySignature.SIGNATURE_HEADER);
+                    if (jwt != null && jwt.getSubject() != null) {
+                        headers.set(IdentitySignature.USER_ID_HEADER, jwt.getSubject());
+                        headers.set(IdentitySignature.SIGNATURE_HEADER,
+                                identitySignature.sign(jwt.getSubject(), signatureExpiry(jwt)));
+                    }
+                }))
+                .build();
+    }
+
+    private static Instant signatureExpiry(Jwt jwt) {
+        Instant latest = Instant.now().plus(MAXIMUM_SIGNATURE_LIFETIME);
+        Instant expiresAt = jwt.getExpiresAt();
+        return expiresAt == null || expiresAt.isAfter(latest) ? latest : expiresAt;
+    }
+}
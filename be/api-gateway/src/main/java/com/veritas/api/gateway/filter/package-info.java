@@ -0,0 +1,4 @@
+/**
+ * Gateway filters that pass the identity of the authenticated caller on to the backend services.
+ */
+package com.veritas.api.gateway.filter;
@@ -3,11 +3,13 @@ package com.veritas.asset.management.api;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main class for the Asset Management Api.
  */
 @EnableCaching
+@EnableScheduling
 @SpringBootApplication
 public class AssetManagementApiApplication {
 
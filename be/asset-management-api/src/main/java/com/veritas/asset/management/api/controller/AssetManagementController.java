@@ -1,10 +1,17 @@
 package com.veritas.asset.management.api.controller;
 
+import com.veritas.asset.management.api.dto.AssetAvailabilityRequest;
+import com.veritas.asset.management.api.dto.AssetAvailabilityResponse;
 import com.veritas.asset.management.api.dto.AssetManagementResponse;
+import com.veritas.asset.management.api.dto.AssetQuantityResponse;
+import com.veritas.asset.management.api.dto.AssetReservationResponse;
 import com.veritas.asset.management.api.service.AssetManagementService;
+import com.veritas.asset.management.api.service.AssetReservationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -21,46 +28,130 @@ public class AssetManagementController {
 
   private final AssetManagementService assetManagementService;
 
+  private final AssetReservationService assetReservationService;
+
   /**
    *
    * Retrieves the availability status of assets based on their codes and requested amounts.
    * 
    * @param assetCode The list of asset codes to check availability for.
-   * @param amount The list of amounts to check for each asset code.
+   * @param amount The list of amounts in minor units to check for each asset code.
    * @return The list of asset management responses containing the availability
    *         status for each asset code and amount.
    */
   @GetMapping
   @ResponseStatus(HttpStatus.OK)
-  public List<AssetManagementResponse> isAssetAvailable(@RequestParam List<String> assetCode, @RequestParam List<Integer> amount) {
+  public List<AssetManagementResponse> isAssetAvailable(@RequestParam List<String> assetCode, @RequestParam List<Long> amount) {
     log.info("Received asset availability check request for asset code: {} and amount: {}", assetCode, amount);
     return assetManagementService.isAssetAvailable(assetCode, amount);
   }
 
+  /**
+   * Checks the availability of a basket of assets in one call.
+   *
+   * @param basket The items, each an asset code and an amount in minor units.
+   * @return The availability of each item in the order of the basket, AVAILABLE, INSUFFICIENT or UNKNOWN_ASSET,
+   *         or 400 if the basket is too large or an item is invalid.
+   */
+  @PostMapping("/availability")
+  public ResponseEntity<List<AssetAvailabilityResponse>> checkAvailability(
+      @RequestBody List<AssetAvailabilityRequest> basket) {
+    try {
+      return ResponseEntity.ok(assetManagementService.checkAvailability(basket));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Retrieves the current quantities of assets, for callers that cache them and follow the quantity change events.
+   *
+   * @param assetCode The list of asset codes.
+   * @return The quantity of each asset code in minor units, null for unknown assets.
+   */
+  @GetMapping("/quantities")
+  @ResponseStatus(HttpStatus.OK)
+  public List<AssetQuantityResponse> getQuantities(@RequestParam List<String> assetCode) {
+    return assetManagementService.getQuantities(assetCode);
+  }
+
   /**
    * Updates the amount of an asset by asset code.
    * @param assetCode The asset code to update.
-   * @param amount The amount to add (can be negative for deduction).
+   * @param amount The amount to add in minor units (can be negative for deduction).
    * @return Success message.
    */
   @PostMapping("/update-amount")
   @ResponseStatus(HttpStatus.OK)
-  public String updateAssetAmount(@RequestParam String assetCode, @RequestParam int amount) {
+  public String updateAssetAmount(@RequestParam String assetCode, @RequestParam long amount) {
     log.info("Received asset amount update request for asset code: {} with amount: {}", assetCode, amount);
     assetManagementService.updateAssetAmount(assetCode, amount);
     return "Asset amount updated successfully";
   }
 
+    /**
+     * Holds a quantity of an asset until it is committed or released, or its time to live is over.
+     * @param reservationId The reservation id chosen by the caller, reserving it again has no further effect.
+     * @param assetCode The asset code.
+     * @param amount The quantity to hold, in minor units.
+     * @return The reservation, with status REJECTED if the asset does not hold the quantity.
+     */
+    @PostMapping("/reservations")
+    public ResponseEntity<AssetReservationResponse> reserve(@RequestParam String reservationId,
+                                                            @RequestParam String assetCode, @RequestParam long amount) {
+        log.info("Received reservation {} of {} {}", reservationId, amount, assetCode);
+        try {
+            return ResponseEntity.ok(assetReservationService.reserve(reservationId, assetCode, amount));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Commits a held reservation.
+     * @param reservationId The reservation id.
+     * @return The committed reservation, 404 if it is unknown or 409 if it was released.
+     */
+    @PostMapping("/reservations/{reservationId}/commit")
+    public ResponseEntity<AssetReservationResponse> commitReservation(@PathVariable String reservationId) {
+        try {
+            return ResponseEntity.ok(assetReservationService.commit(reservationId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Releases a held reservation.
+     * @param reservationId The reservation id.
+     * @return The released reservation, 404 if it is unknown or 409 if it was committed.
+     */
+    @PostMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<AssetReservationResponse> releaseReservation(@PathVariable String reservationId) {
+        try {
+            return ResponseEntity.ok(assetReservationService.release(reservationId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     /**
      * Create a new asset.
      * @param asset The asset to create.
-     * @return The created asset.
+     * @return The created asset, or 409 if an asset with the same code exists.
      */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Asset createAsset(@RequestBody Asset asset) {
+    public ResponseEntity<Asset> createAsset(@RequestBody Asset asset) {
         log.info("Received request to create asset: {}", asset);
-        return assetManagementService.createAsset(asset);
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(assetManagementService.createAsset(asset));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     /**
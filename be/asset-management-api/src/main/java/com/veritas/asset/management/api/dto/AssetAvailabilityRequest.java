@@ -0,0 +1,18 @@
+package com.veritas.asset.management.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) class that represents one item of a basket whose availability is checked.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AssetAvailabilityRequest {
+    private String assetCode;
+    private long amount; // in minor units
+}
@@ -0,0 +1,19 @@
+package com.veritas.asset.management.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) class that represents the availability of one item of a basket.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AssetAvailabilityResponse {
+    private String assetCode;
+    private long amount; // in minor units
+    private AvailabilityStatus status;
+}
@@ -0,0 +1,19 @@
+package com.veritas.asset.management.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) class that represents the current quantity of an asset, also published as a quantity
+ * change event.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AssetQuantityResponse {
+    private String assetCode;
+    private Long quantity; // in minor units, null if the asset is unknown
+}
@@ -0,0 +1,24 @@
+package com.veritas.asset.management.api.dto;
+
+import com.veritas.asset.management.api.model.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object (DTO) class that represents the state of an asset reservation.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AssetReservationResponse {
+    private String reservationId;
+    private String assetCode;
+    private long amount; // in minor units
+    private ReservationStatus status;
+    private Instant expiresAt;
+}
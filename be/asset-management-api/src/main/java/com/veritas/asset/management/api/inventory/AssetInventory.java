@@ -0,0 +1,472 @@
+package com.veritas.asset.management.api.inventory;
+
+import com.veritas.asset.management.api.model.Asset;
+import com.veritas.asset.management.api.model.AssetReservation;
+import com.veritas.asset.management.api.model.InventoryCheckpoint;
+import com.veritas.asset.management.api.repository.AssetManagementRepository;
+import com.veritas.asset.management.api.repository.AssetReservationRepository;
+import com.veritas.asset.management.api.repository.InventoryCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Holds the quantities of the assets in memory, answers availability checks from them and applies quantity changes
+ * to them, writing the changes behind to the database.
+ * <p>
+ * Every asset has its own counter of minor units, changed with a compare-and-set that keeps it within bounds without
+ * overflowing, so no change waits for a row lock in the database and changes of different assets do not contend. A
+ * change is appended to the {@link InventoryJournal}, a write to the page cache, before it is acknowledged, and added
+ * to the pending delta of its asset. The flush sums the pending deltas up, adds them to the assets with one update
+ * per asset, and stores the sequence number of the last change it covers in the same transaction, so that on
+ * startup the journal replays exactly the changes that did not reach the database.
+ * <p>
+ * A reservation's quantity change is journaled with the reservation id before the reservation row is written, and
+ * the row records the sequence number of the change. On startup a journaled change of a reservation is replayed only
+ * if the reservation row carries its sequence number, so a change whose row never committed is dropped instead of
+ * losing or returning the quantity twice.
+ * <p>
+ * The counters are authoritative, so this instance must be the only one changing the quantities of the assets.
+ */
+@Slf4j
+@Component
+public class AssetInventory {
+
+    /**
+     * Quantities and amounts are counted in minor units, hundredths of a unit, the scale of the transaction amounts.
+     */
+    public static final long MINOR_UNITS_PER_UNIT = 100;
+
+    /**
+     * The largest quantity an asset can hold, in minor units, bound by the type of its column.
+     */
+    public static final long MAXIMUM_QUANTITY = Long.MAX_VALUE;
+
+    private static final int CHECKPOINT_ID = 1;
+
+    private static final int RECOVERY_LOOKUP_BATCH_SIZE = 1000;
+
+    private final AssetManagementRepository assetManagementRepository;
+
+    private final InventoryCheckpointRepository inventoryCheckpointRepository;
+
+    private final AssetReservationRepository assetReservationRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final InventoryJournal journal;
+
+    private final Map<String, AtomicLong> quantities = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> pendingDeltas = new ConcurrentHashMap<>();
+
+    private final Set<String> changedAssetCodes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Changes hold the read lock, the flush takes the write lock for as long as it sums the pending deltas up and
+     * seals the journal, so that the sums and the sealed segments cover the same changes. A change of a reservation
+     * holds the read lock until its reservation row is written too, so that no checkpoint lands in between and a
+     * change whose row is missing is always replayed, or dropped, on startup.
+     */
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    private long flushedSequence;
+
+    public AssetInventory(AssetManagementRepository assetManagementRepository,
+                          InventoryCheckpointRepository inventoryCheckpointRepository,
+                          AssetReservationRepository assetReservationRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${asset.inventory.journal-directory:data/asset-inventory}") Path journalDirectory)
+            throws IOException {
+        this.assetManagementRepository = assetManagementRepository;
+        this.inventoryCheckpointRepository = inventoryCheckpointRepository;
+        this.assetReservationRepository = assetReservationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new InventoryJournal(journalDirectory);
+    }
+
+    /**
+     * Loads the quantities from the database, replays the changes of the journal that did not reach it and
+     * flushes them. A change of a reservation is replayed only if the reservation row records it.
+     *
+     * @throws IOException if the journal cannot be read.
+     */
+    @PostConstruct
+    public void load() throws IOException {
+        assetManagementRepository.findAll()
+                .forEach(asset -> quantities.put(asset.getAssetCode(), new AtomicLong(asset.getValue())));
+        flushedSequence = inventoryCheckpointRepository.findById(CHECKPOINT_ID)
+                .map(InventoryCheckpoint::getJournalSequence)
+                .orElse(0L);
+        List<InventoryJournal.Change> changes = new ArrayList<>();
+        journal.recover(flushedSequence, changes::add);
+        Map<String, AssetReservation> reservations = findReservationsOf(changes);
+        int dropped = 0;
+        for (InventoryJournal.Change change : changes) {
+            if (change.reservationId() != null && !isRecorded(change, reservations.get(change.reservationId()))) {
+                dropped++;
+                continue;
+            }
+            AtomicLong quantity = quantities.get(change.assetCode());
+            if (quantity != null) { // unless the asset was deleted since
+                quantity.addAndGet(change.delta());
+                pendingDeltas.computeIfAbsent(change.assetCode(), code -> new LongAdder()).add(change.delta());
+            }
+        }
+        log.info("Loaded the quantities of {} assets, {} changes pending, {} changes of unstored reservations dropped",
+                quantities.size(), pendingDeltas.size(), dropped);
+        flush();
+    }
+
+    /**
+     * Tells whether an asset is known.
+     *
+     * @param assetCode The asset code.
+     * @return Whether the asset is known.
+     */
+    public boolean contains(String assetCode) {
+        return quantities.containsKey(assetCode);
+    }
+
+    /**
+     * Reads the quantity of an asset.
+     *
+     * @param assetCode The asset code.
+     * @return The quantity, empty if the asset is unknown.
+     */
+    public OptionalLong getQuantity(String assetCode) {
+        AtomicLong quantity = quantities.get(assetCode);
+        return quantity == null ? OptionalLong.empty() : OptionalLong.of(quantity.get());
+    }
+
+    /**
+     * Tells whether an asset holds at least an amount.
+     *
+     * @param assetCode The asset code.
+     * @param amount The amount.
+     * @return Whether the asset is known and holds at least the amount.
+     */
+    public boolean isAvailable(String assetCode, long amount) {
+        AtomicLong quantity = quantities.get(assetCode);
+        return quantity != null && quantity.get() >= amount;
+    }
+
+    /**
+     * Changes the quantity of an asset, unless that would take it below zero or above {@link #MAXIMUM_QUANTITY}.
+     *
+     * @param assetCode The asset code.
+     * @param delta The quantity change, negative to take.
+     * @return Whether the quantity changed.
+     * @throws IllegalArgumentException if the asset is unknown.
+     * @throws UncheckedIOException if the change cannot be journaled, in which case the quantity did not change.
+     */
+    public boolean tryApply(String assetCode, long delta) {
+        flushLock.readLock().lock();
+        try {
+            AtomicLong quantity = getCounter(assetCode);
+            if (!tryChange(quantity, delta)) {
+                return false;
+            }
+            try {
+                journal.append(assetCode, delta);
+            } catch (IOException e) {
+                undo(assetCode, quantity, delta);
+                throw new UncheckedIOException("Cannot journal the change of " + assetCode, e);
+            }
+            addPending(assetCode, delta);
+            return true;
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes a quantity of an asset for a reservation, unless the asset holds less. The take is journaled with the
+     * reservation id, then handed to the caller to store the reservation row with its sequence number.
+     *
+     * @param reservationId The reservation id, without whitespace.
+     * @param assetCode The asset code.
+     * @param amount The quantity to take.
+     * @param store Stores and commits the reservation row with the sequence number of the take.
+     * @return Whether the quantity was taken.
+     * @throws IllegalArgumentException if the asset is unknown.
+     * @throws UncheckedIOException if the take cannot be journaled, in which case the quantity did not change.
+     * @throws RuntimeException thrown by the store, in which case the quantity is given back.
+     */
+    public boolean tryReserve(String reservationId, String assetCode, long amount, LongConsumer store) {
+        flushLock.readLock().lock();
+        try {
+            AtomicLong quantity = getCounter(assetCode);
+            if (!tryChange(quantity, -amount)) {
+                return false;
+            }
+            try {
+                store.accept(journal.append(assetCode, -amount, reservationId));
+            } catch (IOException e) {
+                undo(assetCode, quantity, -amount);
+                throw new UncheckedIOException("Cannot journal the reservation " + reservationId, e);
+            } catch (RuntimeException e) {
+                undo(assetCode, quantity, -amount); // the journaled take does not match the row, so is not replayed
+                throw e;
+            }
+            addPending(assetCode, -amount);
+            return true;
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gives the quantity of a reservation back to an asset. The return is journaled with the reservation id, then
+     * handed to the caller to release the reservation row with its sequence number, and applied only if the caller
+     * released it.
+     *
+     * @param reservationId The reservation id, without whitespace.
+     * @param assetCode The asset code.
+     * @param amount The quantity to give back.
+     * @param release Releases and commits the reservation row with the sequence number of the return, and tells
+     *                whether it did so.
+     * @return Whether the reservation was released.
+     * @throws IllegalArgumentException if the asset is unknown.
+     * @throws UncheckedIOException if the return cannot be journaled, in which case the reservation was not
+     *                              released.
+     */
+    public boolean tryRelease(String reservationId, String assetCode, long amount, LongPredicate release) {
+        flushLock.readLock().lock();
+        try {
+            AtomicLong quantity = getCounter(assetCode);
+            long sequence;
+            try {
+                sequence = journal.append(assetCode, amount, reservationId);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot journal the release of " + reservationId, e);
+            }
+            // Applied only once released, so that nobody takes a quantity that might not come back
+            if (!release.test(sequence)) {
+                return false;
+            }
+            if (tryChange(quantity, amount)) {
+                addPending(assetCode, amount);
+            } else {
+                log.error("Cannot give {} back to {}, it would exceed the largest quantity", amount, assetCode);
+            }
+            return true;
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the codes of the assets whose quantity changed, or that were created or deleted, since the previous
+     * call.
+     *
+     * @return The asset codes.
+     */
+    public Set<String> drainChangedAssetCodes() {
+        Set<String> drained = new HashSet<>();
+        for (String assetCode : changedAssetCodes) {
+            // Removed before the quantity is read, so a change racing with the drain is reported again
+            if (changedAssetCodes.remove(assetCode)) {
+                drained.add(assetCode);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Reports an asset as changed again, for a consumer of {@link #drainChangedAssetCodes()} that failed to handle
+     * it.
+     *
+     * @param assetCode The asset code.
+     */
+    public void markChanged(String assetCode) {
+        changedAssetCodes.add(assetCode);
+    }
+
+    /**
+     * Reloads the quantity of an asset after it was written to the database directly, keeping the changes that
+     * are still pending.
+     *
+     * @param assetCode The asset code.
+     */
+    public synchronized void refresh(String assetCode) {
+        // No flush is under way and no change either, so the database holds exactly the changes not pending
+        flushLock.writeLock().lock();
+        try {
+            List<Asset> assets = assetManagementRepository.findByAssetCodeIn(List.of(assetCode));
+            changedAssetCodes.add(assetCode);
+            if (assets.isEmpty()) {
+                quantities.remove(assetCode);
+                pendingDeltas.remove(assetCode);
+                return;
+            }
+            LongAdder pendingDelta = pendingDeltas.get(assetCode);
+            long pending = pendingDelta == null ? 0 : pendingDelta.sum();
+            quantities.put(assetCode, new AtomicLong(Math.addExact(assets.get(0).getValue(), pending)));
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the pending changes to the database, with one update per asset in asset code order, and deletes the
+     * journal segments they came from. Changes that fail to reach the database stay pending.
+     * <p>
+     * The summed delta of an asset is the net change of a counter kept within bounds, so it is within bounds too. The
+     * database refuses a change that would take an asset below zero or above {@link #MAXIMUM_QUANTITY}, which can
+     * only happen if something else wrote the asset. Such an asset is reloaded from the database, dropping the
+     * refused change.
+     *
+     * @return The number of assets updated.
+     */
+    @Scheduled(fixedDelayString = "${asset.inventory.flush-interval-ms:200}")
+    public synchronized int flush() {
+        Map<String, Long> deltas = new TreeMap<>();
+        long sequence;
+        flushLock.writeLock().lock();
+        try {
+            sequence = journal.seal();
+            pendingDeltas.forEach((assetCode, pendingDelta) -> {
+                long delta = pendingDelta.sumThenReset();
+                if (delta != 0) {
+                    deltas.put(assetCode, delta);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Cannot seal the inventory journal, the flush is skipped", e);
+            return 0;
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+        if (sequence == flushedSequence) {
+            return 0;
+        }
+
+        List<String> refused = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                deltas.forEach((assetCode, delta) -> {
+                    if (assetManagementRepository.applyDelta(assetCode, delta) == 0) {
+                        refused.add(assetCode);
+                    }
+                });
+                inventoryCheckpointRepository.save(new InventoryCheckpoint(CHECKPOINT_ID, sequence));
+            });
+        } catch (RuntimeException e) {
+            deltas.forEach((assetCode, delta) -> pendingDeltas.computeIfAbsent(assetCode, code -> new LongAdder())
+                    .add(delta));
+            log.warn("Cannot write {} asset quantity changes to the database, they stay pending", deltas.size(), e);
+            return 0;
+        }
+        flushedSequence = sequence;
+        try {
+            journal.deleteSealedSegments(sequence);
+        } catch (IOException e) {
+            log.warn("Cannot delete the flushed inventory journal segments", e); // skipped on replay
+        }
+        for (String assetCode : refused) {
+            log.error("The database refused a change of {} by {}, reloading the asset", assetCode,
+                    deltas.get(assetCode));
+            refresh(assetCode);
+        }
+        return deltas.size() - refused.size();
+    }
+
+    private AtomicLong getCounter(String assetCode) {
+        AtomicLong quantity = quantities.get(assetCode);
+        if (quantity == null) {
+            throw new IllegalArgumentException("Asset not found: " + assetCode);
+        }
+        return quantity;
+    }
+
+    private static boolean tryChange(AtomicLong quantity, long delta) {
+        long current;
+        do {
+            current = quantity.get();
+            // current is within [0, MAXIMUM_QUANTITY], so neither bound overflows
+            if (delta < -current || delta > MAXIMUM_QUANTITY - current) {
+                return false;
+            }
+        } while (!quantity.compareAndSet(current, current + delta));
+        return true;
+    }
+
+    /**
+     * Reverts a change that was not journaled or stored, within bounds like any other change.
+     */
+    private static void undo(String assetCode, AtomicLong quantity, long delta) {
+        if (!tryChange(quantity, -delta)) {
+            log.error("Cannot revert the change of {} by {}, it would leave the bounds", assetCode, delta);
+        }
+    }
+
+    private void addPending(String assetCode, long delta) {
+        pendingDeltas.computeIfAbsent(assetCode, code -> new LongAdder()).add(delta);
+        changedAssetCodes.add(assetCode);
+    }
+
+    private Map<String, AssetReservation> findReservationsOf(List<InventoryJournal.Change> changes) {
+        List<String> reservationIds = changes.stream()
+                .map(InventoryJournal.Change::reservationId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<String, AssetReservation> reservations = new HashMap<>();
+        for (int from = 0; from < reservationIds.size(); from += RECOVERY_LOOKUP_BATCH_SIZE) {
+            List<String> batch = reservationIds.subList(from,
+                    Math.min(from + RECOVERY_LOOKUP_BATCH_SIZE, reservationIds.size()));
+            assetReservationRepository.findAllById(batch)
+                    .forEach(reservation -> reservations.put(reservation.getId(), reservation));
+        }
+        return reservations;
+    }
+
+    /**
+     * Tells whether the row of a reservation records a journaled change: a take by its take sequence number, a
+     * return by its release sequence number.
+     */
+    private static boolean isRecorded(InventoryJournal.Change change, AssetReservation reservation) {
+        if (reservation == null) {
+            return false;
+        }
+        Long recordedSequence = change.delta() < 0 ? reservation.getTakeSequence() : reservation.getReleaseSequence();
+        return recordedSequence != null && recordedSequence == change.sequence();
+    }
+
+    /**
+     * Flushes the pending changes and closes the journal.
+     *
+     * @throws IOException if the journal cannot be closed.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        flush();
+        journal.close();
+    }
+}
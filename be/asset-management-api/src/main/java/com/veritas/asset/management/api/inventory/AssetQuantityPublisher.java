@@ -0,0 +1,68 @@
+package com.veritas.asset.management.api.inventory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veritas.asset.management.api.dto.AssetQuantityResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * Publishes the quantities of the assets that changed to the consumers caching them, over Redis pub/sub.
+ * <p>
+ * Each run publishes one message with the current quantity of every asset that changed since the previous run,
+ * so a burst of changes of an asset costs a single entry. Consumers replace their cached quantity with the
+ * published one, and expire their entries after a while in case a message is lost.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AssetQuantityPublisher {
+
+    private final AssetInventory assetInventory;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The Redis channel carrying the quantity change events, a JSON array of {@link AssetQuantityResponse}, set in
+     * the configuration shared with the consumers.
+     */
+    @Value("${asset.quantity-events.channel}")
+    private String channel;
+
+    /**
+     * Publishes the quantities that changed since the previous run.
+     *
+     * @return The number of assets published.
+     */
+    @Scheduled(fixedDelayString = "${asset.quantity-events.interval-ms:50}")
+    public int publishChanges() {
+        Set<String> changed = assetInventory.drainChangedAssetCodes();
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        List<AssetQuantityResponse> quantities = changed.stream()
+                .map(assetCode -> {
+                    OptionalLong quantity = assetInventory.getQuantity(assetCode);
+                    return new AssetQuantityResponse(assetCode, quantity.isPresent() ? quantity.getAsLong() : null);
+                })
+                .toList();
+        try {
+            stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(quantities));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Cannot publish the quantities of {} assets, retrying with the next run", changed.size(), e);
+            changed.forEach(assetInventory::markChanged);
+            return 0;
+        }
+        return quantities.size();
+    }
+}
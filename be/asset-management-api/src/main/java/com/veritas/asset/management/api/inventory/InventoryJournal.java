@@ -0,0 +1,329 @@
+package com.veritas.asset.management.api.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of the quantity changes of the asset inventory, one numbered line per change. A change made
+ * for a reservation carries the reservation id, so that recovery can tell from the reservation table whether the
+ * reservation it belongs to was stored.
+ * <p>
+ * Changes are appended to the active segment. Sealing the active segment renames it after the last sequence number
+ * it holds and starts a new one, so that the segments whose changes reached the database can be deleted as a whole.
+ * A line that was cut short by a crash is dropped on recovery.
+ * <p>
+ * Appending threads do not write themselves: they put their change on a lock-free queue and wait for a single writer
+ * thread, which drains the queue and writes every change it found with one write call. Concurrent changes thus share
+ * a write instead of queueing up for one each.
+ */
+public class InventoryJournal implements Closeable {
+
+    private static final String ACTIVE_SEGMENT = "inventory.journal";
+
+    private static final String SEALED_SEGMENT_PREFIX = ACTIVE_SEGMENT + ".";
+
+    private static final int MAXIMUM_BATCH_SIZE = 1024;
+
+    private final Path directory;
+
+    private final Queue<PendingChange> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    private volatile Thread writer;
+
+    private volatile boolean closed;
+
+    private FileChannel channel;
+
+    private long sequence;
+
+    private boolean activeSegmentEmpty = true;
+
+    public InventoryJournal(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Replays the changes after a sequence number, then opens the active segment for appending and starts the
+     * writer thread.
+     *
+     * @param afterSequence The sequence number up to which the changes are known to be in the database.
+     * @param replay Receives every replayed change, in journal order.
+     * @throws IOException if the journal cannot be read.
+     */
+    public synchronized void recover(long afterSequence, Consumer<Change> replay) throws IOException {
+        sequence = afterSequence;
+        List<Path> segments = new ArrayList<>(sealedSegments());
+        segments.add(directory.resolve(ACTIVE_SEGMENT));
+        for (Path segment : segments) {
+            if (!Files.exists(segment)) {
+                continue;
+            }
+            byte[] content = Files.readAllBytes(segment);
+            int validLength = 0;
+            for (int end = indexOf(content, validLength); end >= 0; end = indexOf(content, validLength)) {
+                String[] fields = new String(content, validLength, end - validLength, StandardCharsets.UTF_8)
+                        .split(" ");
+                long recordSequence = Long.parseLong(fields[0]);
+                if (recordSequence > afterSequence) {
+                    replay.accept(new Change(recordSequence, fields[1], Long.parseLong(fields[2]),
+                            fields.length > 3 ? fields[3] : null));
+                }
+                sequence = Math.max(sequence, recordSequence);
+                validLength = end + 1;
+            }
+            if (segment.endsWith(ACTIVE_SEGMENT)) {
+                try (FileChannel active = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    active.truncate(validLength); // drops a line cut short by a crash
+                }
+                activeSegmentEmpty = validLength == 0;
+            }
+        }
+        channel = FileChannel.open(directory.resolve(ACTIVE_SEGMENT),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (writer == null) {
+            writer = new Thread(this::writePendingChanges, "inventory-journal-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Appends a change to the active segment, together with the changes appended concurrently. The change survives
+     * a crash of the process once this returns, and a crash of the machine once the segment is forced or sealed.
+     *
+     * @param assetCode The asset code.
+     * @param delta The quantity change.
+     * @return The sequence number of the change.
+     * @throws IOException if the change cannot be written.
+     * @throws IllegalStateException if the journal was not recovered.
+     */
+    public long append(String assetCode, long delta) throws IOException {
+        return append(assetCode, delta, null);
+    }
+
+    /**
+     * Appends a change made for a reservation, like {@link #append(String, long)}.
+     *
+     * @param assetCode The asset code.
+     * @param delta The quantity change.
+     * @param reservationId The reservation id, without whitespace, or null if the change belongs to none.
+     * @return The sequence number of the change.
+     * @throws IOException if the change cannot be written.
+     * @throws IllegalStateException if the journal was not recovered.
+     */
+    public long append(String assetCode, long delta, String reservationId) throws IOException {
+        Thread currentWriter = writer;
+        if (currentWriter == null) {
+            throw new IllegalStateException("The inventory journal was not recovered");
+        }
+        PendingChange change = new PendingChange(assetCode, delta, reservationId);
+        pendingChanges.offer(change);
+        // Unless the writer took it already, a change queued after the close is failed here
+        if (closed && pendingChanges.remove(change)) {
+            throw new IOException("The inventory journal is closed");
+        }
+        LockSupport.unpark(currentWriter);
+        try {
+            return change.written.join(); // not interruptible, the change may be written anyway
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Forces the active segment to the storage device.
+     *
+     * @throws IOException if the segment cannot be forced.
+     */
+    public synchronized void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Seals the active segment, unless it is empty.
+     *
+     * @return The sequence number of the last change in the journal.
+     * @throws IOException if the segment cannot be sealed.
+     */
+    public synchronized long seal() throws IOException {
+        if (activeSegmentEmpty) {
+            return sequence;
+        }
+        channel.force(false);
+        channel.close();
+        Files.move(directory.resolve(ACTIVE_SEGMENT), sealedSegment(sequence), StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(directory.resolve(ACTIVE_SEGMENT),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeSegmentEmpty = true;
+        return sequence;
+    }
+
+    /**
+     * Deletes the sealed segments whose changes are all in the database.
+     *
+     * @param upToSequence The sequence number up to which the changes are in the database.
+     * @throws IOException if a segment cannot be deleted.
+     */
+    public synchronized void deleteSealedSegments(long upToSequence) throws IOException {
+        for (Path segment : sealedSegments()) {
+            if (lastSequenceOf(segment) <= upToSequence) {
+                Files.delete(segment);
+            }
+        }
+    }
+
+    /**
+     * Writes the changes queued so far, stops the writer thread and closes the active segment.
+     *
+     * @throws IOException if the segment cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Thread currentWriter = writer;
+        if (currentWriter != null) {
+            LockSupport.unpark(currentWriter);
+            try {
+                currentWriter.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        IOException closedException = new IOException("The inventory journal is closed");
+        for (PendingChange change = pendingChanges.poll(); change != null; change = pendingChanges.poll()) {
+            change.written.completeExceptionally(closedException);
+        }
+        synchronized (this) {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Runs on the writer thread, draining the queue in batches until the journal is closed and the queue empty.
+     */
+    private void writePendingChanges() {
+        List<PendingChange> batch = new ArrayList<>();
+        while (true) {
+            PendingChange change = pendingChanges.poll();
+            if (change == null) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+            do {
+                batch.add(change);
+            } while (batch.size() < MAXIMUM_BATCH_SIZE && (change = pendingChanges.poll()) != null);
+            try {
+                long firstSequence = write(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).written.complete(firstSequence + i);
+                }
+            } catch (IOException | RuntimeException e) {
+                batch.forEach(failed -> failed.written.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes a batch of changes with one write call, numbering them on.
+     *
+     * @return The sequence number of the first change of the batch.
+     */
+    private synchronized long write(List<PendingChange> batch) throws IOException {
+        StringBuilder lines = new StringBuilder(batch.size() * 32);
+        long next = sequence;
+        for (PendingChange change : batch) {
+            lines.append(++next).append(' ').append(change.assetCode).append(' ').append(change.delta);
+            if (change.reservationId != null) {
+                lines.append(' ').append(change.reservationId);
+            }
+            lines.append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        long firstSequence = sequence + 1;
+        sequence = next;
+        activeSegmentEmpty = false;
+        return firstSequence;
+    }
+
+    private List<Path> sealedSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(SEALED_SEGMENT_PREFIX))
+                    .sorted() // zero-padded, so in sequence order
+                    .toList();
+        }
+    }
+
+    private static int indexOf(byte[] content, int from) {
+        for (int i = from; i < content.length; i++) {
+            if (content[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Path sealedSegment(long lastSequence) {
+        return directory.resolve(SEALED_SEGMENT_PREFIX + String.format("%020d", lastSequence));
+    }
+
+    private static long lastSequenceOf(Path sealedSegment) {
+        return Long.parseLong(sealedSegment.getFileName().toString().substring(SEALED_SEGMENT_PREFIX.length()));
+    }
+
+    /**
+     * A change read back from the journal.
+     *
+     * @param sequence The sequence number of the change.
+     * @param assetCode The asset code.
+     * @param delta The quantity change.
+     * @param reservationId The id of the reservation the change was made for, null if none.
+     */
+    public record Change(long sequence, String assetCode, long delta, String reservationId) {
+    }
+
+    /**
+     * A change waiting for the writer thread.
+     */
+    private static final class PendingChange {
+
+        private final String assetCode;
+
+        private final long delta;
+
+        private final String reservationId;
+
+        private final CompletableFuture<Long> written = new CompletableFuture<>();
+
+        private PendingChange(String assetCode, long delta, String reservationId) {
+            this.assetCode = assetCode;
+            this.delta = delta;
+            this.reservationId = reservationId;
+        }
+    }
+}
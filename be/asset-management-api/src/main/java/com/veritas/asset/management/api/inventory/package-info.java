@@ -0,0 +1,5 @@
+/**
+ * In-process asset inventory, answering availability checks and applying quantity changes in memory and writing
+ * them behind to the database.
+ */
+package com.veritas.asset.management.api.inventory;
@@ -13,7 +13,7 @@ import java.util.Objects;
  * Represents an asset.
  */
 @Entity
-@Table(name = "t_asset")
+@Table(name = "t_asset", indexes = @Index(name = "ux_asset_asset_code", columnList = "assetCode", unique = true))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -25,7 +25,7 @@ public class Asset {
     private Long id;
     private String assetCode;
     private String assetName;
-    private int value;
+    private long value; // in minor units, see AssetInventory#MINOR_UNITS_PER_UNIT
 
     /**
      * Overrides the equals method to provide custom comparison logic for testing purposes.
@@ -0,0 +1,37 @@
+package com.veritas.asset.management.api.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Represents a quantity of an asset held for a transaction until it is committed or released.
+ */
+@Entity
+@Table(name = "t_asset_reservation", indexes = @Index(name = "ix_asset_reservation_status_expires_at",
+        columnList = "status, expiresAt"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AssetReservation {
+
+    @Id
+    private String id; // chosen by the caller, so that retried reservations are recognized
+    private String assetCode;
+    private long amount; // in minor units
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+    private Instant expiresAt; // a held reservation is released automatically from then on
+    private Long takeSequence; // inventory journal sequence number of the take of the quantity
+    private Long releaseSequence; // inventory journal sequence number of the return of the quantity, if released
+}
@@ -0,0 +1,25 @@
+package com.veritas.asset.management.api.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Records up to which journal record the quantity changes of the in-process inventory are in {@code t_asset}.
+ */
+@Entity
+@Table(name = "t_asset_inventory_checkpoint")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryCheckpoint {
+
+    @Id
+    private Integer id; // a single row
+    private long journalSequence;
+}
@@ -0,0 +1,11 @@
+package com.veritas.asset.management.api.model;
+
+/**
+ * Lifecycle of an asset reservation.
+ */
+public enum ReservationStatus {
+    HELD, // the quantity is taken from the asset, pending commit or release
+    COMMITTED,
+    RELEASED, // the quantity went back to the asset
+    REJECTED // the asset did not have the quantity, never stored
+}
@@ -2,6 +2,9 @@ package com.veritas.asset.management.api.repository;
 
 import com.veritas.asset.management.api.model.Asset;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -11,4 +14,33 @@ import java.util.List;
  */
 public interface AssetManagementRepository extends JpaRepository<Asset, Long> {
   List<Asset> findByAssetCodeIn(List<String> assetCode);
+
+  /**
+   * Adds a quantity change to an asset in one atomic update, unless that would take it below zero or above
+   * {@link Long#MAX_VALUE}. Concurrent updates of the asset queue on its row lock instead of overwriting each other.
+   *
+   * @param assetCode The asset code.
+   * @param delta The quantity change in minor units, negative to take, at least {@code -Long.MAX_VALUE}.
+   * @return 1 if the change applied, 0 if the asset is unknown or the change would take it out of bounds.
+   */
+  default int applyDelta(String assetCode, long delta) {
+    // Bounds on the current value, so that the addition itself cannot overflow
+    return applyDeltaWithin(assetCode, delta, delta < 0 ? -delta : 0,
+        delta > 0 ? Long.MAX_VALUE - delta : Long.MAX_VALUE);
+  }
+
+  /**
+   * Adds a quantity change to an asset in one atomic update, if its current value is within bounds.
+   *
+   * @param assetCode The asset code.
+   * @param delta The quantity change in minor units.
+   * @param minimumValue The smallest current value the change applies to.
+   * @param maximumValue The largest current value the change applies to.
+   * @return 1 if the change applied, 0 otherwise.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Asset a SET a.value = a.value + :delta "
+      + "WHERE a.assetCode = :assetCode AND a.value BETWEEN :minimumValue AND :maximumValue")
+  int applyDeltaWithin(@Param("assetCode") String assetCode, @Param("delta") long delta,
+                       @Param("minimumValue") long minimumValue, @Param("maximumValue") long maximumValue);
 }
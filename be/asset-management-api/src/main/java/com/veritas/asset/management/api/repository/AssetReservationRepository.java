@@ -0,0 +1,48 @@
+package com.veritas.asset.management.api.repository;
+
+import com.veritas.asset.management.api.model.AssetReservation;
+import com.veritas.asset.management.api.model.ReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for storing asset reservations in the database.
+ */
+public interface AssetReservationRepository extends JpaRepository<AssetReservation, String> {
+
+  /**
+   * Releases a held reservation.
+   *
+   * @param id The reservation id.
+   * @param releaseSequence The inventory journal sequence number of the return of the quantity, null if the asset
+   *                        is gone.
+   * @return 1 if the reservation was released, 0 otherwise.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE AssetReservation r SET r.status = com.veritas.asset.management.api.model.ReservationStatus.RELEASED,"
+      + " r.releaseSequence = :releaseSequence"
+      + " WHERE r.id = :id AND r.status = com.veritas.asset.management.api.model.ReservationStatus.HELD")
+  int releaseIfHeld(@Param("id") String id, @Param("releaseSequence") Long releaseSequence);
+
+  /**
+   * Commits a held reservation that has not expired yet.
+   *
+   * @param id The reservation id.
+   * @param now The current time.
+   * @return 1 if the reservation was committed, 0 otherwise.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE AssetReservation r SET r.status = com.veritas.asset.management.api.model.ReservationStatus.COMMITTED"
+      + " WHERE r.id = :id AND r.status = com.veritas.asset.management.api.model.ReservationStatus.HELD"
+      + " AND r.expiresAt > :now")
+  int commitIfHeld(@Param("id") String id, @Param("now") Instant now);
+
+  List<AssetReservation> findByStatusAndExpiresAtBefore(ReservationStatus status, Instant expiresAt,
+                                                        Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package com.veritas.asset.management.api.repository;
+
+import com.veritas.asset.management.api.model.InventoryCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for storing the write-behind checkpoint of the asset inventory.
+ */
+public interface InventoryCheckpointRepository extends JpaRepository<InventoryCheckpoint, Integer> {
+}
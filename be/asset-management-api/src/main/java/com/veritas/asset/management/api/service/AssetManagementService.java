@@ -1,16 +1,22 @@
 package com.veritas.asset.management.api.service;
 
+import com.veritas.asset.management.api.dto.AssetAvailabilityRequest;
+import com.veritas.asset.management.api.dto.AssetAvailabilityResponse;
 import com.veritas.asset.management.api.dto.AssetManagementResponse;
+import com.veritas.asset.management.api.dto.AssetQuantityResponse;
+import com.veritas.asset.management.api.dto.AvailabilityStatus;
+import com.veritas.asset.management.api.inventory.AssetInventory;
 import com.veritas.asset.management.api.model.Asset;
 import com.veritas.asset.management.api.repository.AssetManagementRepository;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 
 /**
  * Service class that provides operations for managing assets.
@@ -20,47 +26,105 @@ import java.util.List;
 @Slf4j
 public class AssetManagementService {
 
+  /**
+   * The largest basket checked in one call.
+   */
+  public static final int MAXIMUM_BASKET_SIZE = 1000;
+
   private final AssetManagementRepository assetManagementRepository;
 
+  private final AssetInventory assetInventory;
+
   /**
    *
-   * Checks the availability of assets based on their codes and requested amounts.
+   * Checks the availability of assets based on their codes and requested amounts, from the quantities held in
+   * memory.
    * 
    * @param assetCode The list of asset codes to check.
-   * @param amount The list of amounts to check for each asset code.
+   * @param amount The list of amounts in minor units to check for each asset code, one unit if missing.
    * @return A list of AssetManagementResponse objects indicating the availability
-   *         of each asset for the requested amount.
+   *         of each known asset for the requested amount.
+   */
+  public List<AssetManagementResponse> isAssetAvailable(List<String> assetCode, List<Long> amount) {
+    List<AssetManagementResponse> responses = new ArrayList<>();
+    for (int i = 0; i < assetCode.size(); i++) {
+      String code = assetCode.get(i);
+      if (assetInventory.contains(code)) {
+        long requestedAmount = i < amount.size() ? amount.get(i) : AssetInventory.MINOR_UNITS_PER_UNIT;
+        responses.add(AssetManagementResponse.builder()
+            .assetCode(code)
+            .isAssetAvailable(assetInventory.isAvailable(code, requestedAmount))
+            .build());
+      }
+    }
+    return responses;
+  }
+
+  /**
+   * Checks the availability of a basket of assets in one pass, from the quantities held in memory.
+   * <p>
+   * Items of the same asset are checked against their summed amount, so a basket is available as a whole only if
+   * every item is.
+   *
+   * @param basket The items, at most {@value #MAXIMUM_BASKET_SIZE}.
+   * @return The availability of each item, in the order of the basket.
+   * @throws IllegalArgumentException if the basket is too large, or an item has no asset code or no positive
+   *                                  amount.
+   */
+  public List<AssetAvailabilityResponse> checkAvailability(List<AssetAvailabilityRequest> basket) {
+    if (basket.size() > MAXIMUM_BASKET_SIZE) {
+      throw new IllegalArgumentException("A basket holds at most " + MAXIMUM_BASKET_SIZE + " items");
+    }
+    Map<String, Long> demand = new HashMap<>();
+    for (AssetAvailabilityRequest item : basket) {
+      if (item.getAssetCode() == null || item.getAmount() <= 0) {
+        throw new IllegalArgumentException("Every item needs an asset code and a positive amount");
+      }
+      // A demand beyond the largest quantity is insufficient whatever its exact sum
+      demand.merge(item.getAssetCode(), item.getAmount(),
+          (summed, amount) -> summed > AssetInventory.MAXIMUM_QUANTITY - amount ? AssetInventory.MAXIMUM_QUANTITY
+              : summed + amount);
+    }
+    Map<String, AvailabilityStatus> statuses = new HashMap<>();
+    demand.forEach((code, amount) -> {
+      OptionalLong quantity = assetInventory.getQuantity(code);
+      statuses.put(code, quantity.isEmpty() ? AvailabilityStatus.UNKNOWN_ASSET
+          : quantity.getAsLong() >= amount ? AvailabilityStatus.AVAILABLE : AvailabilityStatus.INSUFFICIENT);
+    });
+    return basket.stream().map(item -> AssetAvailabilityResponse.builder()
+        .assetCode(item.getAssetCode())
+        .amount(item.getAmount())
+        .status(statuses.get(item.getAssetCode()))
+        .build()).toList();
+  }
+
+  /**
+   * Reads the current quantities of assets.
+   *
+   * @param assetCode The list of asset codes.
+   * @return The quantity of each asset code, null for unknown assets.
    */
-  @Transactional(readOnly = true)
-  @SneakyThrows
-  @Cacheable("assetAvailability")
-  public List<AssetManagementResponse> isAssetAvailable(List<String> assetCode, List<Integer> amount) {
-    log.info("Checking asset availability");
-    var assets = assetManagementRepository.findByAssetCodeIn(assetCode);
-    return assets.stream().map(asset -> {
-      int idx = assetCode.indexOf(asset.getAssetCode());
-      int requestedAmount = (idx >= 0 && idx < amount.size()) ? amount.get(idx) : 1;
-      return AssetManagementResponse.builder()
-        .assetCode(asset.getAssetCode())
-        .isAssetAvailable(asset.getValue() >= requestedAmount)
-        .build();
+  public List<AssetQuantityResponse> getQuantities(List<String> assetCode) {
+    return assetCode.stream().map(code -> {
+      OptionalLong quantity = assetInventory.getQuantity(code);
+      return AssetQuantityResponse.builder()
+          .assetCode(code)
+          .quantity(quantity.isPresent() ? quantity.getAsLong() : null)
+          .build();
     }).toList();
   }
 
   /**
    * Updates the amount of an asset by asset code.
    * @param assetCode The asset code to update.
-   * @param amount The amount to add (can be negative for deduction).
+   * @param amount The amount to add in minor units (can be negative for deduction).
+   * @throws IllegalArgumentException if the asset is not found or the amount would take it below zero or above
+   *                                  the largest quantity.
    */
-  @Transactional
-  public void updateAssetAmount(String assetCode, int amount) {
-    var assets = assetManagementRepository.findByAssetCodeIn(List.of(assetCode));
-    if (assets.isEmpty()) {
-      throw new IllegalArgumentException("Asset not found: " + assetCode);
+  public void updateAssetAmount(String assetCode, long amount) {
+    if (!assetInventory.tryApply(assetCode, amount)) {
+      throw new IllegalArgumentException("Asset " + assetCode + " cannot change by " + amount);
     }
-    var asset = assets.get(0);
-    asset.setValue(asset.getValue() + amount);
-    assetManagementRepository.save(asset);
   }
 
     /**
@@ -69,7 +133,9 @@ public class AssetManagementService {
      * @return The created asset.
      */
     public Asset createAsset(Asset asset) {
-        return assetManagementRepository.save(asset);
+        Asset created = assetManagementRepository.save(asset);
+        assetInventory.refresh(created.getAssetCode());
+        return created;
     }
 
     /**
@@ -78,8 +144,8 @@ public class AssetManagementService {
      * @return The asset with the given ID.
      */
     public Asset getAssetById(Long id) {
-        return assetManagementRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Asset not found: " + id));
+        return withCurrentQuantity(assetManagementRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Asset not found: " + id)));
     }
 
     /**
@@ -87,11 +153,12 @@ public class AssetManagementService {
      * @return List of all assets.
      */
     public List<Asset> getAllAssets() {
-        return assetManagementRepository.findAll();
+        return assetManagementRepository.findAll().stream().map(this::withCurrentQuantity).toList();
     }
 
     /**
-     * Update an asset by ID.
+     * Update an asset by ID. The quantity changes pending before the update are written first, so that the
+     * value set replaces them.
      * @param id The asset ID.
      * @param asset The asset data to update.
      * @return The updated asset.
@@ -99,10 +166,15 @@ public class AssetManagementService {
     public Asset updateAsset(Long id, Asset asset) {
         Asset existing = assetManagementRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Asset not found: " + id));
+        String previousCode = existing.getAssetCode();
         existing.setAssetCode(asset.getAssetCode());
         existing.setAssetName(asset.getAssetName());
         existing.setValue(asset.getValue());
-        return assetManagementRepository.save(existing);
+        assetInventory.flush();
+        Asset updated = assetManagementRepository.save(existing);
+        assetInventory.refresh(previousCode);
+        assetInventory.refresh(updated.getAssetCode());
+        return updated;
     }
 
     /**
@@ -110,9 +182,18 @@ public class AssetManagementService {
      * @param id The asset ID.
      */
     public void deleteAsset(Long id) {
-        if (!assetManagementRepository.existsById(id)) {
-            throw new IllegalArgumentException("Asset not found: " + id);
-        }
+        Asset existing = assetManagementRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Asset not found: " + id));
         assetManagementRepository.deleteById(id);
+        assetInventory.refresh(existing.getAssetCode());
+    }
+
+    /**
+     * Copies an asset read from the database with the quantity it holds in memory, which includes the changes
+     * not written yet.
+     */
+    private Asset withCurrentQuantity(Asset asset) {
+        long quantity = assetInventory.getQuantity(asset.getAssetCode()).orElse(asset.getValue());
+        return new Asset(asset.getId(), asset.getAssetCode(), asset.getAssetName(), quantity);
     }
 }
@@ -0,0 +1,190 @@
+package com.veritas.asset.management.api.service;
+
+import com.veritas.asset.management.api.dto.AssetReservationResponse;
+import com.veritas.asset.management.api.inventory.AssetInventory;
+import com.veritas.asset.management.api.model.AssetReservation;
+import com.veritas.asset.management.api.model.ReservationStatus;
+import com.veritas.asset.management.api.repository.AssetReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Service class that holds asset quantities for transactions until they commit or release them.
+ * <p>
+ * A reservation takes its quantity from the {@link AssetInventory}, whose counters keep within bounds, so concurrent
+ * reservations can neither oversell the asset nor have to retry. Quantities move between the inventory and the
+ * reservations only together with the reservation rows: the inventory journals the change with the reservation id
+ * and the row is written in its own transaction with the sequence number of that change, so that after a crash the
+ * journal replays exactly the changes whose rows committed. A quantity taken for a reservation that fails to be
+ * stored is given back, and a released quantity is given back once the release commits. A held reservation that is
+ * neither committed nor released within its time to live is released automatically. Reservation ids are chosen by
+ * the callers, and every call can be repeated with the same outcome.
+ */
+@Service
+@Slf4j
+public class AssetReservationService {
+
+  private static final int EXPIRY_BATCH_SIZE = 500;
+
+  private final AssetInventory assetInventory;
+
+  private final AssetReservationRepository assetReservationRepository;
+
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${asset.reservations.time-to-live:PT30S}")
+  private Duration timeToLive = Duration.ofSeconds(30);
+
+  public AssetReservationService(AssetInventory assetInventory, AssetReservationRepository assetReservationRepository,
+                                 PlatformTransactionManager transactionManager) {
+    this.assetInventory = assetInventory;
+    this.assetReservationRepository = assetReservationRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Holds a quantity of an asset.
+   *
+   * @param reservationId The reservation id, without whitespace. Reserving an existing id returns that reservation
+   *                      unchanged.
+   * @param assetCode The asset code.
+   * @param amount The quantity to hold, in minor units.
+   * @return The reservation, {@link ReservationStatus#REJECTED} if the asset is unknown or holds less.
+   * @throws IllegalArgumentException if the amount is not positive or the reservation id contains whitespace.
+   */
+  public AssetReservationResponse reserve(String reservationId, String assetCode, long amount) {
+    if (amount <= 0) {
+      throw new IllegalArgumentException("The reserved amount must be positive");
+    }
+    if (reservationId.chars().anyMatch(Character::isWhitespace)) {
+      throw new IllegalArgumentException("The reservation id must not contain whitespace");
+    }
+    var existing = assetReservationRepository.findById(reservationId);
+    if (existing.isPresent()) {
+      return mapToResponse(existing.get());
+    }
+    AssetReservation reservation = new AssetReservation(reservationId, assetCode, amount, ReservationStatus.HELD,
+        Instant.now().plus(timeToLive), null, null);
+    // A concurrent reservation with the same id fails on the primary key and gives its quantity back
+    if (!assetInventory.contains(assetCode) || !assetInventory.tryReserve(reservationId, assetCode, amount,
+        takeSequence -> {
+          reservation.setTakeSequence(takeSequence);
+          transactionTemplate.executeWithoutResult(status -> assetReservationRepository.save(reservation));
+        })) {
+      return AssetReservationResponse.builder()
+          .reservationId(reservationId)
+          .assetCode(assetCode)
+          .amount(amount)
+          .status(ReservationStatus.REJECTED)
+          .build();
+    }
+    return mapToResponse(reservation);
+  }
+
+  /**
+   * Commits a held reservation, which makes its quantity leave the asset for good.
+   *
+   * @param reservationId The reservation id.
+   * @return The committed reservation.
+   * @throws IllegalArgumentException if the reservation is not found.
+   * @throws IllegalStateException if the reservation was released, explicitly or because it expired.
+   */
+  @Transactional
+  public AssetReservationResponse commit(String reservationId) {
+    assetReservationRepository.commitIfHeld(reservationId, Instant.now());
+    AssetReservation reservation = getReservation(reservationId);
+    if (reservation.getStatus() != ReservationStatus.COMMITTED) {
+      throw new IllegalStateException("Reservation " + reservationId + " can no longer be committed");
+    }
+    return mapToResponse(reservation);
+  }
+
+  /**
+   * Releases a held reservation, which gives its quantity back to the asset.
+   *
+   * @param reservationId The reservation id.
+   * @return The released reservation.
+   * @throws IllegalArgumentException if the reservation is not found.
+   * @throws IllegalStateException if the reservation was committed.
+   */
+  public AssetReservationResponse release(String reservationId) {
+    AssetReservation reservation = getReservation(reservationId);
+    if (reservation.getStatus() == ReservationStatus.HELD) {
+      releaseIfHeld(reservation);
+      reservation = getReservation(reservationId);
+    }
+    if (reservation.getStatus() != ReservationStatus.RELEASED) {
+      throw new IllegalStateException("Reservation " + reservationId + " was committed");
+    }
+    return mapToResponse(reservation);
+  }
+
+  /**
+   * Releases the held reservations whose time to live is over, a batch at a time, each in its own transaction.
+   *
+   * @return The number of released reservations.
+   */
+  @Scheduled(fixedDelayString = "${asset.reservations.expiry-interval-ms:5000}")
+  public int releaseExpiredReservations() {
+    List<AssetReservation> expired = assetReservationRepository.findByStatusAndExpiresAtBefore(
+        ReservationStatus.HELD, Instant.now(), PageRequest.of(0, EXPIRY_BATCH_SIZE));
+    Set<String> assetCodes = new TreeSet<>();
+    int count = 0;
+    for (AssetReservation reservation : expired) {
+      // A commit may have won the race since the reservations were read
+      if (releaseIfHeld(reservation)) {
+        assetCodes.add(reservation.getAssetCode());
+        count++;
+      }
+    }
+    if (count > 0) {
+      log.info("Released {} expired reservations of {}", count, assetCodes);
+    }
+    return count;
+  }
+
+  /**
+   * Releases a reservation if it is still held, giving its quantity back through the inventory.
+   */
+  private boolean releaseIfHeld(AssetReservation reservation) {
+    String reservationId = reservation.getId();
+    if (!assetInventory.contains(reservation.getAssetCode())) { // the asset was deleted since
+      return releaseIfHeld(reservationId, null);
+    }
+    return assetInventory.tryRelease(reservationId, reservation.getAssetCode(), reservation.getAmount(),
+        releaseSequence -> releaseIfHeld(reservationId, releaseSequence));
+  }
+
+  private boolean releaseIfHeld(String reservationId, Long releaseSequence) {
+    Integer released = transactionTemplate.execute(
+        status -> assetReservationRepository.releaseIfHeld(reservationId, releaseSequence));
+    return released != null && released == 1;
+  }
+
+  private AssetReservation getReservation(String reservationId) {
+    return assetReservationRepository.findById(reservationId)
+        .orElseThrow(() -> new IllegalArgumentException("Reservation not found: " + reservationId));
+  }
+
+  private static AssetReservationResponse mapToResponse(AssetReservation reservation) {
+    return AssetReservationResponse.builder()
+        .reservationId(reservation.getId())
+        .assetCode(reservation.getAssetCode())
+        .amount(reservation.getAmount())
+        .status(reservation.getStatus())
+        .expiresAt(reservation.getExpiresAt())
+        .build();
+  }
+}
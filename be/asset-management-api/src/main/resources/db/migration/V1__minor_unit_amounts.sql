@@ -0,0 +1,36 @@
+-- Asset values and reservation amounts are 64-bit counts of minor units, hundredths of a unit.
+--
+-- Tables created earlier by Hibernate hold whole units in 32-bit columns, which Hibernate does not widen. Those
+-- columns are widened and their values scaled by 100, see AssetInventory#MINOR_UNITS_PER_UNIT. On a new database
+-- Hibernate creates the tables with BIGINT columns after this migration, so there is nothing to convert.
+-- MySQL has no conditional DDL, so every statement is prepared from the type of its column.
+--
+-- The inventory journal records deltas in the units of the version that wrote it: stop the previous version
+-- cleanly, so that the journal is flushed into t_asset and empty, before this migration runs.
+
+SET @convert_values = (SELECT COUNT(*) FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 't_asset' AND column_name = 'value' AND data_type = 'int');
+
+SET @statement = IF(@convert_values > 0, 'ALTER TABLE t_asset MODIFY `value` BIGINT NOT NULL', 'DO 0');
+PREPARE convert_values FROM @statement;
+EXECUTE convert_values;
+DEALLOCATE PREPARE convert_values;
+
+SET @statement = IF(@convert_values > 0, 'UPDATE t_asset SET `value` = `value` * 100', 'DO 0');
+PREPARE convert_values FROM @statement;
+EXECUTE convert_values;
+DEALLOCATE PREPARE convert_values;
+
+SET @convert_amounts = (SELECT COUNT(*) FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 't_asset_reservation' AND column_name = 'amount'
+      AND data_type = 'int');
+
+SET @statement = IF(@convert_amounts > 0, 'ALTER TABLE t_asset_reservation MODIFY amount BIGINT NOT NULL', 'DO 0');
+PREPARE convert_amounts FROM @statement;
+EXECUTE convert_amounts;
+DEALLOCATE PREPARE convert_amounts;
+
+SET @statement = IF(@convert_amounts > 0, 'UPDATE t_asset_reservation SET amount = amount * 100', 'DO 0');
+PREPARE convert_amounts FROM @statement;
+EXECUTE convert_amounts;
+DEALLOCATE PREPARE convert_amounts;
@@ -0,0 +1,174 @@
+package com.veritas.asset.management.api.integration;
+
+import com.veritas.asset.management.api.inventory.AssetInventory;
+import com.veritas.asset.management.api.model.Asset;
+import com.veritas.asset.management.api.repository.AssetManagementRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Stress test for {@link AssetManagementRepository#applyDelta(String, long)} against MySQL: concurrent deposits
+ * and withdrawals of the same asset lose no update and never take it below zero, at 1 to 128 threads.
+ */
+@Slf4j
+@Testcontainers
+class AssetDeltaUpdateIT {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64, 128};
+
+    private static final int UPDATES_PER_LEVEL = 4_000;
+
+    private static final int START_VALUE = 1_000_000;
+
+    @Container
+    private static final MySQLContainer<?> mySQLContainer = new MySQLContainer<>("mysql:8.0.33");
+
+    private static HikariDataSource dataSource;
+
+    private static LocalContainerEntityManagerFactoryBean factoryBean;
+
+    private static AssetManagementRepository assetManagementRepository;
+
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void setUpMySQL() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(mySQLContainer.getJdbcUrl());
+        dataSource.setUsername(mySQLContainer.getUsername());
+        dataSource.setPassword(mySQLContainer.getPassword());
+        dataSource.setMaximumPoolSize(THREAD_COUNTS[THREAD_COUNTS.length - 1]);
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.veritas.asset.management.api.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "update"));
+        factoryBean.afterPropertiesSet();
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(factoryBean.getObject());
+        assetManagementRepository = new JpaRepositoryFactory(entityManager)
+                .getRepository(AssetManagementRepository.class);
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(factoryBean.getObject()));
+    }
+
+    @AfterAll
+    static void tearDownMySQL() {
+        factoryBean.destroy();
+        dataSource.close();
+    }
+
+    @Test
+    void concurrentDeltasLoseNoUpdate() throws Exception {
+        transactionTemplate.executeWithoutResult(status ->
+                assetManagementRepository.save(new Asset(null, "BTC", "Bitcoin", START_VALUE)));
+        Assertions.assertThrows(DuplicateKeyException.class, () -> new JdbcTemplate(dataSource)
+                .update("INSERT INTO t_asset (asset_code, asset_name, value) VALUES ('BTC', 'Again', 1)"));
+
+        Map<Integer, Double> updatesPerSecond = new LinkedHashMap<>();
+        for (int threads : THREAD_COUNTS) {
+            long expected = value("BTC");
+            AtomicLong applied = new AtomicLong();
+            long startedAt = System.nanoTime();
+            runConcurrently(threads, UPDATES_PER_LEVEL, random -> {
+                int delta = random.nextBoolean() ? random.nextInt(100) + 1 : -(random.nextInt(100) + 1);
+                if (applyDelta("BTC", delta)) {
+                    applied.addAndGet(delta);
+                }
+            });
+            updatesPerSecond.put(threads, UPDATES_PER_LEVEL / ((System.nanoTime() - startedAt) / 1_000_000_000.0));
+
+            Assertions.assertEquals(expected + applied.get(), value("BTC"), threads + " threads lost updates");
+        }
+        updatesPerSecond.forEach((threads, throughput) ->
+                log.info("{} threads: {} updates/s on one asset", threads, Math.round(throughput)));
+    }
+
+    @Test
+    void concurrentWithdrawalsStopAtZero() throws Exception {
+        transactionTemplate.executeWithoutResult(status ->
+                assetManagementRepository.save(new Asset(null, "ETH", "Ether", 500)));
+        AtomicInteger withdrawn = new AtomicInteger();
+
+        runConcurrently(THREAD_COUNTS[THREAD_COUNTS.length - 1], 2_000, random -> {
+            if (applyDelta("ETH", -1)) {
+                withdrawn.incrementAndGet();
+            }
+        });
+
+        Assertions.assertEquals(500, withdrawn.get());
+        Assertions.assertEquals(0, value("ETH"));
+        Assertions.assertFalse(applyDelta("UNKNOWN", 1));
+    }
+
+    @Test
+    void deltasStopAtTheLargestQuantityWithoutOverflow() {
+        long cash = 100_000_000 * AssetInventory.MINOR_UNITS_PER_UNIT;
+        transactionTemplate.executeWithoutResult(status ->
+                assetManagementRepository.save(new Asset(null, "CAS", "Cash", cash)));
+
+        Assertions.assertTrue(applyDelta("CAS", Integer.MAX_VALUE));
+        Assertions.assertFalse(applyDelta("CAS", AssetInventory.MAXIMUM_QUANTITY));
+        Assertions.assertFalse(applyDelta("CAS", -AssetInventory.MAXIMUM_QUANTITY));
+        Assertions.assertTrue(applyDelta("CAS", AssetInventory.MAXIMUM_QUANTITY - cash - Integer.MAX_VALUE));
+        Assertions.assertEquals(AssetInventory.MAXIMUM_QUANTITY, value("CAS"));
+        Assertions.assertFalse(applyDelta("CAS", 1));
+    }
+
+    private static boolean applyDelta(String assetCode, long delta) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                assetManagementRepository.applyDelta(assetCode, delta) == 1));
+    }
+
+    private static long value(String assetCode) {
+        return assetManagementRepository.findByAssetCodeIn(List.of(assetCode)).get(0).getValue();
+    }
+
+    private static void runConcurrently(int threads, int updates, Consumer<Random> update) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                Random random = new Random(thread);
+                int share = updates / threads + (thread < updates % threads ? 1 : 0);
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < share; i++) {
+                        update.accept(random);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.veritas.asset.management.api.integration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Checks that the Flyway migration converts the whole-unit 32-bit columns of an existing schema into 64-bit
+ * minor-unit columns, and that it runs on a new database as well.
+ */
+@Testcontainers
+class AssetMinorUnitMigrationIT {
+
+    @Container
+    private static final MySQLContainer<?> mySQLContainer = new MySQLContainer<>("mysql:8.0.33");
+
+    private static HikariDataSource dataSource;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUpMySQL() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(mySQLContainer.getJdbcUrl());
+        dataSource.setUsername(mySQLContainer.getUsername());
+        dataSource.setPassword(mySQLContainer.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void tearDownMySQL() {
+        dataSource.close();
+    }
+
+    @Test
+    void existingSchemaIsWidenedAndScaled() {
+        // The tables as Hibernate created them before amounts were minor units
+        jdbcTemplate.execute("CREATE TABLE t_asset (id BIGINT NOT NULL AUTO_INCREMENT, asset_code VARCHAR(255), "
+                + "asset_name VARCHAR(255), `value` INT NOT NULL, PRIMARY KEY (id))");
+        jdbcTemplate.execute("CREATE TABLE t_asset_reservation (id VARCHAR(255) NOT NULL, asset_code VARCHAR(255), "
+                + "amount INT NOT NULL, status VARCHAR(255), expires_at DATETIME(6), PRIMARY KEY (id))");
+        jdbcTemplate.update("INSERT INTO t_asset (asset_code, asset_name, `value`) VALUES ('USD', 'Dollar', ?)",
+                Integer.MAX_VALUE);
+        jdbcTemplate.update("INSERT INTO t_asset_reservation (id, asset_code, amount, status) "
+                + "VALUES ('reservation-1', 'USD', 25, 'HELD')");
+
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("0").load().migrate();
+        // A second startup finds nothing to migrate
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("0").load().migrate();
+
+        Assertions.assertEquals("bigint", columnType("t_asset", "value"));
+        Assertions.assertEquals("bigint", columnType("t_asset_reservation", "amount"));
+        Assertions.assertEquals(Integer.MAX_VALUE * 100L,
+                jdbcTemplate.queryForObject("SELECT `value` FROM t_asset WHERE asset_code = 'USD'", Long.class));
+        Assertions.assertEquals(2_500L,
+                jdbcTemplate.queryForObject("SELECT amount FROM t_asset_reservation", Long.class));
+    }
+
+    @Test
+    void newDatabaseIsLeftToHibernate() {
+        HikariDataSource newDatabase = new HikariDataSource();
+        newDatabase.setJdbcUrl(mySQLContainer.getJdbcUrl().replace("/" + mySQLContainer.getDatabaseName(),
+                "/new_assets?createDatabaseIfNotExist=true"));
+        newDatabase.setUsername("root");
+        newDatabase.setPassword(mySQLContainer.getPassword());
+        try (newDatabase) {
+            Flyway.configure().dataSource(newDatabase).baselineOnMigrate(true).baselineVersion("0").load().migrate();
+
+            Assertions.assertEquals(0, new JdbcTemplate(newDatabase).queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.tables "
+                            + "WHERE table_schema = 'new_assets' AND table_name = 't_asset'", Integer.class));
+        }
+    }
+
+    private static String columnType(String table, String column) {
+        return jdbcTemplate.queryForObject("SELECT data_type FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?", String.class, table, column);
+    }
+}
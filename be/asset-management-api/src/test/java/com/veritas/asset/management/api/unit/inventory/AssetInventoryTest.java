@@ -0,0 +1,310 @@
+package com.veritas.asset.management.api.unit.inventory;
+
+import com.veritas.asset.management.api.inventory.AssetInventory;
+import com.veritas.asset.management.api.model.Asset;
+import com.veritas.asset.management.api.model.AssetReservation;
+import com.veritas.asset.management.api.model.InventoryCheckpoint;
+import com.veritas.asset.management.api.model.ReservationStatus;
+import com.veritas.asset.management.api.repository.AssetManagementRepository;
+import com.veritas.asset.management.api.repository.AssetReservationRepository;
+import com.veritas.asset.management.api.repository.InventoryCheckpointRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link AssetInventory} class, backed by in-memory stand-ins for the asset, checkpoint and
+ * reservation tables.
+ */
+class AssetInventoryTest {
+
+    @TempDir
+    private Path journalDirectory;
+
+    private final Map<String, Long> assets = new ConcurrentHashMap<>();
+
+    private final Map<String, AssetReservation> reservations = new ConcurrentHashMap<>();
+
+    private InventoryCheckpoint checkpoint;
+
+    private boolean databaseDown;
+
+    private AssetManagementRepository assetManagementRepository;
+
+    private InventoryCheckpointRepository inventoryCheckpointRepository;
+
+    private AssetReservationRepository assetReservationRepository;
+
+    @BeforeEach
+    void setUp() {
+        assetManagementRepository = Mockito.mock(AssetManagementRepository.class);
+        Mockito.when(assetManagementRepository.findAll()).thenAnswer(invocation -> assets.entrySet().stream()
+                .map(asset -> new Asset(null, asset.getKey(), asset.getKey(), asset.getValue()))
+                .toList());
+        Mockito.when(assetManagementRepository.applyDelta(Mockito.anyString(), Mockito.anyLong()))
+                .thenCallRealMethod();
+        Mockito.when(assetManagementRepository.applyDeltaWithin(Mockito.anyString(), Mockito.anyLong(),
+                Mockito.anyLong(), Mockito.anyLong())).thenAnswer(invocation -> {
+                    if (databaseDown) {
+                        throw new QueryTimeoutException("Database down");
+                    }
+                    String assetCode = invocation.getArgument(0);
+                    long delta = invocation.getArgument(1);
+                    Long value = assets.get(assetCode);
+                    if (value == null || value < invocation.<Long>getArgument(2)
+                            || value > invocation.<Long>getArgument(3)) {
+                        return 0;
+                    }
+                    assets.put(assetCode, value + delta);
+                    return 1;
+                });
+        Mockito.when(assetManagementRepository.findByAssetCodeIn(Mockito.any())).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream()
+                        .filter(assets::containsKey)
+                        .map(assetCode -> new Asset(null, assetCode, assetCode, assets.get(assetCode)))
+                        .toList());
+
+        inventoryCheckpointRepository = Mockito.mock(InventoryCheckpointRepository.class);
+        Mockito.when(inventoryCheckpointRepository.findById(Mockito.anyInt()))
+                .thenAnswer(invocation -> Optional.ofNullable(checkpoint));
+        Mockito.when(inventoryCheckpointRepository.save(Mockito.any())).thenAnswer(invocation -> {
+            checkpoint = invocation.getArgument(0);
+            return checkpoint;
+        });
+
+        assetReservationRepository = Mockito.mock(AssetReservationRepository.class);
+        Mockito.when(assetReservationRepository.findAllById(Mockito.any())).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream()
+                        .filter(reservations::containsKey)
+                        .map(reservations::get)
+                        .toList());
+
+        assets.put("BTC", 100L);
+        assets.put("ETH", 10L);
+    }
+
+    /**
+     * Test for {@link AssetInventory#tryApply(String, long)} under concurrent takes.
+     */
+    @Test
+    void testConcurrentTakesNeverOversell() throws Exception {
+        // Given
+        AssetInventory assetInventory = loadInventory();
+        AtomicInteger taken = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        // When
+        for (int thread = 0; thread < 16; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 50; i++) {
+                    if (assetInventory.tryApply("BTC", -1)) {
+                        taken.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assetInventory.flush();
+
+        // Then
+        Assertions.assertEquals(100, taken.get());
+        Assertions.assertEquals(0, assetInventory.getQuantity("BTC").getAsLong());
+        Assertions.assertEquals(0, assets.get("BTC"));
+        Assertions.assertFalse(assetInventory.isAvailable("BTC", 1));
+        Assertions.assertFalse(assetInventory.tryApply("ETH", AssetInventory.MAXIMUM_QUANTITY));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> assetInventory.tryApply("UNKNOWN", 1));
+    }
+
+    /**
+     * Test for {@link AssetInventory#tryApply(String, long)} with quantities beyond the range of an int.
+     */
+    @Test
+    void testLargeQuantitiesChangeWithoutOverflow() throws IOException {
+        // Given
+        assets.put("CAS", 100_000_000 * AssetInventory.MINOR_UNITS_PER_UNIT);
+        AssetInventory assetInventory = loadInventory();
+
+        // When
+        boolean taken = assetInventory.tryApply("CAS", -2_500_000_001L);
+        boolean overflowing = assetInventory.tryApply("CAS", AssetInventory.MAXIMUM_QUANTITY);
+        boolean underflowing = assetInventory.tryApply("CAS", -AssetInventory.MAXIMUM_QUANTITY);
+        assetInventory.flush();
+
+        // Then
+        Assertions.assertTrue(taken);
+        Assertions.assertFalse(overflowing);
+        Assertions.assertFalse(underflowing);
+        Assertions.assertEquals(7_499_999_999L, assetInventory.getQuantity("CAS").getAsLong());
+        Assertions.assertEquals(7_499_999_999L, assets.get("CAS"));
+        Assertions.assertTrue(assetInventory.tryApply("CAS", AssetInventory.MAXIMUM_QUANTITY - 7_499_999_999L));
+        Assertions.assertFalse(assetInventory.tryApply("CAS", 1));
+        Assertions.assertEquals(0, assetManagementRepository.applyDelta("CAS", AssetInventory.MAXIMUM_QUANTITY));
+    }
+
+    /**
+     * Test for {@link AssetInventory#flush()}.
+     */
+    @Test
+    void testFlushWritesOneSummedUpdatePerAsset() throws IOException {
+        // Given
+        AssetInventory assetInventory = loadInventory();
+        assetInventory.tryApply("BTC", -30);
+        assetInventory.tryApply("BTC", 5);
+        assetInventory.tryApply("ETH", -4);
+        assetInventory.tryApply("ETH", 4);
+
+        // When
+        int flushed = assetInventory.flush();
+
+        // Then
+        Assertions.assertEquals(1, flushed);
+        Mockito.verify(assetManagementRepository).applyDelta("BTC", -25);
+        Mockito.verify(assetManagementRepository, Mockito.never()).applyDelta(Mockito.eq("ETH"), Mockito.anyLong());
+        Assertions.assertEquals(75, assets.get("BTC"));
+        Assertions.assertEquals(4, checkpoint.getJournalSequence());
+        Assertions.assertEquals(0, assetInventory.flush());
+    }
+
+    /**
+     * Test for {@link AssetInventory#flush()} when the database fails.
+     */
+    @Test
+    void testFailedFlushKeepsTheChangesPending() throws IOException {
+        // Given
+        AssetInventory assetInventory = loadInventory();
+        assetInventory.tryApply("BTC", -10);
+        databaseDown = true;
+
+        // When
+        int failed = assetInventory.flush();
+        assetInventory.tryApply("BTC", -10);
+        databaseDown = false;
+        int flushed = assetInventory.flush();
+
+        // Then
+        Assertions.assertEquals(0, failed);
+        Assertions.assertEquals(1, flushed);
+        Mockito.verify(assetManagementRepository).applyDelta("BTC", -20);
+        Assertions.assertEquals(80, assets.get("BTC"));
+        Assertions.assertEquals(2, checkpoint.getJournalSequence());
+    }
+
+    /**
+     * Test for {@link AssetInventory#flush()} when the database refuses a change.
+     */
+    @Test
+    void testRefusedChangeReloadsTheAsset() throws IOException {
+        // Given
+        AssetInventory assetInventory = loadInventory();
+        assetInventory.tryApply("BTC", -30);
+        assetInventory.tryApply("ETH", -5);
+        assets.put("BTC", 20L); // written around the inventory
+
+        // When
+        int flushed = assetInventory.flush();
+
+        // Then
+        Assertions.assertEquals(1, flushed);
+        Assertions.assertEquals(20, assets.get("BTC"));
+        Assertions.assertEquals(20, assetInventory.getQuantity("BTC").getAsLong());
+        Assertions.assertEquals(5, assets.get("ETH"));
+        Assertions.assertEquals(5, assetInventory.getQuantity("ETH").getAsLong());
+    }
+
+    /**
+     * Test for {@link AssetInventory#load()} after a crash that left changes in the journal only.
+     */
+    @Test
+    void testLoadReplaysTheChangesMissingFromTheDatabase() throws IOException {
+        // Given
+        AssetInventory crashed = loadInventory();
+        crashed.tryApply("BTC", -30);
+        crashed.flush();
+        crashed.tryApply("BTC", -20);
+        crashed.tryApply("ETH", 5);
+        Files.writeString(journalDirectory.resolve("inventory.journal"), "4 BTC -",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND); // cut short
+
+        // When
+        AssetInventory restarted = loadInventory();
+
+        // Then
+        Assertions.assertEquals(50, restarted.getQuantity("BTC").getAsLong());
+        Assertions.assertEquals(15, restarted.getQuantity("ETH").getAsLong());
+        Assertions.assertEquals(50, assets.get("BTC"));
+        Assertions.assertEquals(15, assets.get("ETH"));
+        Assertions.assertEquals(3, checkpoint.getJournalSequence());
+        restarted.tryApply("BTC", -1);
+        restarted.flush();
+        Assertions.assertEquals(4, checkpoint.getJournalSequence());
+        Assertions.assertEquals(49, loadInventory().getQuantity("BTC").getAsLong());
+    }
+
+    /**
+     * Test for {@link AssetInventory#load()} after a crash that left changes of reservations in the journal, some
+     * of which the reservation table does not record.
+     */
+    @Test
+    void testLoadReplaysOnlyTheReservationChangesOfTheRows() throws IOException {
+        // Given
+        AssetInventory crashed = loadInventory();
+        crashed.tryReserve("tx-1", "BTC", 30, takeSequence -> storeReservation("tx-1", 30, takeSequence));
+        crashed.tryReserve("tx-2", "BTC", 20, takeSequence -> storeReservation("tx-2", 20, takeSequence));
+        Assertions.assertThrows(IllegalStateException.class, () -> crashed.tryReserve("tx-1", "BTC", 30,
+                takeSequence -> {
+                    throw new IllegalStateException("Duplicate reservation id");
+                }));
+        Assertions.assertThrows(IllegalStateException.class, () -> crashed.tryReserve("tx-3", "BTC", 10,
+                takeSequence -> {
+                    throw new IllegalStateException("Connection lost before the commit");
+                }));
+        boolean released = crashed.tryRelease("tx-2", "BTC", 20, releaseSequence -> {
+            reservations.get("tx-2").setStatus(ReservationStatus.RELEASED);
+            reservations.get("tx-2").setReleaseSequence(releaseSequence);
+            return true;
+        });
+        boolean lostToCommit = crashed.tryRelease("tx-1", "BTC", 30, releaseSequence -> false);
+
+        // When
+        AssetInventory restarted = loadInventory();
+
+        // Then
+        Assertions.assertTrue(released);
+        Assertions.assertFalse(lostToCommit);
+        Assertions.assertEquals(70, crashed.getQuantity("BTC").getAsLong());
+        Assertions.assertEquals(70, restarted.getQuantity("BTC").getAsLong());
+        Assertions.assertEquals(70, assets.get("BTC"));
+    }
+
+    private void storeReservation(String reservationId, long amount, long takeSequence) {
+        reservations.put(reservationId, new AssetReservation(reservationId, "BTC", amount, ReservationStatus.HELD,
+                Instant.now().plusSeconds(30), takeSequence, null));
+    }
+
+    private AssetInventory loadInventory() throws IOException {
+        AssetInventory assetInventory = new AssetInventory(assetManagementRepository, inventoryCheckpointRepository,
+                assetReservationRepository, Mockito.mock(PlatformTransactionManager.class), journalDirectory);
+        assetInventory.load();
+        return assetInventory;
+    }
+}
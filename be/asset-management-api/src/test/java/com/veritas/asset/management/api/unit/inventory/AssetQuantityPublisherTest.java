@@ -0,0 +1,71 @@
+package com.veritas.asset.management.api.unit.inventory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veritas.asset.management.api.inventory.AssetInventory;
+import com.veritas.asset.management.api.inventory.AssetQuantityPublisher;
+import com.veritas.asset.management.api.model.Asset;
+import com.veritas.asset.management.api.repository.AssetManagementRepository;
+import com.veritas.asset.management.api.repository.AssetReservationRepository;
+import com.veritas.asset.management.api.repository.InventoryCheckpointRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit tests for {@link AssetQuantityPublisher} class.
+ */
+class AssetQuantityPublisherTest {
+
+    private static final String CHANNEL = "asset-management-api:asset-quantity";
+
+    @TempDir
+    private Path journalDirectory;
+
+    /**
+     * Test for {@link AssetQuantityPublisher#publishChanges()}.
+     */
+    @Test
+    void testPublishesTheLatestQuantityOfEachChangedAssetOnce() throws IOException {
+        // Given
+        AssetManagementRepository assetManagementRepository = Mockito.mock(AssetManagementRepository.class);
+        Mockito.when(assetManagementRepository.findAll()).thenReturn(List.of(new Asset(1L, "BTC", "Bitcoin", 100),
+                new Asset(2L, "ETH", "Ether", 10)));
+        AssetInventory assetInventory = new AssetInventory(assetManagementRepository,
+                Mockito.mock(InventoryCheckpointRepository.class), Mockito.mock(AssetReservationRepository.class),
+                Mockito.mock(PlatformTransactionManager.class), journalDirectory);
+        assetInventory.load();
+        StringRedisTemplate stringRedisTemplate = Mockito.mock(StringRedisTemplate.class);
+        AssetQuantityPublisher publisher = new AssetQuantityPublisher(assetInventory, stringRedisTemplate,
+                new ObjectMapper());
+        ReflectionTestUtils.setField(publisher, "channel", CHANNEL);
+        assetInventory.tryApply("BTC", -10);
+        assetInventory.tryApply("BTC", -20);
+
+        // When
+        Mockito.when(stringRedisTemplate.convertAndSend(Mockito.anyString(), Mockito.anyString()))
+                .thenThrow(new QueryTimeoutException("Redis down"))
+                .thenReturn(1L);
+        int failed = publisher.publishChanges();
+        int published = publisher.publishChanges();
+        int idle = publisher.publishChanges();
+
+        // Then
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(stringRedisTemplate, Mockito.times(2))
+                .convertAndSend(Mockito.eq(CHANNEL), message.capture());
+        Assertions.assertEquals(0, failed);
+        Assertions.assertEquals(1, published);
+        Assertions.assertEquals(0, idle);
+        Assertions.assertEquals("[{\"assetCode\":\"BTC\",\"quantity\":70}]", message.getValue());
+    }
+}
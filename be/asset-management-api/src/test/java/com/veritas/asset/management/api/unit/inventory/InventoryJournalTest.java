@@ -0,0 +1,92 @@
+package com.veritas.asset.management.api.unit.inventory;
+
+import com.veritas.asset.management.api.inventory.InventoryJournal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for {@link InventoryJournal} class.
+ */
+class InventoryJournalTest {
+
+    @TempDir
+    private Path journalDirectory;
+
+    /**
+     * Test for {@link InventoryJournal#append(String, long)} from concurrent threads.
+     */
+    @Test
+    void testConcurrentAppendsAreNumberedWithoutGaps() throws Exception {
+        // Given
+        InventoryJournal journal = new InventoryJournal(journalDirectory);
+        journal.recover(0, change -> Assertions.fail("Nothing to replay"));
+        Set<Long> sequences = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        // When
+        for (int thread = 0; thread < 16; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    try {
+                        sequences.add(journal.append("BTC", -1));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        journal.close();
+
+        // Then
+        Assertions.assertEquals(8000, sequences.size());
+        Assertions.assertEquals(1, sequences.stream().mapToLong(Long::longValue).min().getAsLong());
+        Assertions.assertEquals(8000, sequences.stream().mapToLong(Long::longValue).max().getAsLong());
+        Assertions.assertThrows(IOException.class, () -> journal.append("BTC", -1));
+        AtomicLong replayed = new AtomicLong();
+        InventoryJournal recovered = new InventoryJournal(journalDirectory);
+        recovered.recover(0, change -> replayed.addAndGet(change.delta()));
+        Assertions.assertEquals(-8000, replayed.get());
+        Assertions.assertEquals(8001, recovered.append("BTC", 1));
+        recovered.close();
+    }
+
+    /**
+     * Test for {@link InventoryJournal#recover} after a checkpoint sealed the journal.
+     */
+    @Test
+    void testRecoverSkipsTheCheckpointedChanges() throws IOException {
+        // Given
+        InventoryJournal journal = new InventoryJournal(journalDirectory);
+        journal.recover(0, change -> Assertions.fail("Nothing to replay"));
+        journal.append("BTC", -10);
+        journal.append("ETH", 5);
+        long sealed = journal.seal();
+        journal.append("BTC", -3, "tx-1");
+        journal.close();
+
+        // When
+        List<InventoryJournal.Change> replayed = new ArrayList<>();
+        InventoryJournal recovered = new InventoryJournal(journalDirectory);
+        recovered.recover(sealed, replayed::add);
+        recovered.close();
+
+        // Then
+        Assertions.assertEquals(2, sealed);
+        Assertions.assertEquals(List.of(new InventoryJournal.Change(3, "BTC", -3, "tx-1")), replayed);
+    }
+}
@@ -0,0 +1,134 @@
+package com.veritas.asset.management.api.unit.service;
+
+import com.veritas.asset.management.api.dto.AssetAvailabilityRequest;
+import com.veritas.asset.management.api.dto.AssetAvailabilityResponse;
+import com.veritas.asset.management.api.dto.AvailabilityStatus;
+import com.veritas.asset.management.api.inventory.AssetInventory;
+import com.veritas.asset.management.api.model.Asset;
+import com.veritas.asset.management.api.repository.AssetManagementRepository;
+import com.veritas.asset.management.api.repository.AssetReservationRepository;
+import com.veritas.asset.management.api.repository.InventoryCheckpointRepository;
+import com.veritas.asset.management.api.service.AssetManagementService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Unit tests for {@link AssetManagementService} class.
+ */
+class AssetManagementServiceTest {
+
+    @TempDir
+    private Path journalDirectory;
+
+    private AssetManagementRepository assetManagementRepository;
+
+    private AssetInventory assetInventory;
+
+    private AssetManagementService assetManagementService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        assetManagementRepository = Mockito.mock(AssetManagementRepository.class);
+        List<Asset> assets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            assets.add(new Asset((long) i, "ASSET-" + i, "Asset " + i, i));
+        }
+        Mockito.when(assetManagementRepository.findAll()).thenReturn(assets);
+        assetInventory = new AssetInventory(assetManagementRepository,
+                Mockito.mock(InventoryCheckpointRepository.class), Mockito.mock(AssetReservationRepository.class),
+                Mockito.mock(PlatformTransactionManager.class), journalDirectory);
+        assetInventory.load();
+        Mockito.clearInvocations(assetManagementRepository);
+        assetManagementService = new AssetManagementService(assetManagementRepository, assetInventory);
+    }
+
+    /**
+     * Test for {@link AssetManagementService#checkAvailability(List)}.
+     */
+    @Test
+    void testBasketAvailability() {
+        // Given
+        List<AssetAvailabilityRequest> basket = List.of(
+                new AssetAvailabilityRequest("ASSET-10", 10),
+                new AssetAvailabilityRequest("ASSET-20", 15),
+                new AssetAvailabilityRequest("ASSET-20", 10),
+                new AssetAvailabilityRequest("UNKNOWN", 1),
+                new AssetAvailabilityRequest("ASSET-5", 6));
+
+        // When
+        List<AssetAvailabilityResponse> availability = assetManagementService.checkAvailability(basket);
+
+        // Then
+        Assertions.assertEquals(List.of(
+                new AssetAvailabilityResponse("ASSET-10", 10, AvailabilityStatus.AVAILABLE),
+                new AssetAvailabilityResponse("ASSET-20", 15, AvailabilityStatus.INSUFFICIENT),
+                new AssetAvailabilityResponse("ASSET-20", 10, AvailabilityStatus.INSUFFICIENT),
+                new AssetAvailabilityResponse("UNKNOWN", 1, AvailabilityStatus.UNKNOWN_ASSET),
+                new AssetAvailabilityResponse("ASSET-5", 6, AvailabilityStatus.INSUFFICIENT)), availability);
+        Mockito.verifyNoInteractions(assetManagementRepository);
+    }
+
+    /**
+     * Test for {@link AssetManagementService#updateAsset(Long, Asset)} renaming an asset, which must leave the
+     * inventory under the new code only.
+     */
+    @Test
+    void testRenamedAssetLeavesOldCode() {
+        // Given
+        Asset renamed = new Asset(7L, "RENAMED", "Renamed asset", 7);
+        Mockito.when(assetManagementRepository.findById(7L))
+                .thenReturn(Optional.of(new Asset(7L, "ASSET-7", "Asset 7", 7)));
+        Mockito.when(assetManagementRepository.save(Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(assetManagementRepository.findByAssetCodeIn(List.of("ASSET-7"))).thenReturn(List.of());
+        Mockito.when(assetManagementRepository.findByAssetCodeIn(List.of("RENAMED"))).thenReturn(List.of(renamed));
+
+        // When
+        Asset updated = assetManagementService.updateAsset(7L, renamed);
+
+        // Then
+        Assertions.assertEquals("RENAMED", updated.getAssetCode());
+        Assertions.assertFalse(assetInventory.contains("ASSET-7"));
+        Assertions.assertEquals(7, assetInventory.getQuantity("RENAMED").orElseThrow());
+    }
+
+    /**
+     * Test for {@link AssetManagementService#checkAvailability(List)} with the largest basket and invalid ones.
+     */
+    @Test
+    void testBasketLimits() {
+        // Given
+        List<AssetAvailabilityRequest> largest = new ArrayList<>();
+        for (int i = 0; i < AssetManagementService.MAXIMUM_BASKET_SIZE; i++) {
+            largest.add(new AssetAvailabilityRequest("ASSET-" + i, 1));
+        }
+
+        // When
+        List<AssetAvailabilityResponse> availability = assetManagementService.checkAvailability(largest);
+
+        // Then
+        Assertions.assertEquals(AssetManagementService.MAXIMUM_BASKET_SIZE, availability.size());
+        Assertions.assertEquals(AvailabilityStatus.INSUFFICIENT, availability.get(0).getStatus());
+        Assertions.assertTrue(availability.subList(1, availability.size()).stream()
+                .allMatch(item -> item.getStatus() == AvailabilityStatus.AVAILABLE));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> assetManagementService.checkAvailability(
+                Collections.nCopies(AssetManagementService.MAXIMUM_BASKET_SIZE + 1, largest.get(1))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> assetManagementService.checkAvailability(
+                List.of(new AssetAvailabilityRequest("ASSET-1", 0))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> assetManagementService.checkAvailability(
+                List.of(new AssetAvailabilityRequest(null, 1))));
+        Assertions.assertEquals(AvailabilityStatus.INSUFFICIENT, assetManagementService.checkAvailability(
+                Collections.nCopies(2, new AssetAvailabilityRequest("ASSET-999", AssetInventory.MAXIMUM_QUANTITY)))
+                .get(0).getStatus());
+    }
+}
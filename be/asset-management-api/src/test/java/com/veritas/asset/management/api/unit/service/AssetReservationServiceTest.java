@@ -0,0 +1,149 @@
+package com.veritas.asset.management.api.unit.service;
+
+import com.veritas.asset.management.api.dto.AssetReservationResponse;
+import com.veritas.asset.management.api.inventory.AssetInventory;
+import com.veritas.asset.management.api.model.Asset;
+import com.veritas.asset.management.api.model.AssetReservation;
+import com.veritas.asset.management.api.model.ReservationStatus;
+import com.veritas.asset.management.api.repository.AssetManagementRepository;
+import com.veritas.asset.management.api.repository.AssetReservationRepository;
+import com.veritas.asset.management.api.repository.InventoryCheckpointRepository;
+import com.veritas.asset.management.api.service.AssetReservationService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Unit tests for {@link AssetReservationService} class, backed by an {@link AssetInventory} and an in-memory
+ * stand-in for the reservation table.
+ */
+class AssetReservationServiceTest {
+
+    @TempDir
+    private Path journalDirectory;
+
+    private AssetInventory assetInventory;
+
+    private final Map<String, AssetReservation> reservations = new HashMap<>();
+
+    private AssetReservationService assetReservationService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        AssetReservationRepository assetReservationRepository = Mockito.mock(AssetReservationRepository.class);
+        Mockito.when(assetReservationRepository.findById(Mockito.anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(reservations.get(invocation.<String>getArgument(0))));
+        Mockito.when(assetReservationRepository.save(Mockito.any())).thenAnswer(invocation -> {
+            AssetReservation reservation = invocation.getArgument(0);
+            reservations.put(reservation.getId(), reservation);
+            return reservation;
+        });
+        Mockito.when(assetReservationRepository.releaseIfHeld(Mockito.anyString(), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    int released = transition(invocation.getArgument(0), ReservationStatus.HELD,
+                            ReservationStatus.RELEASED, Instant.MIN);
+                    if (released == 1) {
+                        reservations.get(invocation.<String>getArgument(0))
+                                .setReleaseSequence(invocation.getArgument(1));
+                    }
+                    return released;
+                });
+        Mockito.when(assetReservationRepository.commitIfHeld(Mockito.anyString(), Mockito.any()))
+                .thenAnswer(invocation -> transition(invocation.getArgument(0), ReservationStatus.HELD,
+                        ReservationStatus.COMMITTED, invocation.getArgument(1)));
+        Mockito.when(assetReservationRepository.findByStatusAndExpiresAtBefore(Mockito.any(), Mockito.any(),
+                Mockito.any())).thenAnswer(invocation -> reservations.values().stream()
+                .filter(reservation -> reservation.getStatus() == invocation.getArgument(0))
+                .filter(reservation -> reservation.getExpiresAt().isBefore(invocation.getArgument(1)))
+                .toList());
+        Mockito.when(assetReservationRepository.findAllById(Mockito.any())).thenAnswer(invocation ->
+                reservations.values().stream()
+                        .filter(reservation -> invocation.<List<String>>getArgument(0).contains(reservation.getId()))
+                        .toList());
+
+        AssetManagementRepository assetManagementRepository = Mockito.mock(AssetManagementRepository.class);
+        Mockito.when(assetManagementRepository.findAll())
+                .thenReturn(List.of(new Asset(1L, "BTC", "Bitcoin", 100)));
+        assetInventory = new AssetInventory(assetManagementRepository,
+                Mockito.mock(InventoryCheckpointRepository.class), assetReservationRepository,
+                Mockito.mock(PlatformTransactionManager.class), journalDirectory);
+        assetInventory.load();
+
+        assetReservationService = new AssetReservationService(assetInventory, assetReservationRepository,
+                Mockito.mock(PlatformTransactionManager.class));
+    }
+
+    /**
+     * Test for the reserve, commit and release lifecycle of a reservation.
+     */
+    @Test
+    void testReservationLifecycle() {
+        // When
+        AssetReservationResponse held = assetReservationService.reserve("tx-1", "BTC", 60);
+        AssetReservationResponse retried = assetReservationService.reserve("tx-1", "BTC", 60);
+        AssetReservationResponse rejected = assetReservationService.reserve("tx-2", "BTC", 60);
+        AssetReservationResponse committed = assetReservationService.commit("tx-1");
+        assetReservationService.reserve("tx-3", "BTC", 40);
+        AssetReservationResponse released = assetReservationService.release("tx-3");
+
+        // Then
+        Assertions.assertEquals(ReservationStatus.HELD, held.getStatus());
+        Assertions.assertEquals(ReservationStatus.HELD, retried.getStatus());
+        Assertions.assertEquals(ReservationStatus.REJECTED, rejected.getStatus());
+        Assertions.assertFalse(reservations.containsKey("tx-2"));
+        Assertions.assertEquals(ReservationStatus.COMMITTED, committed.getStatus());
+        Assertions.assertEquals(ReservationStatus.RELEASED, released.getStatus());
+        Assertions.assertEquals(40, assetInventory.getQuantity("BTC").getAsLong());
+        Assertions.assertEquals(ReservationStatus.COMMITTED, assetReservationService.commit("tx-1").getStatus());
+        Assertions.assertThrows(IllegalStateException.class, () -> assetReservationService.release("tx-1"));
+        Assertions.assertThrows(IllegalStateException.class, () -> assetReservationService.commit("tx-3"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> assetReservationService.commit("unknown"));
+        Assertions.assertEquals(ReservationStatus.REJECTED,
+                assetReservationService.reserve("tx-4", "UNKNOWN", 1).getStatus());
+    }
+
+    /**
+     * Test for {@link AssetReservationService#releaseExpiredReservations()}.
+     */
+    @Test
+    void testExpiredReservationsAreReleased() {
+        // Given
+        ReflectionTestUtils.setField(assetReservationService, "timeToLive", Duration.ofSeconds(-1));
+        assetReservationService.reserve("tx-1", "BTC", 30);
+        assetReservationService.reserve("tx-2", "BTC", 20);
+        ReflectionTestUtils.setField(assetReservationService, "timeToLive", Duration.ofMinutes(1));
+        assetReservationService.reserve("tx-3", "BTC", 10);
+
+        // When
+        int released = assetReservationService.releaseExpiredReservations();
+
+        // Then
+        Assertions.assertEquals(2, released);
+        Assertions.assertEquals(90, assetInventory.getQuantity("BTC").getAsLong());
+        Assertions.assertThrows(IllegalStateException.class, () -> assetReservationService.commit("tx-1"));
+        Assertions.assertEquals(ReservationStatus.COMMITTED, assetReservationService.commit("tx-3").getStatus());
+        Assertions.assertEquals(0, assetReservationService.releaseExpiredReservations());
+    }
+
+    private int transition(String id, ReservationStatus from, ReservationStatus to, Instant now) {
+        AssetReservation reservation = reservations.get(id);
+        if (reservation == null || reservation.getStatus() != from || !reservation.getExpiresAt().isAfter(now)) {
+            return 0;
+        }
+        reservation.setStatus(to);
+        return 1;
+    }
+}
@@ -0,0 +1,103 @@
+package com.veritas.identity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Signs and verifies the trusted identity headers exchanged between the gateway and the backend services.
+ * <p>
+ * A signature has the form {@code <expiresAt>.<mac>}, where the MAC is an HMAC-SHA256 over the user id and
+ * the expiry in epoch seconds, keyed with a secret shared only by the internal services. The gateway signs and the
+ * services verify with this one implementation, so both sides always agree on the format.
+ */
+public class IdentitySignature {
+
+    /**
+     * Header carrying the id of the authenticated user.
+     */
+    public static final String USER_ID_HEADER = "X-User-Id";
+
+    /**
+     * Header carrying the signature of {@link #USER_ID_HEADER}.
+     */
+    public static final String SIGNATURE_HEADER = "X-User-Signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * Creates a signer for the given shared secret.
+     *
+     * @param signingKey The secret shared by the gateway and the backend services.
+     */
+    public IdentitySignature(String signingKey) {
+        this.key = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Signs a user id.
+     *
+     * @param userId The user id.
+     * @param expiresAt The instant after which the signature is no longer accepted.
+     * @return The value of the signature header.
+     */
+    public String sign(String userId, Instant expiresAt) {
+        long expiresAtSeconds = expiresAt.getEpochSecond();
+        return expiresAtSeconds + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac(userId, expiresAtSeconds));
+    }
+
+    /**
+     * Verifies the signature of a user id.
+     *
+     * @param userId The user id.
+     * @param signature The value of the signature header.
+     * @return True if the signature was issued for the user id and has not expired.
+     */
+    public boolean verify(String userId, String signature) {
+        if (userId == null || signature == null) {
+            return false;
+        }
+        int separator = signature.indexOf('.');
+        if (separator <= 0) {
+            return false;
+        }
+        try {
+            long expiresAtSeconds = Long.parseLong(signature, 0, separator, 10);
+            if (expiresAtSeconds < Instant.now().getEpochSecond()) {
+                return false;
+            }
+            byte[] expected = mac(userId, expiresAtSeconds);
+            byte[] actual = Base64.getUrlDecoder().decode(signature.substring(separator + 1));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private byte[] mac(String userId, long expiresAtSeconds) {
+        Mac mac = macs.get();
+        mac.update(userId.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) '\n');
+        return mac.doFinal(Long.toString(expiresAtSeconds).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.veritas.identity.unit;
+
+import com.veritas.identity.IdentitySignature;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Unit tests for {@link IdentitySignature} class.
+ */
+class IdentitySignatureTest {
+
+    private static final String SIGNING_KEY = "test-signing-key";
+
+    private final IdentitySignature identitySignature = new IdentitySignature(SIGNING_KEY);
+
+    /**
+     * Test for {@link IdentitySignature#sign(String, Instant)} and {@link IdentitySignature#verify(String, String)}
+     * with a signature issued for the user.
+     */
+    @Test
+    void testSignedUserIdIsVerified() throws Exception {
+        // Given
+        Instant expiresAt = Instant.now().plusSeconds(60);
+
+        // When
+        String signature = identitySignature.sign("auth0|1", expiresAt);
+
+        // Then
+        Assertions.assertEquals(hmac("auth0|1", expiresAt.getEpochSecond()), signature);
+        Assertions.assertTrue(identitySignature.verify("auth0|1", signature));
+    }
+
+    /**
+     * Test for {@link IdentitySignature#verify(String, String)} with signatures that must not authenticate.
+     */
+    @Test
+    void testInvalidSignaturesAreRejected() {
+        // Given
+        String otherUser = identitySignature.sign("auth0|1", Instant.now().plusSeconds(60));
+        String expired = identitySignature.sign("auth0|1", Instant.now().minusSeconds(60));
+        String otherKey = new IdentitySignature("other-key").sign("auth0|1", Instant.now().plusSeconds(60));
+        String extended = Instant.now().plusSeconds(3600).getEpochSecond()
+                + otherUser.substring(otherUser.indexOf('.'));
+
+        // When / Then
+        Assertions.assertFalse(identitySignature.verify("auth0|2", otherUser));
+        Assertions.assertFalse(identitySignature.verify("auth0|1", expired));
+        Assertions.assertFalse(identitySignature.verify("auth0|1", otherKey));
+        Assertions.assertFalse(identitySignature.verify("auth0|1", extended));
+        Assertions.assertFalse(identitySignature.verify("auth0|1", "not-a-signature"));
+        Assertions.assertFalse(identitySignature.verify("auth0|1", "x.%%%"));
+        Assertions.assertFalse(identitySignature.verify("auth0|1", null));
+        Assertions.assertFalse(identitySignature.verify(null, otherUser));
+    }
+
+    private static String hmac(String userId, long expiresAtSeconds) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SIGNING_KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        mac.update((userId + "\n").getBytes(StandardCharsets.UTF_8));
+        byte[] signature = mac.doFinal(Long.toString(expiresAtSeconds).getBytes(StandardCharsets.US_ASCII));
+        return expiresAtSeconds + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+}
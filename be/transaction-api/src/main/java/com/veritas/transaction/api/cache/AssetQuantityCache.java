@@ -0,0 +1,124 @@
+package com.veritas.transaction.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.veritas.transaction.api.client.AssetManagementClient;
+import com.veritas.transaction.api.dto.AssetQuantityResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the current quantity of every asset code, in minor units, so that availability checks of any amount are
+ * answered locally.
+ * <p>
+ * A miss fetches the quantity from the Asset Management API. The quantity change events published by the Asset
+ * Management API replace the cached quantities as they change, and entries expire after a while in case an event
+ * is lost. Unknown asset codes are cached too, so the number of entries is bounded, evicting the least used ones
+ * beyond it. The gets are counted as {@code cache.gets} with {@code cache=asset-quantity} and {@code result=hit} or
+ * {@code result=miss}, like the Spring caches.
+ */
+@Component
+public class AssetQuantityCache {
+
+    /**
+     * The name of the cache in the metrics.
+     */
+    public static final String CACHE_NAME = "asset-quantity";
+
+    private final AssetManagementClient assetManagementClient;
+
+    private final ConcurrentMap<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public AssetQuantityCache(AssetManagementClient assetManagementClient,
+                              @Value("${transaction.asset-quantity-cache.time-to-live:PT60S}") Duration timeToLive,
+                              @Value("${transaction.asset-quantity-cache.maximum-size:10000}") long maximumSize,
+                              MeterRegistry meterRegistry) {
+        this.assetManagementClient = assetManagementClient;
+        Cache<String, Entry> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+        this.entries = cache.asMap();
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tells whether an asset holds at least an amount.
+     *
+     * @param assetCode The asset code.
+     * @param amount The amount in minor units.
+     * @return Whether the asset is known and holds at least the amount.
+     */
+    public boolean isAvailable(String assetCode, long amount) {
+        Long quantity = getQuantity(assetCode);
+        return quantity != null && quantity >= amount;
+    }
+
+    /**
+     * Reads the quantity of an asset, from the cache if it holds a live entry.
+     *
+     * @param assetCode The asset code.
+     * @return The quantity in minor units, null if the asset is unknown.
+     */
+    public Long getQuantity(String assetCode) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(assetCode);
+        if (entry != null) {
+            hits.increment();
+            return entry.quantity();
+        }
+        misses.increment();
+        Long quantity = assetManagementClient.getAssetQuantities(List.of(assetCode)).stream()
+                .filter(response -> assetCode.equals(response.getAssetCode()))
+                .map(AssetQuantityResponse::getQuantity)
+                .findFirst()
+                .orElse(null);
+        // An event received while fetching is newer than the fetched quantity
+        Entry fetched = entries.compute(assetCode, (code, current) ->
+                current != null && current.updatedAt() - now > 0 ? current : new Entry(quantity, System.nanoTime()));
+        return fetched.quantity();
+    }
+
+    /**
+     * Replaces cached quantities with the ones of a quantity change event.
+     *
+     * @param quantities The changed quantities.
+     */
+    public void apply(List<AssetQuantityResponse> quantities) {
+        long now = System.nanoTime();
+        quantities.forEach(quantity -> entries.put(quantity.getAssetCode(), new Entry(quantity.getQuantity(), now)));
+    }
+
+    /**
+     * Computes the share of the gets answered from the cache since startup.
+     *
+     * @return The hit ratio, 0 before the first get.
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * A cached quantity, with the {@link System#nanoTime()} of its update.
+     */
+    private record Entry(Long quantity, long updatedAt) {
+    }
+}
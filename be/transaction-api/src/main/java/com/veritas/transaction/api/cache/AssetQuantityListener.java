@@ -0,0 +1,42 @@
+package com.veritas.transaction.api.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veritas.transaction.api.dto.AssetQuantityResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Applies the quantity change events published by the Asset Management API to the {@link AssetQuantityCache}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class AssetQuantityListener implements MessageListener {
+
+    private static final TypeReference<List<AssetQuantityResponse>> EVENT_TYPE = new TypeReference<>() {
+    };
+
+    private final AssetQuantityCache assetQuantityCache;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Replaces the cached quantities with the published ones.
+     *
+     * @param message The received message.
+     * @param pattern The matched channel pattern.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            assetQuantityCache.apply(objectMapper.readValue(message.getBody(), EVENT_TYPE));
+        } catch (IOException e) {
+            log.warn("Ignoring malformed asset quantity event", e);
+        }
+    }
+}
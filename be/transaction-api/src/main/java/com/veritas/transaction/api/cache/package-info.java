@@ -0,0 +1,4 @@
+/**
+ * In-process caches of data owned by other services, kept fresh by the events those services publish.
+ */
+package com.veritas.transaction.api.cache;
@@ -1,6 +1,8 @@
 package com.veritas.transaction.api.client;
 
 import com.veritas.transaction.api.dto.AccountResponse;
+import com.veritas.transaction.api.dto.MovementRequest;
+import com.veritas.transaction.api.dto.MovementResult;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -24,6 +26,15 @@ public interface AccountClient {
     @GetMapping("/api/account")
     List<AccountResponse> getAllAccountsForUser();
 
+    /**
+     * Applies a batch of signed balance movements in one call.
+     *
+     * @param movements The movements, positive amounts credit and negative amounts debit.
+     * @return The outcome of every movement, in request order.
+     */
+    @PostMapping("/api/account/movements")
+    List<MovementResult> applyMovements(@RequestBody List<MovementRequest> movements);
+
     class DebitCreditRequest {
         public BigDecimal amount;
         public DebitCreditRequest() {}
@@ -1,10 +1,16 @@
 package com.veritas.transaction.api.client;
 
+import com.veritas.transaction.api.dto.AssetAvailabilityRequest;
+import com.veritas.transaction.api.dto.AssetAvailabilityResponse;
 import com.veritas.transaction.api.dto.AssetManagementResponse;
+import com.veritas.transaction.api.dto.AssetQuantityResponse;
+import com.veritas.transaction.api.dto.AssetReservationResponse;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
@@ -21,18 +27,62 @@ public interface AssetManagementClient {
    * Retrieves asset availability information from the Asset Management API.
    * 
    * @param assetCode The list of asset codes to check availability for.
-   * @param amount The list of amounts to check for each asset code.
+   * @param amount The list of amounts in minor units to check for each asset code.
    * @return A list of AssetManagementResponse objects containing asset
    *         availability information.
    */
   @GetMapping("/api/asset-management")
-  List<AssetManagementResponse> checkAssetAvailability(@RequestParam List<String> assetCode, @RequestParam List<Integer> amount);
+  List<AssetManagementResponse> checkAssetAvailability(@RequestParam List<String> assetCode, @RequestParam List<Long> amount);
+
+  /**
+   * Checks the availability of a whole basket of assets in one call.
+   * @param basket The items, each an asset code and an amount in minor units, at most 1000.
+   * @return The availability of each item in the order of the basket, including unknown assets.
+   */
+  @PostMapping("/api/asset-management/availability")
+  List<AssetAvailabilityResponse> checkBasketAvailability(@RequestBody List<AssetAvailabilityRequest> basket);
+
+  /**
+   * Retrieves the current quantities of assets from the Asset Management API.
+   * @param assetCode The list of asset codes.
+   * @return The quantity of each asset code in minor units, null for unknown assets.
+   */
+  @GetMapping("/api/asset-management/quantities")
+  List<AssetQuantityResponse> getAssetQuantities(@RequestParam("assetCode") List<String> assetCode);
 
   /**
    * Updates the amount of an asset by asset code.
    * @param assetCode The asset code to update.
-   * @param amount The amount to add (can be negative for deduction).
+   * @param amount The amount to add in minor units (can be negative for deduction).
    */
   @PostMapping("/api/asset-management/update-amount")
-  void updateAssetAmount(@RequestParam("assetCode") String assetCode, @RequestParam("amount") int amount);
+  void updateAssetAmount(@RequestParam("assetCode") String assetCode, @RequestParam("amount") long amount);
+
+  /**
+   * Holds a quantity of an asset in one atomic call, until it is committed or released.
+   * @param reservationId The reservation id, reserving it again has no further effect.
+   * @param assetCode The asset code.
+   * @param amount The quantity to hold, in minor units.
+   * @return The reservation, with status REJECTED if the asset does not hold the quantity.
+   */
+  @PostMapping("/api/asset-management/reservations")
+  AssetReservationResponse reserveAsset(@RequestParam("reservationId") String reservationId,
+                                        @RequestParam("assetCode") String assetCode,
+                                        @RequestParam("amount") long amount);
+
+  /**
+   * Commits a held reservation.
+   * @param reservationId The reservation id.
+   * @return The committed reservation.
+   */
+  @PostMapping("/api/asset-management/reservations/{reservationId}/commit")
+  AssetReservationResponse commitReservation(@PathVariable("reservationId") String reservationId);
+
+  /**
+   * Releases a held reservation.
+   * @param reservationId The reservation id.
+   * @return The released reservation.
+   */
+  @PostMapping("/api/asset-management/reservations/{reservationId}/release")
+  AssetReservationResponse releaseReservation(@PathVariable("reservationId") String reservationId);
 }
@@ -0,0 +1,41 @@
+package com.veritas.transaction.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veritas.transaction.api.cache.AssetQuantityCache;
+import com.veritas.transaction.api.cache.AssetQuantityListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Configuration class subscribing the {@link AssetQuantityCache} to the quantity change events of the Asset
+ * Management API.
+ */
+@Configuration
+public class AssetQuantityCacheConfig {
+
+    /**
+     * Creates the listener container applying the quantity change events.
+     *
+     * @param connectionFactory The Redis connection factory.
+     * @param assetQuantityCache The asset quantity cache.
+     * @param objectMapper The object mapper.
+     * @param channel The Redis channel of the events, set in the configuration shared with the publisher.
+     * @return The listener container.
+     */
+    @Bean
+    public RedisMessageListenerContainer assetQuantityListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        AssetQuantityCache assetQuantityCache,
+                                                                        ObjectMapper objectMapper,
+                                                                        @Value("${asset.quantity-events.channel}")
+                                                                        String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(new AssetQuantityListener(assetQuantityCache, objectMapper),
+                new ChannelTopic(channel));
+        return container;
+    }
+}
@@ -0,0 +1,65 @@
+package com.veritas.transaction.api.config;
+
+import feign.Capability;
+import feign.Client;
+import feign.RetryableException;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Feign {@link Capability} that bounds the number of concurrent calls to downstream services.
+ * <p>
+ * The transaction and remote call pools can have hundreds of calls in flight, more than the account and asset
+ * services can absorb at once. Calls beyond the limit wait for a permit and fail with a {@link RetryableException}
+ * if none becomes available within the acquire timeout.
+ */
+public class ConcurrencyLimitingCapability implements Capability {
+
+    private final Semaphore permits;
+
+    private final Duration acquireTimeout;
+
+    /**
+     * Creates a limiter.
+     *
+     * @param maxConcurrentCalls The maximum number of concurrent downstream calls.
+     * @param acquireTimeout The maximum time a call waits for a permit.
+     */
+    public ConcurrencyLimitingCapability(int maxConcurrentCalls, Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            try {
+                if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new RetryableException(-1, "Too many concurrent downstream calls",
+                            request.httpMethod(), (Date) null, request);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RetryableException(-1, "Interrupted while waiting for a downstream call permit",
+                        request.httpMethod(), e, (Date) null, request);
+            }
+            try {
+                return client.execute(request, options);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * Returns the number of downstream calls that can start without waiting.
+     *
+     * @return The number of available permits.
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+}
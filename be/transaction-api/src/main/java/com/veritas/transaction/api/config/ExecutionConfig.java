@@ -0,0 +1,65 @@
+package com.veritas.transaction.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration class for the threads that run the blocking Feign and JPA calls of the transactions.
+ * <p>
+ * Transactions and remote reads run on bounded pools of threads, each with a bounded queue: a transaction that
+ * finds the queue full is rejected, and a remote read or compensation that finds it full runs on the calling thread
+ * instead.
+ */
+@Configuration
+public class ExecutionConfig {
+
+    @Value("${transaction.execution.pool-size:200}")
+    private int poolSize;
+
+    @Value("${transaction.execution.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${transaction.remote-calls.pool-size:64}")
+    private int remoteCallPoolSize;
+
+    @Value("${transaction.remote-calls.queue-capacity:1000}")
+    private int remoteCallQueueCapacity;
+
+    /**
+     * Creates the executor on which transactions are processed after the request has been accepted.
+     *
+     * @return The transaction executor.
+     */
+    @Bean
+    public ExecutorService transactionExecutor() {
+        return boundedPool(poolSize, queueCapacity, "transaction-", new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Creates the executor on which the remote reads of a transaction are fanned out.
+     * <p>
+     * The calls block on I/O for most of their lifetime, so the pool is sized well above the number of cores.
+     * When its queue is full the caller runs the call itself, which slows the fan-out down instead of failing it.
+     *
+     * @return The remote call executor.
+     */
+    @Bean
+    public ExecutorService remoteCallExecutor() {
+        return boundedPool(remoteCallPoolSize, remoteCallQueueCapacity, "remote-call-",
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static ExecutorService boundedPool(int size, int queueCapacity, String threadNamePrefix,
+                                               RejectedExecutionHandler rejectionHandler) {
+        return new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory(threadNamePrefix), rejectionHandler);
+    }
+}
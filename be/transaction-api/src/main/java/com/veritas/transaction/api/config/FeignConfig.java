@@ -1,28 +1,55 @@
 package com.veritas.transaction.api.config;
 
+import com.veritas.identity.IdentitySignature;
 import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
 
 /**
- * Configuration class for Feign client to propagate JWT tokens.
+ * Configuration class for Feign client to propagate the caller's identity.
+ * <p>
+ * The signed identity headers added by the API gateway are forwarded, which are the only identity the downstream
+ * services accept.
  */
 @Configuration
 public class FeignConfig {
 
+    @Value("${transaction.downstream.max-concurrent-calls:256}")
+    private int maxConcurrentCalls;
+
+    @Value("${transaction.downstream.acquire-timeout:2s}")
+    private Duration acquireTimeout;
+
+    /**
+     * Bounds the number of concurrent Feign calls to the downstream services.
+     * <p>
+     * This class is a component-scanned {@code @Configuration}, so one instance is shared by all Feign clients and
+     * the limit applies to the calls to all downstream services together.
+     *
+     * @return The concurrency limiting capability.
+     */
+    @Bean
+    public ConcurrencyLimitingCapability concurrencyLimitingCapability() {
+        return new ConcurrencyLimitingCapability(maxConcurrentCalls, acquireTimeout);
+    }
+
     @Bean
     public RequestInterceptor requestInterceptor() {
         return requestTemplate -> {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
             if (attributes != null) {
                 HttpServletRequest request = attributes.getRequest();
-                String authorization = request.getHeader("Authorization");
-                if (authorization != null) {
-                    requestTemplate.header("Authorization", authorization);
+                String userId = request.getHeader(IdentitySignature.USER_ID_HEADER);
+                String signature = request.getHeader(IdentitySignature.SIGNATURE_HEADER);
+                if (userId != null && signature != null) {
+                    requestTemplate.header(IdentitySignature.USER_ID_HEADER, userId);
+                    requestTemplate.header(IdentitySignature.SIGNATURE_HEADER, signature);
                 }
             }
         };
@@ -1,20 +1,34 @@
 package com.veritas.transaction.api.controller;
 
+import com.veritas.transaction.api.dto.BalanceResponse;
+import com.veritas.transaction.api.dto.ExportFormat;
+import com.veritas.transaction.api.dto.TransactionPage;
 import com.veritas.transaction.api.dto.TransactionRequest;
+import com.veritas.transaction.api.service.BalanceSnapshotService;
+import com.veritas.transaction.api.service.IdempotencyKeyReusedException;
+import com.veritas.transaction.api.service.IdempotencyService;
+import com.veritas.transaction.api.service.TransactionExportService;
 import com.veritas.transaction.api.service.TransactionService;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import jakarta.servlet.http.HttpServletRequest;
-import com.veritas.transaction.api.model.Transaction;
-import com.veritas.transaction.api.util.JwtUtil;
+import com.veritas.transaction.api.util.UserIdResolver;
 
 /**
  * Controller class that handles HTTP requests related to transactions.
@@ -25,45 +39,168 @@ import com.veritas.transaction.api.util.JwtUtil;
 @Slf4j
 public class TransactionController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final TransactionService transactionService;
 
+    private final UserIdResolver userIdResolver;
+
+    private final IdempotencyService idempotencyService;
+
+    private final TransactionExportService transactionExportService;
+
+    private final BalanceSnapshotService balanceSnapshotService;
+
+    private final Executor transactionExecutor;
+
     /**
      *
      * Processes a transaction asynchronously.
+     * <p>
+     * Requests carrying an {@code Idempotency-Key} header are processed at most once per key; retries with the
+     * same key receive the result of the first execution, and a different request with the same key is answered with
+     * 422.
+     * <p>
+     * The transaction is made by the user of the signed identity headers; a body naming another user is rejected.
      * @param transactionRequest The transaction request object received in the request body (expects assetCode and amount).
      * @return A CompletableFuture representing the result of the transaction processing.
+     * @throws ResponseStatusException 401 without a verified user, 403 if the body names another user.
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public CompletableFuture<String> processTransaction(@RequestBody TransactionRequest transactionRequest, HttpServletRequest request) {
         log.info("Transaction processed.");
-        String userId = transactionRequest.getUserId();
+        String userId = userIdResolver.resolveUserId(request);
         if (userId == null || userId.isEmpty()) {
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-                userId = JwtUtil.extractUserId(token);
-            }
-            transactionRequest.setUserId(userId);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        String requestedUserId = transactionRequest.getUserId();
+        if (requestedUserId != null && !requestedUserId.isEmpty() && !requestedUserId.equals(userId)) {
+            log.warn("Transaction request names another user than the authenticated one");
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+        transactionRequest.setUserId(userId);
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            return idempotencyService.execute(transactionRequest.getUserId(), idempotencyKey,
+                    transactionRequest.toString(), () -> transactionService.processTransaction(transactionRequest),
+                    transactionExecutor);
         }
-        return CompletableFuture.supplyAsync(() -> transactionService.processTransaction(transactionRequest));
+        return CompletableFuture.supplyAsync(() -> transactionService.processTransaction(transactionRequest),
+                transactionExecutor);
     }
 
+    /**
+     * Returns a page of the authenticated user's transaction history, newest first.
+     *
+     * @param cursor The cursor returned with the previous page; omitted for the first page.
+     * @param limit The maximum number of transactions to return, capped at 200.
+     * @return The page and the cursor of the next one, which is null on the last page.
+     */
     @GetMapping
-    public List<Transaction> getUserTransactions(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        String userId = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            userId = JwtUtil.extractUserId(token);
-        }
+    public TransactionPage getUserTransactions(@RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "50") int limit,
+                                               HttpServletRequest request) {
+        String userId = userIdResolver.resolveUserId(request);
         
         if (userId == null || userId.isEmpty()) {
             log.warn("User ID not found in request");
-            return List.of(); // Return empty list if user is not authenticated
+            return new TransactionPage(List.of(), null); // Return an empty page if user is not authenticated
         }
         
-        return transactionService.getTransactionsForUser(userId);
+        return transactionService.getTransactionsForUser(userId, cursor, limit);
+    }
+
+    /**
+     * Exports the authenticated user's whole transaction history, newest first, as CSV or newline-delimited JSON.
+     * <p>
+     * Transactions are written to the response as they are read from the database cursor, so the export runs in
+     * constant memory. When the maximum number of exports is already running, the export is refused with 429.
+     *
+     * @param format The format of the export, csv or ndjson.
+     * @return A ResponseEntity streaming one line per transaction.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUserTransactions(
+            @RequestParam(defaultValue = "csv") String format, HttpServletRequest request) {
+        String userId = userIdResolver.resolveUserId(request);
+        if (userId == null || userId.isEmpty()) {
+            log.warn("User ID not found in request");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> accountIds = transactionExportService.getAccountIdsOfCaller();
+        if (!transactionExportService.tryAcquireExportSlot()) {
+            log.warn("Export refused, the maximum number of exports is running");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "60").build();
+        }
+        StreamingResponseBody body = outputStream -> {
+            try {
+                transactionExportService.exportTransactionsForUser(userId, accountIds, exportFormat, outputStream);
+            } finally {
+                transactionExportService.releaseExportSlot();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Returns the balance of one of the authenticated user's accounts at a point in time.
+     *
+     * @param accountId The account.
+     * @param at The point in time, as an ISO date-time; now if omitted.
+     * @return The balance from the transactions recorded up to and including the point in time.
+     */
+    @GetMapping("/balance")
+    public ResponseEntity<BalanceResponse> getBalanceAt(
+            @RequestParam String accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            HttpServletRequest request) {
+        String userId = userIdResolver.resolveUserId(request);
+        if (userId == null || userId.isEmpty()) {
+            log.warn("User ID not found in request");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(balanceSnapshotService.getBalanceAt(userId, accountId,
+                    at == null ? LocalDateTime.now() : at));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    /**
+     * Answers 422 when an idempotency key is reused for a different request.
+     *
+     * @param e The rejection.
+     * @return The error message.
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public String handleIdempotencyKeyReused(IdempotencyKeyReusedException e) {
+        return e.getMessage();
+    }
+
+    /**
+     * Answers 503 when the transaction executor is saturated, so that clients back off and retry.
+     *
+     * @param e The rejection.
+     * @return The error message.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleRejectedExecution(RejectedExecutionException e) {
+        log.warn("Transaction rejected, the transaction executor is saturated");
+        return "Too many transactions in progress, please try again later";
     }
 
     /**
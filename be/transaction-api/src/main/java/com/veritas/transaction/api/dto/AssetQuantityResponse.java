@@ -0,0 +1,19 @@
+package com.veritas.transaction.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) class that represents the current quantity of an asset, as returned by the Asset
+ * Management API and published in its quantity change events.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AssetQuantityResponse {
+    private String assetCode;
+    private Long quantity; // in minor units, null if the asset is unknown
+}
@@ -0,0 +1,23 @@
+package com.veritas.transaction.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object (DTO) class that represents the state of an asset reservation.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AssetReservationResponse {
+    private String reservationId;
+    private String assetCode;
+    private long amount; // in minor units
+    private ReservationStatus status;
+    private Instant expiresAt;
+}
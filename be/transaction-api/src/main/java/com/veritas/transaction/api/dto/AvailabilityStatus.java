@@ -0,0 +1,10 @@
+package com.veritas.transaction.api.dto;
+
+/**
+ * Outcome of the availability check of one item of a basket.
+ */
+public enum AvailabilityStatus {
+    AVAILABLE,
+    INSUFFICIENT, // the asset holds less than the basket asks for
+    UNKNOWN_ASSET
+}
@@ -0,0 +1,22 @@
+package com.veritas.transaction.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) class that represents the balance of an account at a point in time.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceResponse {
+    private String accountId;
+    private LocalDateTime at;
+    private BigDecimal balance; // from the transactions recorded up to and including the time
+}
@@ -0,0 +1,43 @@
+package com.veritas.transaction.api.dto;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * The formats a transaction history can be exported in.
+ */
+public enum ExportFormat {
+    CSV(new MediaType("text", "csv")),
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the format with the given name, ignoring case.
+     *
+     * @param name The name of the format, csv or ndjson.
+     * @return The format.
+     * @throws IllegalArgumentException if there is no format with the name.
+     */
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + name);
+    }
+}
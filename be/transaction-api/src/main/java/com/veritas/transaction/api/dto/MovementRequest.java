@@ -0,0 +1,22 @@
+package com.veritas.transaction.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object (DTO) class that represents a single balance movement of a batch.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovementRequest {
+    private String movementId; // generated if absent, applied at most once per account
+    private String accountId;
+    private BigDecimal amount; // positive credits, negative debits
+    private String group; // credits of a group are only applied if all its debits were
+}
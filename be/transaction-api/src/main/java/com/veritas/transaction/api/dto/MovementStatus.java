@@ -0,0 +1,11 @@
+package com.veritas.transaction.api.dto;
+
+/**
+ * Outcome of a single balance movement.
+ */
+public enum MovementStatus {
+    APPLIED,
+    INSUFFICIENT_FUNDS,
+    ACCOUNT_NOT_FOUND,
+    SKIPPED // a debit of the same group was not applied
+}
@@ -0,0 +1,11 @@
+package com.veritas.transaction.api.dto;
+
+/**
+ * Lifecycle of an asset reservation.
+ */
+public enum ReservationStatus {
+    HELD,
+    COMMITTED,
+    RELEASED,
+    REJECTED // the asset did not have the quantity
+}
@@ -0,0 +1,21 @@
+package com.veritas.transaction.api.dto;
+
+import com.veritas.transaction.api.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) class that represents a page of a user's transaction history, newest first.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionPage {
+    private List<Transaction> items;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,40 @@
+package com.veritas.transaction.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Represents the balance of an account at the end of a day, from the transactions recorded up to then.
+ */
+@Entity
+@Table(name = "t_balance_snapshot") // created by db/migration
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshot {
+    @EmbeddedId
+    private Key key;
+    private BigDecimal balance;
+
+    /**
+     * The account and the day of a snapshot.
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String accountId;
+        private LocalDate snapshotDate;
+    }
+}
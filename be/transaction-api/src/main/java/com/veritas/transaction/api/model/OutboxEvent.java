@@ -0,0 +1,38 @@
+package com.veritas.transaction.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import jakarta.persistence.*;
+
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Represents an event waiting in the transactional outbox to be published to Kafka.
+ * <p>
+ * Outbox events are written in the same database transaction as the change they announce and are
+ * removed once the relay has handed them to the broker.
+ */
+@Entity
+@Table(name = "t_outbox_event")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String topic;
+    private String eventKey;
+
+    @Column(columnDefinition = "text", nullable = false)
+    private String payload; // JSON of the event
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
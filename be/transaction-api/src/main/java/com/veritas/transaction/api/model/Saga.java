@@ -0,0 +1,45 @@
+package com.veritas.transaction.api.model;
+
+import com.veritas.transaction.api.saga.SagaStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import jakarta.persistence.*;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Represents the persisted progress of a saga.
+ */
+@Entity
+@Table(name = "t_saga", indexes = @Index(name = "idx_saga_status_updated_at", columnList = "status, updated_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Saga {
+    @Id
+    private String sagaId;
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    private SagaStatus status;
+    private int completedSteps; // steps executed and not yet compensated
+
+    @Column(columnDefinition = "text", nullable = false)
+    private String payload; // JSON of the saga data
+
+    private String owner; // the instance that last claimed the saga for recovery
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -8,21 +8,21 @@ import lombok.Setter;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
-import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 /**
  * Represents a transaction.
  */
 @Entity
-@Table(name = "t_transaction")
+@Table(name = "t_transaction") // partitioned by month of transaction_time, see db/migration
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "t_transaction_seq", allocationSize = 50)
     private Long id;
     private String transactionId;
     private String userId; // Auth0 user ID
@@ -31,7 +31,13 @@ public class Transaction {
     private String type; // deposit, withdrawal, transfer
     private BigDecimal amount;
 
-    @CreationTimestamp
-    @Column(name = "transaction_time", updatable = false)
-    private LocalDateTime transactionTime;
+    @Column(name = "transaction_time", nullable = false, updatable = false)
+    private LocalDateTime transactionTime; // set by the caller when importing history, otherwise now
+
+    @PrePersist
+    void defaultTransactionTime() {
+        if (transactionTime == null) {
+            transactionTime = LocalDateTime.now();
+        }
+    }
 }
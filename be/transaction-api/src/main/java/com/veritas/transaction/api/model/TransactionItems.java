@@ -18,7 +18,8 @@ import jakarta.persistence.*;
 @NoArgsConstructor
 public class TransactionItems {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_items_seq")
+    @SequenceGenerator(name = "transaction_items_seq", sequenceName = "t_transaction_items_seq", allocationSize = 50)
     private Long id;
     private String assetCode;
     private String assetName;
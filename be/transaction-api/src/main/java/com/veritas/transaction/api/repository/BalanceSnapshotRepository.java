@@ -0,0 +1,64 @@
+package com.veritas.transaction.api.repository;
+
+import com.veritas.transaction.api.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Repository interface for storing the daily balance snapshots of accounts.
+ */
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, BalanceSnapshot.Key> {
+
+    /**
+     * Adds a balance change to the snapshot of a day, creating the snapshot from the one before if needed.
+     *
+     * @param accountId The account whose balance changed.
+     * @param snapshotDate The day of the change.
+     * @param change The amount the balance changed by.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO t_balance_snapshot (account_id, snapshot_date, balance)
+            VALUES (:accountId, :snapshotDate, :change + coalesce(
+                (SELECT s.balance FROM t_balance_snapshot s
+                 WHERE s.account_id = :accountId AND s.snapshot_date < :snapshotDate
+                 ORDER BY s.snapshot_date DESC LIMIT 1), 0))
+            ON CONFLICT (account_id, snapshot_date) DO UPDATE SET balance = t_balance_snapshot.balance + :change
+            """, nativeQuery = true)
+    void addToSnapshot(@Param("accountId") String accountId, @Param("snapshotDate") LocalDate snapshotDate,
+                       @Param("change") BigDecimal change);
+
+    /**
+     * Adds a balance change to the snapshots of the days after it, which exist when a past transaction is imported.
+     *
+     * @param accountId The account whose balance changed.
+     * @param snapshotDate The day of the change.
+     * @param change The amount the balance changed by.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE t_balance_snapshot SET balance = balance + :change
+            WHERE account_id = :accountId AND snapshot_date > :snapshotDate
+            """, nativeQuery = true)
+    void addToLaterSnapshots(@Param("accountId") String accountId, @Param("snapshotDate") LocalDate snapshotDate,
+                             @Param("change") BigDecimal change);
+
+    /**
+     * Finds the balance at the end of the last day with a snapshot before the given day.
+     *
+     * @param accountId The account.
+     * @param day The day.
+     * @return The balance, or null if the account has no snapshot before the day.
+     */
+    @Query(value = """
+            SELECT s.balance FROM t_balance_snapshot s
+            WHERE s.account_id = :accountId AND s.snapshot_date < :day
+            ORDER BY s.snapshot_date DESC LIMIT 1
+            """, nativeQuery = true)
+    BigDecimal findBalanceBefore(@Param("accountId") String accountId, @Param("day") LocalDate day);
+}
@@ -0,0 +1,25 @@
+package com.veritas.transaction.api.repository;
+
+import com.veritas.transaction.api.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository interface for the events of the transactional outbox.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest pending events for publishing.
+     * <p>
+     * Rows locked by another relay instance are skipped, so concurrent relays drain disjoint batches.
+     *
+     * @param limit The maximum number of events to lock.
+     * @return The locked events, oldest first.
+     */
+    @Query(value = "SELECT * FROM t_outbox_event ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+}
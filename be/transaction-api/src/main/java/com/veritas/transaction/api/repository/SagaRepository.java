@@ -0,0 +1,42 @@
+package com.veritas.transaction.api.repository;
+
+import com.veritas.transaction.api.model.Saga;
+import com.veritas.transaction.api.saga.SagaStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for the persisted progress of sagas.
+ */
+public interface SagaRepository extends JpaRepository<Saga, String> {
+    List<Saga> findByStatusInAndUpdatedAtBefore(Collection<SagaStatus> statuses, LocalDateTime updatedBefore,
+                                                Pageable pageable);
+
+    /**
+     * Claims a saga for recovery, if it still has the expected status and has not been updated since it went stale.
+     * <p>
+     * Claiming touches the update time, so the saga is not stale for other instances until the claim goes stale too.
+     *
+     * @param sagaId The saga id.
+     * @param status The expected status.
+     * @param staleBefore The time before which the saga must have been updated last.
+     * @param owner The instance claiming the saga.
+     * @param claimedAt The time of the claim.
+     * @return 1 if the saga was claimed, 0 if another instance claimed or advanced it first.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Saga s SET s.owner = :owner, s.updatedAt = :claimedAt"
+            + " WHERE s.sagaId = :sagaId AND s.status = :status AND s.updatedAt < :staleBefore")
+    int claim(@Param("sagaId") String sagaId, @Param("status") SagaStatus status,
+              @Param("staleBefore") LocalDateTime staleBefore, @Param("owner") String owner,
+              @Param("claimedAt") LocalDateTime claimedAt);
+}
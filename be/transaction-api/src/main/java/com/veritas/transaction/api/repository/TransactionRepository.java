@@ -1,16 +1,113 @@
 package com.veritas.transaction.api.repository;
 
 import com.veritas.transaction.api.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for storing assets in the database.
  * It provides CRUD operations and other database-related functionality.
  */
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByUserId(String userId);
-    List<Transaction> findBySourceAccountIdIn(List<String> accountIds);
-    List<Transaction> findByDestinationAccountIdIn(List<String> accountIds);
+
+    /**
+     * Finds the transactions made by a user or involving one of the given accounts, newest first, that come
+     * after the given position in that order.
+     * <p>
+     * Every branch of the union walks one of the composite indexes from the position on and stops after
+     * {@code limit} rows, so a page costs the same no matter how long the history is. The plain bound on the
+     * transaction time, implied by the row comparison, lets Postgres skip the monthly partitions after the cursor.
+     *
+     * @param userId The user who made the transactions.
+     * @param accountIds The accounts of the user; must not be empty.
+     * @param beforeTime The transaction time of the last row of the previous page.
+     * @param beforeId The id of the last row of the previous page.
+     * @param limit The maximum number of transactions to return.
+     * @return The transactions, ordered by transaction time and id, descending.
+     */
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT t.* FROM t_transaction t
+                 WHERE t.user_id = :userId
+                   AND t.transaction_time <= :beforeTime
+                   AND (t.transaction_time, t.id) < (:beforeTime, :beforeId)
+                 ORDER BY t.transaction_time DESC, t.id DESC LIMIT :limit)
+                UNION
+                (SELECT t.* FROM t_transaction t
+                 WHERE t.source_account_id IN (:accountIds)
+                   AND t.transaction_time <= :beforeTime
+                   AND (t.transaction_time, t.id) < (:beforeTime, :beforeId)
+                 ORDER BY t.transaction_time DESC, t.id DESC LIMIT :limit)
+                UNION
+                (SELECT t.* FROM t_transaction t
+                 WHERE t.destination_account_id IN (:accountIds)
+                   AND t.transaction_time <= :beforeTime
+                   AND (t.transaction_time, t.id) < (:beforeTime, :beforeId)
+                 ORDER BY t.transaction_time DESC, t.id DESC LIMIT :limit)
+            ) history
+            ORDER BY history.transaction_time DESC, history.id DESC LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findHistoryPage(@Param("userId") String userId,
+                                      @Param("accountIds") Collection<String> accountIds,
+                                      @Param("beforeTime") LocalDateTime beforeTime,
+                                      @Param("beforeId") long beforeId,
+                                      @Param("limit") int limit);
+
+    /**
+     * Streams the transactions made by a user or involving one of the given accounts, newest first.
+     * <p>
+     * Must be called within a transaction: only then does the Postgres driver read the rows through a
+     * server-side cursor, a thousand at a time, instead of loading the whole result.
+     *
+     * @param userId The user who made the transactions.
+     * @param accountIds The accounts of the user; must not be empty.
+     * @return The transactions, ordered by transaction time and id, descending. The stream must be closed.
+     */
+    @Query(value = """
+            SELECT t.* FROM t_transaction t
+            WHERE t.user_id = :userId
+               OR t.source_account_id IN (:accountIds)
+               OR t.destination_account_id IN (:accountIds)
+            ORDER BY t.transaction_time DESC, t.id DESC
+            """, nativeQuery = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Transaction> streamHistory(@Param("userId") String userId,
+                                      @Param("accountIds") Collection<String> accountIds);
+
+    /**
+     * Sums up how much the transactions within a time range changed the balance of an account.
+     * <p>
+     * Deposits credit the destination account, withdrawals debit the source account and transfers do both.
+     *
+     * @param accountId The account.
+     * @param from The start of the range, inclusive.
+     * @param to The end of the range, inclusive.
+     * @return The balance change, zero if there were no transactions.
+     */
+    @Query(value = """
+            SELECT coalesce(sum(CASE
+                WHEN t.destination_account_id = :accountId AND lower(t.type) IN ('deposit', 'transfer') THEN t.amount
+                ELSE 0 END), 0)
+                - coalesce(sum(CASE
+                WHEN t.source_account_id = :accountId AND lower(t.type) IN ('withdrawal', 'transfer') THEN t.amount
+                ELSE 0 END), 0)
+            FROM t_transaction t
+            WHERE (t.source_account_id = :accountId OR t.destination_account_id = :accountId)
+              AND t.transaction_time >= :from AND t.transaction_time <= :to
+            """, nativeQuery = true)
+    BigDecimal sumBalanceChange(@Param("accountId") String accountId, @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,14 @@
+package com.veritas.transaction.api.saga;
+
+import java.util.List;
+
+/**
+ * The ordered steps of a type of saga.
+ *
+ * @param type The saga type, stored with every saga instance to find its definition on recovery.
+ * @param dataType The type of the saga data.
+ * @param steps The steps, executed in order and compensated in reverse order.
+ * @param <T> The type of the saga data.
+ */
+public record SagaDefinition<T>(String type, Class<T> dataType, List<SagaStep<T>> steps) {
+}
@@ -0,0 +1,206 @@
+package com.veritas.transaction.api.saga;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veritas.transaction.api.model.Saga;
+import com.veritas.transaction.api.repository.SagaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs sagas and compensates them when a step fails.
+ * <p>
+ * The steps of a saga run on the caller's thread outside of any database transaction, and the progress is
+ * committed after every step in a short transaction of its own, so no connection is held while a remote call is
+ * waited for. When a step fails, the steps executed so far are compensated in reverse order on the remote call
+ * executor and the failure is rethrown right away. The completion of a saga commits in one transaction together
+ * with the caller's own changes, so a saga is either completed and recorded, or left to recovery with all its
+ * steps counted.
+ * <p>
+ * Sagas that stop making progress, because the instance running them died or a compensation failed, are picked
+ * up by a periodic recovery run and compensated. Every instance runs the recovery, so a saga is first claimed with
+ * a conditional update and only the instance whose claim succeeds resumes it.
+ */
+@Slf4j
+@Service
+public class SagaEngine {
+
+    private static final int RECOVERY_BATCH_SIZE = 100;
+
+    private final SagaRepository sagaRepository;
+    private final ObjectMapper objectMapper;
+    private final Executor remoteCallExecutor;
+    private final TransactionTemplate newTransaction;
+    private final Map<String, SagaDefinition<?>> definitions;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${transaction.saga.stale-after:2m}")
+    private Duration staleAfter;
+
+    public SagaEngine(SagaRepository sagaRepository, ObjectMapper objectMapper, Executor remoteCallExecutor,
+                      PlatformTransactionManager transactionManager, List<SagaDefinition<?>> definitions) {
+        this.sagaRepository = sagaRepository;
+        this.objectMapper = objectMapper;
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.definitions = definitions.stream().collect(Collectors.toMap(SagaDefinition::type, Function.identity()));
+    }
+
+    /**
+     * Runs a saga.
+     *
+     * @param type The type of the saga.
+     * @param sagaId The unique id of the saga.
+     * @param data The saga data.
+     * @param onCompleted The caller's changes, written in the transaction that marks the saga completed.
+     * @param <T> The type of the saga data.
+     * @throws IllegalArgumentException if no saga of the type is defined.
+     * @throws RuntimeException the failure of the first step that failed, after its compensation was scheduled.
+     */
+    public <T> void run(String type, String sagaId, T data, Runnable onCompleted) {
+        SagaDefinition<T> definition = definition(type);
+        Saga saga = new Saga(sagaId, type, SagaStatus.STARTED, 0, writePayload(data), null, null, null);
+        saveInNewTransaction(saga);
+
+        List<SagaStep<T>> steps = definition.steps();
+        for (int i = 0; i < steps.size(); i++) {
+            try {
+                steps.get(i).execute(sagaId, data);
+            } catch (RuntimeException e) {
+                log.info("Step {} of saga {} failed, compensating {} executed steps", steps.get(i).name(), sagaId, i);
+                saga.setStatus(SagaStatus.COMPENSATING);
+                saveInNewTransaction(saga);
+                remoteCallExecutor.execute(() -> compensate(saga, definition, data));
+                throw e;
+            }
+            saga.setCompletedSteps(i + 1);
+            saveInNewTransaction(saga);
+        }
+        saga.setStatus(SagaStatus.COMPLETED);
+        newTransaction.executeWithoutResult(status -> {
+            sagaRepository.save(saga);
+            onCompleted.run();
+        });
+    }
+
+    /**
+     * Compensates the sagas that stopped making progress.
+     * <p>
+     * A saga interrupted during an idempotent step has the step executed again to learn whether it applied, and
+     * is then compensated, unless its last step applied and cannot be undone, in which case it is completed. A saga
+     * interrupted during a step that is not idempotent is marked as failed.
+     */
+    @Scheduled(fixedDelayString = "${transaction.saga.recovery-interval-ms:30000}")
+    public void recover() {
+        LocalDateTime staleBefore = LocalDateTime.now().minus(staleAfter);
+        for (Saga saga : sagaRepository.findByStatusInAndUpdatedAtBefore(
+                List.of(SagaStatus.STARTED, SagaStatus.COMPENSATING), staleBefore,
+                PageRequest.of(0, RECOVERY_BATCH_SIZE))) {
+            if (sagaRepository.claim(saga.getSagaId(), saga.getStatus(), staleBefore, instanceId,
+                    LocalDateTime.now()) == 1) {
+                saga.setOwner(instanceId);
+                recover(saga);
+            } else {
+                log.debug("Saga {} was claimed by another instance", saga.getSagaId());
+            }
+        }
+    }
+
+    private <T> void recover(Saga saga) {
+        SagaDefinition<T> definition = definition(saga.getType());
+        T data = readPayload(saga.getPayload(), definition.dataType());
+        if (saga.getStatus() == SagaStatus.STARTED) {
+            List<SagaStep<T>> steps = definition.steps();
+            if (saga.getCompletedSteps() < steps.size()) {
+                SagaStep<T> interruptedStep = steps.get(saga.getCompletedSteps());
+                if (!interruptedStep.isIdempotent()) {
+                    log.error("Saga {} was interrupted in step {} and needs manual reconciliation",
+                            saga.getSagaId(), interruptedStep.name());
+                    saga.setStatus(SagaStatus.FAILED);
+                    saveInNewTransaction(saga);
+                    return;
+                }
+                try {
+                    interruptedStep.execute(saga.getSagaId(), data);
+                    saga.setCompletedSteps(saga.getCompletedSteps() + 1);
+                } catch (RuntimeException e) {
+                    // the step did not apply, so there is nothing to compensate for it
+                }
+            }
+            if (saga.getCompletedSteps() == steps.size() && !steps.get(steps.size() - 1).isReversible()) {
+                log.warn("Saga {} applied its last step {}, which cannot be undone; completing it, the transaction "
+                        + "may need to be recorded manually", saga.getSagaId(), steps.get(steps.size() - 1).name());
+                saga.setStatus(SagaStatus.COMPLETED);
+                saveInNewTransaction(saga);
+                return;
+            }
+            log.info("Recovering saga {}, compensating {} executed steps", saga.getSagaId(), saga.getCompletedSteps());
+            saga.setStatus(SagaStatus.COMPENSATING);
+            saveInNewTransaction(saga);
+        }
+        compensate(saga, definition, data);
+    }
+
+    private <T> void compensate(Saga saga, SagaDefinition<T> definition, T data) {
+        List<SagaStep<T>> steps = definition.steps();
+        for (int i = saga.getCompletedSteps() - 1; i >= 0; i--) {
+            try {
+                steps.get(i).compensate(saga.getSagaId(), data);
+            } catch (RuntimeException e) {
+                log.warn("Compensation of step {} of saga {} failed, retrying on recovery",
+                        steps.get(i).name(), saga.getSagaId(), e);
+                return;
+            }
+            saga.setCompletedSteps(i);
+            saveInNewTransaction(saga);
+        }
+        saga.setStatus(SagaStatus.COMPENSATED);
+        saveInNewTransaction(saga);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> SagaDefinition<T> definition(String type) {
+        SagaDefinition<T> definition = (SagaDefinition<T>) definitions.get(type);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unknown saga type: " + type);
+        }
+        return definition;
+    }
+
+    private void saveInNewTransaction(Saga saga) {
+        newTransaction.executeWithoutResult(status -> sagaRepository.save(saga));
+    }
+
+    private String writePayload(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T readPayload(String payload, Class<T> dataType) {
+        try {
+            return objectMapper.readValue(payload, dataType);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.veritas.transaction.api.saga;
+
+/**
+ * The lifecycle states of a saga.
+ */
+public enum SagaStatus {
+    /**
+     * The steps are being executed.
+     */
+    STARTED,
+    /**
+     * All steps were executed.
+     */
+    COMPLETED,
+    /**
+     * A step failed and the executed steps are being compensated.
+     */
+    COMPENSATING,
+    /**
+     * All executed steps were compensated.
+     */
+    COMPENSATED,
+    /**
+     * The saga was interrupted in a step that cannot be resolved automatically and needs manual reconciliation.
+     */
+    FAILED
+}
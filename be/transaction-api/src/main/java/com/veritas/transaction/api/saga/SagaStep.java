@@ -0,0 +1,58 @@
+package com.veritas.transaction.api.saga;
+
+/**
+ * A step of a saga together with the action that undoes it.
+ * <p>
+ * A step either applies completely or throws and leaves nothing applied. Compensations may run more than once
+ * and on another thread or instance than the step itself, so they have to be idempotent.
+ *
+ * @param <T> The type of the saga data.
+ */
+public interface SagaStep<T> {
+
+    /**
+     * Returns the name of the step, used in logs.
+     *
+     * @return The step name.
+     */
+    String name();
+
+    /**
+     * Executes the step.
+     *
+     * @param sagaId The id of the saga, from which idempotency keys of remote calls are derived.
+     * @param data The saga data.
+     */
+    void execute(String sagaId, T data);
+
+    /**
+     * Undoes an executed step.
+     *
+     * @param sagaId The id of the saga.
+     * @param data The saga data.
+     */
+    void compensate(String sagaId, T data);
+
+    /**
+     * Tells whether executing the step again has no further effect.
+     * <p>
+     * When a saga is interrupted during an idempotent step, recovery executes the step again to learn whether it
+     * applied, and then compensates it. An interrupted step that is not idempotent leaves the saga failed.
+     *
+     * @return True if the step is idempotent.
+     */
+    default boolean isIdempotent() {
+        return false;
+    }
+
+    /**
+     * Tells whether the step can be undone once it applied.
+     * <p>
+     * A saga whose last step cannot be undone and applied is completed by recovery instead of compensated.
+     *
+     * @return True if the compensation undoes the step.
+     */
+    default boolean isReversible() {
+        return true;
+    }
+}
@@ -0,0 +1,274 @@
+package com.veritas.transaction.api.saga;
+
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.client.AssetManagementClient;
+import com.veritas.transaction.api.dto.MovementRequest;
+import com.veritas.transaction.api.dto.MovementResult;
+import com.veritas.transaction.api.dto.MovementStatus;
+import com.veritas.transaction.api.dto.ReservationStatus;
+import com.veritas.transaction.api.dto.TransactionRequest;
+import com.veritas.transaction.api.util.AssetQuantities;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Defines the sagas of deposits, withdrawals and transfers.
+ * <p>
+ * Balance changes are sent as movements and asset quantities are taken out through reservations, both with ids
+ * derived from the saga id. The Account API applies a movement and the Asset Management API a reservation at most
+ * once per id, so these steps and their compensations can safely be retried.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class TransactionSagas {
+
+    public static final String DEPOSIT = "deposit";
+
+    public static final String WITHDRAWAL = "withdrawal";
+
+    public static final String TRANSFER = "transfer";
+
+    private final AccountClient accountClient;
+
+    private final AssetManagementClient assetManagementClient;
+
+    /**
+     * A deposit credits the destination account and adds the amount to the asset.
+     *
+     * @return The deposit saga.
+     */
+    @Bean
+    public SagaDefinition<TransactionRequest> depositSaga() {
+        return new SagaDefinition<>(DEPOSIT, TransactionRequest.class, List.of(
+                new MovementStep("credit-destination", TransactionRequest::getDestinationAccountId, BigDecimal.ONE),
+                new AssetStep()));
+    }
+
+    /**
+     * A withdrawal holds the amount of the asset, debits the source account and then commits the asset.
+     * Holding the asset first means it cannot be drained by other transactions while the debit runs.
+     *
+     * @return The withdrawal saga.
+     */
+    @Bean
+    public SagaDefinition<TransactionRequest> withdrawalSaga() {
+        return new SagaDefinition<>(WITHDRAWAL, TransactionRequest.class, List.of(
+                new ReserveAssetStep(),
+                new MovementStep("debit-source", TransactionRequest::getSourceAccountId, BigDecimal.ONE.negate()),
+                new CommitAssetStep()));
+    }
+
+    /**
+     * A transfer moves the amount between two accounts in a single grouped call.
+     *
+     * @return The transfer saga.
+     */
+    @Bean
+    public SagaDefinition<TransactionRequest> transferSaga() {
+        return new SagaDefinition<>(TRANSFER, TransactionRequest.class, List.of(new TransferStep()));
+    }
+
+    private MovementStatus applyMovement(String movementId, String accountId, BigDecimal amount) {
+        return accountClient.applyMovements(List.of(
+                MovementRequest.builder().movementId(movementId).accountId(accountId).amount(amount).build()))
+                .get(0).getStatus();
+    }
+
+    private static String reservationId(String sagaId) {
+        return sagaId + ":asset";
+    }
+
+    private static void requireApplied(MovementStatus status, String accountRole) {
+        if (status == MovementStatus.INSUFFICIENT_FUNDS) {
+            throw new IllegalArgumentException("Insufficient funds");
+        }
+        if (status != MovementStatus.APPLIED) {
+            throw new IllegalArgumentException(accountRole + " account not found");
+        }
+    }
+
+    /**
+     * Credits or debits one account.
+     */
+    private final class MovementStep implements SagaStep<TransactionRequest> {
+
+        private final String name;
+        private final Function<TransactionRequest, String> accountId;
+        private final BigDecimal sign;
+
+        private MovementStep(String name, Function<TransactionRequest, String> accountId, BigDecimal sign) {
+            this.name = name;
+            this.accountId = accountId;
+            this.sign = sign;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void execute(String sagaId, TransactionRequest data) {
+            requireApplied(applyMovement(sagaId + ":" + name, accountId.apply(data), sign.multiply(data.getAmount())),
+                    sign.signum() < 0 ? "Source" : "Destination");
+        }
+
+        @Override
+        public void compensate(String sagaId, TransactionRequest data) {
+            MovementStatus status = applyMovement(sagaId + ":" + name + ":compensation", accountId.apply(data),
+                    sign.negate().multiply(data.getAmount()));
+            if (status != MovementStatus.APPLIED) {
+                throw new IllegalStateException("Compensating movement was not applied: " + status);
+            }
+        }
+
+        @Override
+        public boolean isIdempotent() {
+            return true;
+        }
+    }
+
+    /**
+     * Adds the transaction amount to the asset. The compensation takes it out again by reserving and committing it
+     * under an id derived from the saga id, so a repeated compensation takes it out only once.
+     */
+    private final class AssetStep implements SagaStep<TransactionRequest> {
+
+        @Override
+        public String name() {
+            return "update-asset";
+        }
+
+        @Override
+        public void execute(String sagaId, TransactionRequest data) {
+            assetManagementClient.updateAssetAmount(data.getAssetCode(),
+                    AssetQuantities.toMinorUnits(data.getAmount()));
+        }
+
+        @Override
+        public void compensate(String sagaId, TransactionRequest data) {
+            String reservationId = sagaId + ":update-asset:compensation";
+            ReservationStatus status = assetManagementClient.reserveAsset(reservationId, data.getAssetCode(),
+                    AssetQuantities.toMinorUnits(data.getAmount())).getStatus();
+            if (status == ReservationStatus.REJECTED) {
+                throw new IllegalStateException("The deposited amount is no longer available in the asset");
+            }
+            assetManagementClient.commitReservation(reservationId);
+        }
+    }
+
+    /**
+     * Holds the transaction amount of the asset with one atomic call.
+     */
+    private final class ReserveAssetStep implements SagaStep<TransactionRequest> {
+
+        @Override
+        public String name() {
+            return "reserve-asset";
+        }
+
+        @Override
+        public void execute(String sagaId, TransactionRequest data) {
+            ReservationStatus status = assetManagementClient.reserveAsset(reservationId(sagaId), data.getAssetCode(),
+                    AssetQuantities.toMinorUnits(data.getAmount())).getStatus();
+            if (status == ReservationStatus.REJECTED) {
+                throw new IllegalArgumentException(
+                        "Asset is not available in the requested amount, please try again later");
+            }
+        }
+
+        @Override
+        public void compensate(String sagaId, TransactionRequest data) {
+            assetManagementClient.releaseReservation(reservationId(sagaId));
+        }
+
+        @Override
+        public boolean isIdempotent() {
+            return true;
+        }
+    }
+
+    /**
+     * Commits the asset reservation. A reservation that expired in the meantime fails the step, which releases
+     * the funds again. Committing a committed reservation has no further effect, so a commit whose response was
+     * lost is executed again on recovery, which then completes the saga instead of releasing a committed reservation.
+     */
+    private final class CommitAssetStep implements SagaStep<TransactionRequest> {
+
+        @Override
+        public String name() {
+            return "commit-asset";
+        }
+
+        @Override
+        public void execute(String sagaId, TransactionRequest data) {
+            assetManagementClient.commitReservation(reservationId(sagaId));
+        }
+
+        @Override
+        public void compensate(String sagaId, TransactionRequest data) {
+            // the last step, never compensated
+        }
+
+        @Override
+        public boolean isIdempotent() {
+            return true;
+        }
+
+        @Override
+        public boolean isReversible() {
+            return false;
+        }
+    }
+
+    /**
+     * Debits the source and credits the destination as one group, so the credit is only applied if the debit was.
+     */
+    private final class TransferStep implements SagaStep<TransactionRequest> {
+
+        @Override
+        public String name() {
+            return "transfer-funds";
+        }
+
+        @Override
+        public void execute(String sagaId, TransactionRequest data) {
+            List<MovementResult> results = accountClient.applyMovements(List.of(
+                    movement(sagaId + ":debit-source", data.getSourceAccountId(), data.getAmount().negate(), sagaId),
+                    movement(sagaId + ":credit-destination", data.getDestinationAccountId(), data.getAmount(), sagaId)));
+            requireApplied(results.get(0).getStatus(), "Source");
+            if (results.get(1).getStatus() != MovementStatus.APPLIED) {
+                // The destination vanished after the debit went through, so give the funds back
+                applyMovement(sagaId + ":debit-source:compensation", data.getSourceAccountId(), data.getAmount());
+                throw new IllegalArgumentException("Destination account not found");
+            }
+        }
+
+        @Override
+        public void compensate(String sagaId, TransactionRequest data) {
+            String group = sagaId + ":compensation";
+            List<MovementResult> results = accountClient.applyMovements(List.of(
+                    movement(sagaId + ":credit-destination:compensation", data.getDestinationAccountId(),
+                            data.getAmount().negate(), group),
+                    movement(sagaId + ":debit-source:compensation", data.getSourceAccountId(), data.getAmount(), group)));
+            if (results.stream().anyMatch(result -> result.getStatus() != MovementStatus.APPLIED)) {
+                throw new IllegalStateException("Compensating transfer was not applied");
+            }
+        }
+
+        @Override
+        public boolean isIdempotent() {
+            return true;
+        }
+
+        private MovementRequest movement(String movementId, String accountId, BigDecimal amount, String group) {
+            return MovementRequest.builder().movementId(movementId).accountId(accountId).amount(amount).group(group)
+                    .build();
+        }
+    }
+}
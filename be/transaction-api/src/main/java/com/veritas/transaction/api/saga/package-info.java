@@ -0,0 +1,5 @@
+/**
+ * A lightweight saga engine running multi-step transactions across services, with persisted progress,
+ * asynchronous compensation and recovery of sagas interrupted by a restart.
+ */
+package com.veritas.transaction.api.saga;
@@ -0,0 +1,109 @@
+package com.veritas.transaction.api.service;
+
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.dto.AccountResponse;
+import com.veritas.transaction.api.dto.BalanceResponse;
+import com.veritas.transaction.api.model.BalanceSnapshot;
+import com.veritas.transaction.api.model.Transaction;
+import com.veritas.transaction.api.repository.BalanceSnapshotRepository;
+import com.veritas.transaction.api.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service class that keeps daily balance snapshots per account and answers balance-at-time queries from them.
+ * <p>
+ * A snapshot holds the balance at the end of a day. It is updated in the transaction that records the
+ * transactions, so snapshots and transactions always commit together. The balance at any time is the last
+ * snapshot before that day plus the transactions of the day up to that time, so a query reads at most one day of
+ * transactions instead of the whole history.
+ */
+@Service
+@RequiredArgsConstructor
+public class BalanceSnapshotService {
+
+    // Snapshot rows are always locked in this order, so concurrent transfers between the same accounts in
+    // opposite directions cannot deadlock
+    private static final Comparator<BalanceSnapshot.Key> LOCK_ORDER = Comparator
+            .comparing(BalanceSnapshot.Key::getAccountId)
+            .thenComparing(BalanceSnapshot.Key::getSnapshotDate);
+
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountClient accountClient;
+
+    /**
+     * Adds the balance changes of stored transactions to the snapshots of their days.
+     *
+     * @param transactions The transactions, with their transaction times set.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTransactions(Collection<Transaction> transactions) {
+        Map<BalanceSnapshot.Key, BigDecimal> changes = new TreeMap<>(LOCK_ORDER);
+        for (Transaction transaction : transactions) {
+            LocalDate day = transaction.getTransactionTime() == null
+                    ? LocalDate.now() : transaction.getTransactionTime().toLocalDate();
+            String type = transaction.getType() == null ? "" : transaction.getType().toLowerCase(Locale.ROOT);
+            BigDecimal amount = transaction.getAmount();
+            if (amount == null) {
+                continue;
+            }
+            if (transaction.getDestinationAccountId() != null && (type.equals("deposit") || type.equals("transfer"))) {
+                changes.merge(new BalanceSnapshot.Key(transaction.getDestinationAccountId(), day), amount,
+                        BigDecimal::add);
+            }
+            if (transaction.getSourceAccountId() != null && (type.equals("withdrawal") || type.equals("transfer"))) {
+                changes.merge(new BalanceSnapshot.Key(transaction.getSourceAccountId(), day), amount.negate(),
+                        BigDecimal::add);
+            }
+        }
+        changes.forEach((key, change) -> {
+            balanceSnapshotRepository.addToSnapshot(key.getAccountId(), key.getSnapshotDate(), change);
+            balanceSnapshotRepository.addToLaterSnapshots(key.getAccountId(), key.getSnapshotDate(), change);
+        });
+    }
+
+    /**
+     * Returns the balance of one of the user's accounts at a point in time.
+     *
+     * @param userId The user asking for the balance.
+     * @param accountId The account.
+     * @param at The point in time.
+     * @return The balance from the transactions recorded up to and including the point in time.
+     * @throws IllegalArgumentException if the account does not belong to the user.
+     */
+    @Transactional(readOnly = true)
+    public BalanceResponse getBalanceAt(String userId, String accountId, LocalDateTime at) {
+        AccountResponse account = accountClient.getAccountById(accountId);
+        if (account == null || !userId.equals(account.getUserId())) {
+            throw new IllegalArgumentException("Account does not belong to the user");
+        }
+        return new BalanceResponse(accountId, at, getBalanceAt(accountId, at));
+    }
+
+    /**
+     * Returns the balance of an account at a point in time.
+     *
+     * @param accountId The account.
+     * @param at The point in time.
+     * @return The balance from the transactions recorded up to and including the point in time.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAt(String accountId, LocalDateTime at) {
+        LocalDate day = at.toLocalDate();
+        BigDecimal snapshot = balanceSnapshotRepository.findBalanceBefore(accountId, day);
+        BigDecimal changeSinceSnapshot = transactionRepository.sumBalanceChange(accountId, day.atStartOfDay(), at);
+        return (snapshot == null ? BigDecimal.ZERO : snapshot).add(changeSinceSnapshot);
+    }
+}
@@ -0,0 +1,11 @@
+package com.veritas.transaction.api.service;
+
+/**
+ * Thrown when an idempotency key is sent again with a request different from the one it was first used for.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException() {
+        super("The idempotency key was already used for a different request");
+    }
+}
@@ -0,0 +1,158 @@
+package com.veritas.transaction.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Service class that runs an operation at most once per idempotency key.
+ * <p>
+ * The result of the first execution is kept in Redis for {@code transaction.idempotency.ttl}, so a replayed
+ * request is answered with one key lookup and no downstream calls. While an execution is in flight its key holds
+ * a pending marker: duplicates arriving at the same instance join the running execution, and duplicates arriving
+ * at other instances wait for the marker to turn into a result. A failed execution removes its marker so that the
+ * request can be retried.
+ * <p>
+ * The marker and the result are stored with a SHA-256 hash of the request, so that a key reused for a different
+ * request is rejected instead of being answered with the result of another request.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "transaction-api:idempotency:";
+
+    private static final String PENDING_PREFIX = "pending:";
+
+    private static final String COMPLETED_PREFIX = "completed:";
+
+    private static final int HASH_LENGTH = 64;
+
+    private static final int MAXIMUM_KEY_LENGTH = 255;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${transaction.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${transaction.idempotency.pending-ttl:60s}")
+    private Duration pendingTtl;
+
+    @Value("${transaction.idempotency.poll-interval:50ms}")
+    private Duration pollInterval;
+
+    public IdempotencyService(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Runs an operation unless it already ran for the same idempotency key.
+     *
+     * @param userId The user the key belongs to; keys of different users never collide.
+     * @param idempotencyKey The key sent by the client.
+     * @param request A canonical representation of the request, compared between requests with the same key.
+     * @param operation The operation to run.
+     * @param executor The executor to run the operation on.
+     * @return The result of the first execution for the key, completed exceptionally with an
+     *         {@link IdempotencyKeyReusedException} if the key was used for a different request, or with a
+     *         {@link java.util.concurrent.RejectedExecutionException} if the executor rejected the operation.
+     * @throws IllegalArgumentException if the key is longer than 255 characters.
+     */
+    public CompletableFuture<String> execute(String userId, String idempotencyKey, String request,
+                                             Supplier<String> operation, Executor executor) {
+        if (idempotencyKey.length() > MAXIMUM_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must not be longer than " + MAXIMUM_KEY_LENGTH
+                    + " characters");
+        }
+        String key = KEY_PREFIX + userId + ":" + idempotencyKey;
+        String requestHash = hash(request);
+        // Only identical requests join each other; a different one finds the marker in Redis and is rejected
+        String inFlightKey = key + ":" + requestHash;
+        CompletableFuture<String> execution = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(inFlightKey, execution);
+        if (running != null) {
+            return running;
+        }
+        // Removed before it completes, so that a caller who sees the outcome and retries starts a new execution
+        try {
+            executor.execute(() -> {
+                try {
+                    String result = executeOnce(key, requestHash, operation);
+                    inFlight.remove(inFlightKey, execution);
+                    execution.complete(result);
+                } catch (RuntimeException e) {
+                    inFlight.remove(inFlightKey, execution);
+                    execution.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(inFlightKey, execution);
+            execution.completeExceptionally(e);
+        }
+        return execution;
+    }
+
+    private String executeOnce(String key, String requestHash, Supplier<String> operation) {
+        ValueOperations<String, String> values = redisTemplate.opsForValue();
+        long deadline = System.nanoTime() + pendingTtl.toNanos();
+        while (true) {
+            String stored = values.get(key);
+            if (stored != null && !requestHash.equals(storedHash(stored))) {
+                throw new IdempotencyKeyReusedException();
+            }
+            if (stored != null && stored.startsWith(COMPLETED_PREFIX)) {
+                return stored.substring(COMPLETED_PREFIX.length() + HASH_LENGTH + 1);
+            }
+            if (stored == null && Boolean.TRUE.equals(values.setIfAbsent(key, PENDING_PREFIX + requestHash,
+                    pendingTtl))) {
+                String result;
+                try {
+                    result = operation.get();
+                } catch (RuntimeException e) {
+                    redisTemplate.delete(key);
+                    throw e;
+                }
+                values.set(key, COMPLETED_PREFIX + requestHash + ":" + result, ttl);
+                return result;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("A request with the same idempotency key is still in progress");
+            }
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+            }
+        }
+    }
+
+    private static String storedHash(String stored) {
+        String prefix = stored.startsWith(COMPLETED_PREFIX) ? COMPLETED_PREFIX : PENDING_PREFIX;
+        int end = prefix.length() + HASH_LENGTH;
+        return stored.startsWith(prefix) && stored.length() >= end ? stored.substring(prefix.length(), end) : null;
+    }
+
+    private static String hash(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.veritas.transaction.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veritas.transaction.api.event.TransactionEvent;
+import com.veritas.transaction.api.model.OutboxEvent;
+import com.veritas.transaction.api.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Transactional outbox for the {@link TransactionEvent}s published to Kafka.
+ * <p>
+ * Events are stored in the database transaction of the request that produces them, so the request path only
+ * commits to Postgres and never waits for the broker. A background relay drains the outbox to Kafka in batches
+ * and deletes the events once the broker has acknowledged them. Delivery is at least once: events of a batch
+ * that fails are sent again by a later run.
+ */
+@Slf4j
+@Service
+public class TransactionEventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, TransactionEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${transaction.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${transaction.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    public TransactionEventOutbox(OutboxEventRepository outboxEventRepository,
+                                  KafkaTemplate<String, TransactionEvent> kafkaTemplate,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Adds an event to the outbox as part of the current transaction.
+     *
+     * @param topic The Kafka topic to publish the event to.
+     * @param event The event to publish.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, TransactionEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setTopic(topic);
+        outboxEvent.setEventKey(event.getTransactionId());
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        outboxEventRepository.save(outboxEvent);
+    }
+
+    /**
+     * Publishes the pending events, one batch per database transaction, until the outbox is drained.
+     * <p>
+     * Runs every {@code transaction.outbox.linger-ms} milliseconds, which bounds how long an event lingers in
+     * the outbox when the relay is idle.
+     */
+    @Scheduled(fixedDelayString = "${transaction.outbox.linger-ms:100}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        CompletableFuture<?>[] sends = events.stream()
+                .map(event -> kafkaTemplate.send(event.getTopic(), event.getEventKey(), readPayload(event)))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to publish " + events.size() + " outbox events", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing outbox events", e);
+        }
+        outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+        log.debug("Published {} outbox events", events.size());
+        return events.size();
+    }
+
+    private TransactionEvent readPayload(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), TransactionEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.veritas.transaction.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.dto.AccountResponse;
+import com.veritas.transaction.api.dto.ExportFormat;
+import com.veritas.transaction.api.model.Transaction;
+import com.veritas.transaction.api.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Service class that exports a user's transaction history.
+ * <p>
+ * Rows are written to the output as they are read from a database cursor and are dropped from the persistence
+ * context right after, so the memory use does not depend on the length of the history. Writing blocks while the
+ * client is not reading, which in turn stops reading from the cursor.
+ * <p>
+ * An export holds a database connection and a read transaction for as long as the client takes to read it, so the
+ * number of exports running at a time is capped by {@code transaction.export.max-concurrent}, leaving the rest of
+ * the connection pool to the transactions.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final String CSV_HEADER =
+            "transactionId,userId,type,amount,sourceAccountId,destinationAccountId,transactionTime";
+
+    private final TransactionRepository transactionRepository;
+    private final AccountClient accountClient;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Semaphore exportSlots;
+
+    public TransactionExportService(TransactionRepository transactionRepository, AccountClient accountClient,
+                                    EntityManager entityManager, ObjectMapper objectMapper,
+                                    @Value("${transaction.export.max-concurrent:4}") int maxConcurrentExports) {
+        this.transactionRepository = transactionRepository;
+        this.accountClient = accountClient;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.exportSlots = new Semaphore(maxConcurrentExports);
+    }
+
+    /**
+     * Takes one of the slots of the exports running at a time, without waiting.
+     *
+     * @return True if a slot was free; it must then be given back with {@link #releaseExportSlot()} once the export
+     *         ends.
+     */
+    public boolean tryAcquireExportSlot() {
+        return exportSlots.tryAcquire();
+    }
+
+    /**
+     * Gives back a slot taken with {@link #tryAcquireExportSlot()}.
+     */
+    public void releaseExportSlot() {
+        exportSlots.release();
+    }
+
+    /**
+     * Fetches the ids of the calling user's accounts.
+     * <p>
+     * Must run on the request thread, whose identity headers are forwarded to the Account API.
+     *
+     * @return The account ids.
+     */
+    public List<String> getAccountIdsOfCaller() {
+        return accountClient.getAllAccountsForUser().stream()
+                .map(AccountResponse::getId)
+                .toList();
+    }
+
+    /**
+     * Writes the transactions made by a user or involving one of the user's accounts, newest first.
+     *
+     * @param userId The user whose history to export.
+     * @param accountIds The accounts of the user.
+     * @param format The format to write.
+     * @param outputStream The stream to write to; it is flushed but not closed.
+     * @throws IOException if writing to the stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportTransactionsForUser(String userId, List<String> accountIds, ExportFormat format,
+                                          OutputStream outputStream) throws IOException {
+        // An empty IN list is not valid SQL, and a null never matches
+        List<String> involvedAccountIds = accountIds.isEmpty() ? Collections.singletonList(null) : accountIds;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try (Stream<Transaction> transactions = transactionRepository.streamHistory(userId, involvedAccountIds)) {
+            transactions.forEach(transaction -> {
+                try {
+                    writer.write(format == ExportFormat.CSV ? toCsv(transaction) : toJson(transaction));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                entityManager.detach(transaction);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private String toJson(Transaction transaction) throws IOException {
+        return objectMapper.writeValueAsString(transaction);
+    }
+
+    private static String toCsv(Transaction transaction) {
+        return String.join(",",
+                csvField(transaction.getTransactionId()),
+                csvField(transaction.getUserId()),
+                csvField(transaction.getType()),
+                csvField(transaction.getAmount() == null ? null : transaction.getAmount().toPlainString()),
+                csvField(transaction.getSourceAccountId()),
+                csvField(transaction.getDestinationAccountId()),
+                csvField(transaction.getTransactionTime() == null ? null : transaction.getTransactionTime().toString()));
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
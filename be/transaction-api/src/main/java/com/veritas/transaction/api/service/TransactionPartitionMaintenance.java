@@ -0,0 +1,132 @@
+package com.veritas.transaction.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Service class that keeps the monthly partitions of {@code t_transaction} in shape.
+ * <p>
+ * Partitions are created ahead of the months they hold, as standalone tables that are then attached. Attaching
+ * only takes a lock that lets reads and writes of the other partitions go on, unlike creating the partition in
+ * place. When a retention is configured, partitions that fall out of it are detached concurrently and stay
+ * behind as plain tables, ready to be archived and dropped.
+ * <p>
+ * Every step can be repeated, so instances running the job at the same time do no harm.
+ */
+@Slf4j
+@Service
+public class TransactionPartitionMaintenance {
+
+    private static final String PARTITION_PREFIX = "t_transaction_p";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String ATTACHED_PARTITIONS = """
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = 't_transaction' AND NOT i.inhdetachpending
+            """;
+
+    private static final String PENDING_DETACHES = """
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = 't_transaction' AND i.inhdetachpending
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${transaction.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${transaction.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    public TransactionPartitionMaintenance(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates the partitions of the current and the coming months, and detaches the partitions older than the
+     * retention, if there is one.
+     * <p>
+     * Runs in autocommit mode on purpose: a concurrent detach is not allowed inside a transaction.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${transaction.partitions.maintenance-interval-ms:3600000}")
+    public void maintainPartitions() {
+        YearMonth currentMonth = YearMonth.now();
+        Set<String> attached = new HashSet<>(jdbcTemplate.queryForList(ATTACHED_PARTITIONS, String.class));
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            String partition = partitionName(month);
+            if (!attached.contains(partition)) {
+                execute("CREATE TABLE IF NOT EXISTS " + partition
+                        + " (LIKE t_transaction INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+                if (execute("ALTER TABLE t_transaction ATTACH PARTITION " + partition + " FOR VALUES FROM ('"
+                        + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')")) {
+                    log.info("Attached partition {}", partition);
+                }
+            }
+        }
+
+        // A concurrent detach interrupted by a restart has to be finished before anything else
+        jdbcTemplate.queryForList(PENDING_DETACHES, String.class).forEach(partition ->
+                execute("ALTER TABLE t_transaction DETACH PARTITION " + partition + " FINALIZE"));
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestRetained = currentMonth.minusMonths(retentionMonths);
+        for (String partition : attached) {
+            YearMonth month = partitionMonth(partition);
+            if (month != null && month.isBefore(oldestRetained)) {
+                if (execute("ALTER TABLE t_transaction DETACH PARTITION " + partition + " CONCURRENTLY")) {
+                    log.info("Detached partition {} for archiving", partition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the partition that holds the transactions of a month.
+     *
+     * @param month The month.
+     * @return The partition name, e.g. {@code t_transaction_p2024_01}.
+     */
+    public static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private static YearMonth partitionMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private boolean execute(String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+            return true;
+        } catch (DataAccessException e) {
+            // Most likely another instance got there first, the next run retries otherwise
+            log.warn("Partition maintenance statement failed: {}", sql, e);
+            return false;
+        }
+    }
+}
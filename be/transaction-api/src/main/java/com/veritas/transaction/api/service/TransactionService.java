@@ -1,25 +1,37 @@
 package com.veritas.transaction.api.service;
 
+import com.veritas.transaction.api.cache.AssetQuantityCache;
 import com.veritas.transaction.api.client.AccountClient;
-import com.veritas.transaction.api.client.AssetManagementClient;
-import com.veritas.transaction.api.dto.AssetManagementResponse;
+import com.veritas.transaction.api.dto.AccountResponse;
 import com.veritas.transaction.api.dto.TransactionItemsDto;
+import com.veritas.transaction.api.dto.TransactionPage;
 import com.veritas.transaction.api.dto.TransactionRequest;
 import com.veritas.transaction.api.event.TransactionEvent;
 import com.veritas.transaction.api.model.Transaction;
 import com.veritas.transaction.api.model.TransactionItems;
 import com.veritas.transaction.api.repository.TransactionRepository;
+import com.veritas.transaction.api.saga.SagaEngine;
+import com.veritas.transaction.api.util.AssetQuantities;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service class that provides operations for managing transactions.
@@ -29,15 +41,30 @@ import java.util.UUID;
 @Transactional
 public class TransactionService {
 
+  private static final int MAXIMUM_PAGE_SIZE = 200;
+
+  private static final String CURSOR_SEPARATOR = "_";
+
+  // Later than any transaction, but still within the range of a SQL timestamp
+  private static final LocalDateTime FIRST_PAGE_TIME = LocalDateTime.of(9999, 12, 31, 23, 59);
+
   private final TransactionRepository transactionRepository;
-  private final AssetManagementClient assetManagementClient;
-  private final KafkaTemplate<String, TransactionEvent> kafkaTemplate;
+  private final AssetQuantityCache assetQuantityCache;
+  private final TransactionEventOutbox transactionEventOutbox;
   private final AccountClient accountClient;
-  
+  private final SagaEngine sagaEngine;
+  private final BalanceSnapshotService balanceSnapshotService;
+  private final Executor remoteCallExecutor;
+
+  @Value("${transaction.remote-calls.timeout:5s}")
+  private Duration remoteCallTimeout;
 
   /**
    *
    * Process a transaction based on the provided transaction request.
+   * <p>
+   * Runs outside of any database transaction, so no connection is held during the remote calls and the saga
+   * steps; the transaction, its balance snapshots and its event are written when the saga completes.
    * 
    * @param transactionRequest The transaction request containing the necessary
    *                           information.
@@ -45,7 +72,7 @@ public class TransactionService {
    * @throws IllegalArgumentException If any of the requested assets are not
    *                                  available.
    */
-  @CacheEvict(value = "assetAvailability", allEntries = true)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public String processTransaction(TransactionRequest transactionRequest) {
     Transaction transaction = new Transaction();
     transaction.setTransactionId(UUID.randomUUID().toString());
@@ -65,57 +92,68 @@ public class TransactionService {
     if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
       throw new IllegalArgumentException("Transaction amount must be positive");
     }
-
-    boolean assetIsAvailable = checkAssetAvailability(assetCode, amount);
-    if (!assetIsAvailable) {
-      throw new IllegalArgumentException("Asset is not available in the requested amount, please try again later");
-    }
+    // The asset steps move the amount in minor units, so it must convert exactly before anything moves
+    AssetQuantities.toMinorUnits(amount);
 
     String type = transactionRequest.getType();
     if (type == null) {
       throw new IllegalArgumentException("Transaction type is required");
     }
+    type = type.toLowerCase();
+    if (!List.of("deposit", "withdrawal", "transfer").contains(type)) {
+      throw new IllegalArgumentException("Invalid transaction type: " + transactionRequest.getType());
+    }
     // Ownership checks
     String userId = transactionRequest.getUserId();
-    String sourceAccountId = transactionRequest.getSourceAccountId();
-    String destinationAccountId = transactionRequest.getDestinationAccountId();
+    String sourceAccountId = type.equals("deposit") ? null : transactionRequest.getSourceAccountId();
+    String destinationAccountId = type.equals("withdrawal") ? null : transactionRequest.getDestinationAccountId();
+
+    // A withdrawal holds the asset atomically in its saga, so it skips the separate availability check
+    RemoteReads reads = readConcurrently(type.equals("withdrawal") ? null : assetCode, amount, sourceAccountId,
+        destinationAccountId);
+    if (!reads.assetIsAvailable()) {
+      throw new IllegalArgumentException("Asset is not available in the requested amount, please try again later");
+    }
 
-    switch (type.toLowerCase()) {
+    switch (type) {
       case "deposit" -> {
         if (destinationAccountId != null) {
-          var destAccount = accountClient.getAccountById(destinationAccountId);
+          var destAccount = reads.destinationAccount();
           if (destAccount == null || !userId.equals(destAccount.getUserId())) {
             throw new IllegalArgumentException("Destination account does not belong to the user");
           }
         }
-        accountClient.creditAccount(destinationAccountId, new AccountClient.DebitCreditRequest(amount));
-        assetManagementClient.updateAssetAmount(assetCode, amount.intValue());
       }
       case "withdrawal" -> {
         if (sourceAccountId != null) {
-          var srcAccount = accountClient.getAccountById(sourceAccountId);
+          var srcAccount = reads.sourceAccount();
           if (srcAccount == null || !userId.equals(srcAccount.getUserId())) {
             throw new IllegalArgumentException("Source account does not belong to the user");
           }
         }
-        accountClient.debitAccount(sourceAccountId, new AccountClient.DebitCreditRequest(amount));
-        assetManagementClient.updateAssetAmount(assetCode, -amount.intValue());
       }
       case "transfer" -> {
         if (sourceAccountId != null) {
-          var srcAccount = accountClient.getAccountById(sourceAccountId);
+          var srcAccount = reads.sourceAccount();
           if (srcAccount == null || !userId.equals(srcAccount.getUserId())) {
             throw new IllegalArgumentException("Source account does not belong to the user");
           }
         }
-        accountClient.debitAccount(sourceAccountId, new AccountClient.DebitCreditRequest(amount));
-        accountClient.creditAccount(destinationAccountId, new AccountClient.DebitCreditRequest(amount));
+        if (destinationAccountId != null && reads.destinationAccount() == null) {
+          throw new IllegalArgumentException("Destination account not found");
+        }
       }
-      default -> throw new IllegalArgumentException("Invalid transaction type: " + type);
     }
+    // Moves the funds and the asset, compensating the applied steps if a later one fails
+    sagaEngine.run(type, transaction.getTransactionId(), transactionRequest,
+        () -> recordCompletedTransaction(transaction, transactionRequest.getAssetCode()));
+    return "Transaction completed successfully!";
+  }
 
+  private void recordCompletedTransaction(Transaction transaction, String assetCode) {
     transactionRepository.save(transaction);
-    
+    balanceSnapshotService.applyTransactions(List.of(transaction));
+
     // Create enhanced transaction event with all details for notifications
     TransactionEvent transactionEvent = new TransactionEvent();
     transactionEvent.setTransactionId(transaction.getTransactionId());
@@ -124,26 +162,93 @@ public class TransactionService {
     transactionEvent.setDestinationAccountId(transaction.getDestinationAccountId());
     transactionEvent.setType(transaction.getType());
     transactionEvent.setAmount(transaction.getAmount().toString());
-    transactionEvent.setAssetCode(transactionRequest.getAssetCode());
-    
-    kafkaTemplate.send("notificationTopic", transactionEvent);
-    return "Transaction completed successfully!";
+    transactionEvent.setAssetCode(assetCode);
+
+    transactionEventOutbox.enqueue("notificationTopic", transactionEvent);
   }
 
   /**
-   * Checks the availability of an asset for a given amount.
+   * Stores a batch of already processed transactions, e.g. when importing history.
+   * <p>
+   * Transactions keep the transaction times they come with, so imported history lands on its original days;
+   * transactions without one are recorded at the current time.
+   * <p>
+   * The ids come from a pooled sequence, so the whole batch is written in one flush as JDBC batches of
+   * {@code hibernate.jdbc.batch_size} inserts, with one sequence call per 50 rows. The balance snapshots are
+   * updated once per account and day of the batch.
+   *
+   * @param transactions The transactions to store.
+   * @return The stored transactions, with their ids.
+   */
+  public List<Transaction> recordTransactions(List<Transaction> transactions) {
+    List<Transaction> recorded = transactionRepository.saveAll(transactions);
+    transactionRepository.flush();
+    balanceSnapshotService.applyTransactions(recorded);
+    return recorded;
+  }
+
+  /**
+   * Runs the independent remote reads of a transaction concurrently.
+   * <p>
+   * The asset availability and the involved accounts are fetched on the remote call executor, so the
+   * transaction waits for the slowest of the calls rather than for their sum.
+   *
+   * @param assetCode The asset code to check, or null if no check is needed.
+   * @param amount The amount to check for availability.
+   * @param sourceAccountId The source account to fetch, or null if none is needed.
+   * @param destinationAccountId The destination account to fetch, or null if none is needed.
+   * @return The results of the reads.
+   * @throws IllegalStateException if the reads did not complete within the remote call timeout.
+   */
+  private RemoteReads readConcurrently(String assetCode, BigDecimal amount, String sourceAccountId,
+                                       String destinationAccountId) {
+    CompletableFuture<Boolean> assetIsAvailable = assetCode == null ? CompletableFuture.completedFuture(true)
+        : CompletableFuture.supplyAsync(() -> checkAssetAvailability(assetCode, amount), remoteCallExecutor);
+    CompletableFuture<AccountResponse> sourceAccount = fetchAccount(sourceAccountId);
+    CompletableFuture<AccountResponse> destinationAccount = fetchAccount(destinationAccountId);
+    CompletableFuture<Void> allReads = CompletableFuture.allOf(assetIsAvailable, sourceAccount, destinationAccount);
+    try {
+      allReads.get(remoteCallTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Remote read failed", e.getCause());
+    } catch (TimeoutException e) {
+      List.of(assetIsAvailable, sourceAccount, destinationAccount).forEach(read -> read.cancel(true));
+      throw new IllegalStateException("Remote reads did not complete within " + remoteCallTimeout);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for remote reads", e);
+    }
+    return new RemoteReads(assetIsAvailable.join(), sourceAccount.join(), destinationAccount.join());
+  }
+
+  private CompletableFuture<AccountResponse> fetchAccount(String accountId) {
+    if (accountId == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.supplyAsync(() -> accountClient.getAccountById(accountId), remoteCallExecutor);
+  }
+
+  /**
+   * The results of the remote reads of a transaction.
+   */
+  private record RemoteReads(boolean assetIsAvailable, AccountResponse sourceAccount,
+                             AccountResponse destinationAccount) {
+  }
+
+  /**
+   * Checks the availability of an asset for a given amount, against the cached quantity of the asset.
    *
    * @param assetCode The asset code to check.
    * @param amount The amount to check for availability.
    * @return true if the asset is available in the requested amount, false otherwise.
+   * @throws IllegalArgumentException if the amount has more than two decimal places or is out of range.
    */
-  @Cacheable("assetAvailability")
   public boolean checkAssetAvailability(String assetCode, BigDecimal amount) {
-    // Now pass both assetCode and amount as required by the updated AssetManagementClient
-    int amt = amount == null ? 1 : amount.intValue();
-    return assetManagementClient.checkAssetAvailability(List.of(assetCode), List.of(amt))
-        .stream()
-        .allMatch(AssetManagementResponse::isAssetAvailable);
+    return assetQuantityCache.isAvailable(assetCode,
+        AssetQuantities.toMinorUnits(amount == null ? BigDecimal.ONE : amount));
   }
 
   /**
@@ -161,37 +266,62 @@ public class TransactionService {
     return transactionItems;
   }
 
-    public List<Transaction> getTransactionsForUser(String userId) {
-        // Get direct transactions for the user
-        List<Transaction> userTransactions = transactionRepository.findByUserId(userId);
-        
-        // Get all accounts for the user
-        List<com.veritas.transaction.api.dto.AccountResponse> userAccounts = accountClient.getAllAccountsForUser();
-        
-        // Extract account IDs
-        List<String> accountIds = userAccounts.stream()
-                .map(com.veritas.transaction.api.dto.AccountResponse::getId)
-                .toList();
-        
-        // Get transactions where user's accounts are involved (as source or destination)
-        List<Transaction> sourceAccountTransactions = transactionRepository.findBySourceAccountIdIn(accountIds);
-        List<Transaction> destinationAccountTransactions = transactionRepository.findByDestinationAccountIdIn(accountIds);
-        
-        // Combine all transactions and remove duplicates
-        List<Transaction> allTransactions = new java.util.ArrayList<>(userTransactions);
-        allTransactions.addAll(sourceAccountTransactions);
-        allTransactions.addAll(destinationAccountTransactions);
-        
-        // Remove duplicates based on transaction ID
-        return allTransactions.stream()
-                .collect(java.util.stream.Collectors.toMap(
-                        Transaction::getTransactionId,
-                        transaction -> transaction,
-                        (existing, replacement) -> existing
-                ))
-                .values()
-                .stream()
-                .sorted((t1, t2) -> t2.getTransactionTime().compareTo(t1.getTransactionTime()))
-                .toList();
+  /**
+   * Returns a page of the transactions made by a user or involving one of the user's accounts, newest first.
+   *
+   * @param userId The user whose history to return.
+   * @param cursor The cursor returned with the previous page, or null for the first page.
+   * @param limit The maximum number of transactions to return, capped at 200.
+   * @return The page and the cursor of the next one.
+   * @throws IllegalArgumentException if the cursor is malformed.
+   */
+  @Transactional(readOnly = true)
+  public TransactionPage getTransactionsForUser(String userId, String cursor, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAXIMUM_PAGE_SIZE));
+    LocalDateTime beforeTime = FIRST_PAGE_TIME;
+    long beforeId = Long.MAX_VALUE;
+    if (cursor != null && !cursor.isEmpty()) {
+      String[] position = decodeCursor(cursor);
+      beforeTime = LocalDateTime.parse(position[0]);
+      beforeId = Long.parseLong(position[1]);
+    }
+
+    List<String> accountIds = accountClient.getAllAccountsForUser().stream()
+        .map(AccountResponse::getId)
+        .toList();
+    if (accountIds.isEmpty()) {
+      // An empty IN list is not valid SQL, and a null never matches
+      accountIds = Collections.singletonList(null);
+    }
+
+    // One row more than requested tells whether there is a next page
+    List<Transaction> rows = transactionRepository.findHistoryPage(userId, accountIds, beforeTime, beforeId,
+        pageSize + 1);
+    if (rows.size() <= pageSize) {
+      return new TransactionPage(rows, null);
+    }
+    List<Transaction> items = rows.subList(0, pageSize);
+    Transaction last = items.get(pageSize - 1);
+    return new TransactionPage(items, encodeCursor(last.getTransactionTime(), last.getId()));
+  }
+
+  private static String encodeCursor(LocalDateTime transactionTime, long id) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((transactionTime + CURSOR_SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String[] decodeCursor(String cursor) {
+    try {
+      String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+          .split(CURSOR_SEPARATOR, -1);
+      if (position.length != 2) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      LocalDateTime.parse(position[0]);
+      Long.parseLong(position[1]);
+      return position;
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid cursor", e);
     }
+  }
 }
@@ -0,0 +1,48 @@
+package com.veritas.transaction.api.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Converts between transaction amounts and the asset quantities of the Asset Management API.
+ * <p>
+ * The Asset Management API counts quantities and amounts as a {@code long} number of minor units, hundredths of a
+ * unit, the scale of the transaction amounts. The conversion is exact: an amount with a finer fraction or beyond the
+ * range of a {@code long} is rejected instead of being rounded or truncated.
+ */
+public final class AssetQuantities {
+
+    /**
+     * The number of decimal places of a minor unit.
+     */
+    public static final int SCALE = 2;
+
+    private AssetQuantities() {
+    }
+
+    /**
+     * Converts an amount to minor units.
+     *
+     * @param amount The amount.
+     * @return The amount in minor units.
+     * @throws IllegalArgumentException if the amount has more than {@value #SCALE} decimal places or does not fit
+     *                                  a {@code long} in minor units.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                    "Amount " + amount.toPlainString() + " is not a whole number of hundredths within range", e);
+        }
+    }
+
+    /**
+     * Converts a quantity in minor units to an amount.
+     *
+     * @param minorUnits The quantity in minor units.
+     * @return The amount, with a scale of {@value #SCALE}.
+     */
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
@@ -0,0 +1,43 @@
+package com.veritas.transaction.api.util;
+
+import com.veritas.identity.IdentitySignature;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the id of the user on whose behalf a request is made.
+ * <p>
+ * Requests routed through the API gateway carry the user id in the signed {@link IdentitySignature#USER_ID_HEADER}
+ * header, which is checked with a single HMAC. A request without a valid identity header is not authenticated:
+ * the bearer token is not decoded, since only the gateway verifies its signature.
+ */
+@Component
+public class UserIdResolver {
+
+    private final IdentitySignature identitySignature;
+
+    /**
+     * Creates a resolver for the given shared secret.
+     *
+     * @param signingKey The secret shared by the gateway and the backend services.
+     * @throws IllegalStateException if the secret is blank, so that a misconfigured service fails at startup.
+     */
+    public UserIdResolver(@Value("${veritas.identity.signing-key}") String signingKey) {
+        if (signingKey.isBlank()) {
+            throw new IllegalStateException("veritas.identity.signing-key must be set");
+        }
+        this.identitySignature = new IdentitySignature(signingKey);
+    }
+
+    /**
+     * Resolves the user id of a request.
+     *
+     * @param request The HTTP request.
+     * @return The user id, or null if the request has no valid identity header.
+     */
+    public String resolveUserId(HttpServletRequest request) {
+        String userId = request.getHeader(IdentitySignature.USER_ID_HEADER);
+        return identitySignature.verify(userId, request.getHeader(IdentitySignature.SIGNATURE_HEADER)) ? userId : null;
+    }
+}
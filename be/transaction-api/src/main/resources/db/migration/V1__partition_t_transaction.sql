@@ -0,0 +1,59 @@
+-- Turns t_transaction into a table partitioned by month of transaction_time.
+--
+-- A table created earlier by Hibernate is renamed, its rows are copied into the partitions and it is dropped.
+-- Partitions for the coming months are created by the partition maintenance job of transaction-api.
+-- There is deliberately no default partition: with one, every new partition would have to scan it, and
+-- partitions could not be detached concurrently.
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 't_transaction' AND relkind = 'r') THEN
+        ALTER TABLE t_transaction RENAME TO t_transaction_unpartitioned;
+    END IF;
+END $$;
+
+CREATE TABLE t_transaction (
+    id                     bigserial      NOT NULL,
+    transaction_id         varchar(255),
+    user_id                varchar(255),
+    source_account_id      varchar(255),
+    destination_account_id varchar(255),
+    type                   varchar(255),
+    amount                 numeric(38, 2),
+    transaction_time       timestamp(6)   NOT NULL,
+    PRIMARY KEY (id, transaction_time)
+) PARTITION BY RANGE (transaction_time);
+
+CREATE INDEX idx_transaction_user_time ON t_transaction (user_id, transaction_time, id);
+CREATE INDEX idx_transaction_source_time ON t_transaction (source_account_id, transaction_time, id);
+CREATE INDEX idx_transaction_destination_time ON t_transaction (destination_account_id, transaction_time, id);
+
+DO $$
+DECLARE
+    has_legacy_table boolean := EXISTS (SELECT 1 FROM pg_class WHERE relname = 't_transaction_unpartitioned');
+    first_month      date := date_trunc('month', now());
+    month            date;
+BEGIN
+    IF has_legacy_table THEN
+        EXECUTE 'SELECT coalesce(date_trunc(''month'', min(transaction_time)), date_trunc(''month'', now()))'
+                || ' FROM t_transaction_unpartitioned' INTO first_month;
+    END IF;
+
+    month := least(first_month, date_trunc('month', now())::date);
+    WHILE month <= date_trunc('month', now() + interval '1 month') LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF t_transaction FOR VALUES FROM (%L) TO (%L)',
+                       't_transaction_p' || to_char(month, 'YYYY_MM'), month, month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+
+    IF has_legacy_table THEN
+        INSERT INTO t_transaction (id, transaction_id, user_id, source_account_id, destination_account_id, type,
+                                   amount, transaction_time)
+        SELECT id, transaction_id, user_id, source_account_id, destination_account_id, type, amount,
+               coalesce(transaction_time, now())
+        FROM t_transaction_unpartitioned;
+        PERFORM setval(pg_get_serial_sequence('t_transaction', 'id'),
+                       (SELECT coalesce(max(id), 0) + 1 FROM t_transaction), false);
+        DROP TABLE t_transaction_unpartitioned;
+    END IF;
+END $$;
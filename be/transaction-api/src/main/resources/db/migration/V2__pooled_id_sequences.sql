@@ -0,0 +1,38 @@
+-- Moves the ids of t_transaction and t_transaction_items to sequences that hand out blocks of 50, so that
+-- Hibernate allocates ids without a round-trip per row and can batch the inserts.
+--
+-- Hibernate takes the value returned by nextval as the upper end of its block, so an existing table has its
+-- sequence set one block past the highest id.
+
+CREATE SEQUENCE t_transaction_seq START WITH 1 INCREMENT BY 50;
+
+DO $$
+DECLARE
+    serial_sequence text := pg_get_serial_sequence('t_transaction', 'id');
+    max_id          bigint;
+BEGIN
+    SELECT max(id) INTO max_id FROM t_transaction;
+    IF max_id IS NOT NULL THEN
+        PERFORM setval('t_transaction_seq', max_id + 50, false);
+    END IF;
+    ALTER TABLE t_transaction ALTER COLUMN id SET DEFAULT nextval('t_transaction_seq');
+    IF serial_sequence IS NOT NULL THEN
+        EXECUTE format('DROP SEQUENCE %s', serial_sequence);
+    END IF;
+END $$;
+
+ALTER SEQUENCE t_transaction_seq OWNED BY t_transaction.id;
+
+-- t_transaction_items is still created by Hibernate, which creates its sequence along with it on a new database
+DO $$
+DECLARE
+    max_id bigint;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 't_transaction_items' AND relkind = 'r') THEN
+        CREATE SEQUENCE IF NOT EXISTS t_transaction_items_seq START WITH 1 INCREMENT BY 50;
+        EXECUTE 'SELECT max(id) FROM t_transaction_items' INTO max_id;
+        IF max_id IS NOT NULL THEN
+            PERFORM setval('t_transaction_items_seq', max_id + 50, false);
+        END IF;
+    END IF;
+END $$;
@@ -0,0 +1,26 @@
+-- Daily balance snapshots per account: the balance at the end of the day, from the transactions recorded in
+-- t_transaction. A balance at any time is the last snapshot before that day plus the transactions of the day.
+
+CREATE TABLE t_balance_snapshot (
+    account_id    varchar(255)   NOT NULL,
+    snapshot_date date           NOT NULL,
+    balance       numeric(38, 2) NOT NULL,
+    PRIMARY KEY (account_id, snapshot_date)
+);
+
+-- Snapshots of the transactions recorded so far
+INSERT INTO t_balance_snapshot (account_id, snapshot_date, balance)
+SELECT account_id, snapshot_date, sum(change) OVER (PARTITION BY account_id ORDER BY snapshot_date)
+FROM (
+    SELECT account_id, transaction_time::date AS snapshot_date, sum(change) AS change
+    FROM (
+        SELECT destination_account_id AS account_id, transaction_time, amount AS change
+        FROM t_transaction
+        WHERE lower(type) IN ('deposit', 'transfer') AND destination_account_id IS NOT NULL
+        UNION ALL
+        SELECT source_account_id, transaction_time, -amount
+        FROM t_transaction
+        WHERE lower(type) IN ('withdrawal', 'transfer') AND source_account_id IS NOT NULL
+    ) movements
+    GROUP BY account_id, transaction_time::date
+) daily_changes;
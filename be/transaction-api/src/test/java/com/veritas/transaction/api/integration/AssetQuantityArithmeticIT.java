@@ -0,0 +1,92 @@
+package com.veritas.transaction.api.integration;
+
+import com.veritas.transaction.api.util.AssetQuantities;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Benchmark of the arithmetic on the hot path of the asset quantities: check that the quantity covers an amount,
+ * then take it, or put it back when it does not. Quantities held as {@code long} minor units are compared with
+ * quantities held as {@link BigDecimal}, with amounts that arrive in minor units, as in the Asset Management API,
+ * and with amounts converted from the transaction amount on every operation, as in the Transaction API.
+ */
+@Slf4j
+class AssetQuantityArithmeticIT {
+
+    private static final int AMOUNTS = 1 << 16;
+
+    private static final int OPERATIONS = 50_000_000;
+
+    private static final int ROUNDS = 5;
+
+    private static final BigDecimal START_QUANTITY = new BigDecimal("100000000.00");
+
+    private final BigDecimal[] amounts = new BigDecimal[AMOUNTS];
+
+    private final long[] minorUnitAmounts = new long[AMOUNTS];
+
+    @Test
+    void minorUnitsAreCheaperThanBigDecimal() {
+        Random random = new Random(42);
+        for (int i = 0; i < AMOUNTS; i++) {
+            amounts[i] = BigDecimal.valueOf(random.nextInt(100_000) + 1, AssetQuantities.SCALE);
+            minorUnitAmounts[i] = AssetQuantities.toMinorUnits(amounts[i]);
+        }
+        Map<String, LongSupplier> variants = new LinkedHashMap<>();
+        variants.put("long minor units", this::withMinorUnits);
+        variants.put("long minor units converted from BigDecimal", this::withConvertedMinorUnits);
+        variants.put("BigDecimal", this::withBigDecimal);
+
+        Map<String, Double> nanosPerOperation = new LinkedHashMap<>();
+        Map<String, Long> results = new LinkedHashMap<>();
+        variants.forEach((name, variant) -> {
+            variant.getAsLong(); // warm up
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long startedAt = System.nanoTime();
+                results.put(name, variant.getAsLong());
+                best = Math.min(best, System.nanoTime() - startedAt);
+            }
+            nanosPerOperation.put(name, (double) best / OPERATIONS);
+        });
+        nanosPerOperation.forEach((name, nanos) -> log.info("{}: {} ns per operation", name,
+                String.format("%.2f", nanos)));
+
+        Assertions.assertEquals(1, results.values().stream().distinct().count(), "Results differ: " + results);
+        Assertions.assertTrue(nanosPerOperation.get("long minor units") < nanosPerOperation.get("BigDecimal"));
+    }
+
+    private long withMinorUnits() {
+        long quantity = AssetQuantities.toMinorUnits(START_QUANTITY);
+        for (int i = 0; i < OPERATIONS; i++) {
+            long amount = minorUnitAmounts[i & (AMOUNTS - 1)];
+            quantity = quantity >= amount ? quantity - amount : quantity + amount;
+        }
+        return quantity;
+    }
+
+    private long withConvertedMinorUnits() {
+        long quantity = AssetQuantities.toMinorUnits(START_QUANTITY);
+        for (int i = 0; i < OPERATIONS; i++) {
+            long amount = AssetQuantities.toMinorUnits(amounts[i & (AMOUNTS - 1)]);
+            quantity = quantity >= amount ? quantity - amount : quantity + amount;
+        }
+        return quantity;
+    }
+
+    private long withBigDecimal() {
+        BigDecimal quantity = START_QUANTITY;
+        for (int i = 0; i < OPERATIONS; i++) {
+            BigDecimal amount = amounts[i & (AMOUNTS - 1)];
+            quantity = quantity.compareTo(amount) >= 0 ? quantity.subtract(amount) : quantity.add(amount);
+        }
+        return AssetQuantities.toMinorUnits(quantity);
+    }
+}
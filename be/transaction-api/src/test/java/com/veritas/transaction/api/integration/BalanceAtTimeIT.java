@@ -0,0 +1,202 @@
+package com.veritas.transaction.api.integration;
+
+import com.veritas.transaction.api.cache.AssetQuantityCache;
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.model.Transaction;
+import com.veritas.transaction.api.repository.BalanceSnapshotRepository;
+import com.veritas.transaction.api.repository.TransactionRepository;
+import com.veritas.transaction.api.saga.SagaEngine;
+import com.veritas.transaction.api.service.BalanceSnapshotService;
+import com.veritas.transaction.api.service.TransactionEventOutbox;
+import com.veritas.transaction.api.service.TransactionPartitionMaintenance;
+import com.veritas.transaction.api.service.TransactionService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+/**
+ * Latency benchmark for balance-at-time queries of {@link BalanceSnapshotService} over a synthetic ledger,
+ * 50 million rows by default ({@code -Dledger.rows} to change), compared with replaying the whole history, and
+ * check of the balances after importing back-dated transactions through
+ * {@link TransactionService#recordTransactions(List)}.
+ */
+@Slf4j
+@Testcontainers
+class BalanceAtTimeIT {
+
+    private static final long ROWS = Long.getLong("ledger.rows", 50_000_000L);
+
+    private static final long ROWS_PER_STATEMENT = 1_000_000;
+
+    private static final int ACCOUNTS = 10_000;
+
+    private static final int MONTHS = 24;
+
+    private static final int QUERIES = 200;
+
+    private static final YearMonth FIRST_MONTH = YearMonth.now().minusMonths(MONTHS - 1);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15.2");
+
+    private static HikariDataSource dataSource;
+
+    private static LocalContainerEntityManagerFactoryBean factoryBean;
+
+    @BeforeAll
+    static void setUpLedger() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgreSQLContainer.getJdbcUrl());
+        dataSource.setUsername(postgreSQLContainer.getUsername());
+        dataSource.setPassword(postgreSQLContainer.getPassword());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // The ledger is loaded before the snapshot migration, which then builds the snapshots of the loaded rows
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+        for (int i = 0; i < MONTHS; i++) {
+            YearMonth month = FIRST_MONTH.plusMonths(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TransactionPartitionMaintenance.partitionName(month)
+                    + " PARTITION OF t_transaction FOR VALUES FROM ('" + month.atDay(1) + "') TO ('"
+                    + month.plusMonths(1).atDay(1) + "')");
+        }
+        long spanSeconds = (long) MONTHS * 30 * 24 * 3600 - 1;
+        long startedAt = System.nanoTime();
+        for (long first = 0; first < ROWS; first += ROWS_PER_STATEMENT) {
+            jdbcTemplate.update("""
+                    INSERT INTO t_transaction (transaction_id, user_id, source_account_id, destination_account_id,
+                                               type, amount, transaction_time)
+                    SELECT 'tx-' || n, 'auth0|' || (n % ?), 'account-' || (n % ?), 'account-' || ((n * 7 + 1) % ?),
+                           (ARRAY['deposit', 'withdrawal', 'transfer'])[n % 3 + 1], (n % 10000) / 100.0,
+                           ?::timestamp + make_interval(secs => (n * 104729) % ?)
+                    FROM generate_series(?::bigint, ?::bigint) AS n
+                    """, ACCOUNTS, ACCOUNTS, ACCOUNTS, FIRST_MONTH.atDay(1).atStartOfDay(), spanSeconds,
+                    first, Math.min(first + ROWS_PER_STATEMENT, ROWS) - 1);
+        }
+        log.info("Loaded {} ledger rows in {} s", ROWS, (System.nanoTime() - startedAt) / 1_000_000_000);
+
+        startedAt = System.nanoTime();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Built the snapshots in {} s", (System.nanoTime() - startedAt) / 1_000_000_000);
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.veritas.transaction.api.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "update",
+                "hibernate.hbm2ddl.extra_physical_table_types", "PARTITIONED TABLE"));
+        factoryBean.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void tearDownLedger() {
+        factoryBean.destroy();
+        dataSource.close();
+    }
+
+    @Test
+    void snapshotsAnswerFasterThanFullReplay() {
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(factoryBean.getObject());
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        TransactionRepository transactionRepository = repositoryFactory.getRepository(TransactionRepository.class);
+        BalanceSnapshotService balanceSnapshotService = new BalanceSnapshotService(
+                repositoryFactory.getRepository(BalanceSnapshotRepository.class), transactionRepository,
+                Mockito.mock(AccountClient.class));
+        TransactionTemplate readOnlyTransaction =
+                new TransactionTemplate(new JpaTransactionManager(factoryBean.getObject()));
+        readOnlyTransaction.setReadOnly(true);
+
+        Random random = new Random(42);
+        long[] snapshotNanos = new long[QUERIES];
+        long[] replayNanos = new long[QUERIES];
+        LocalDateTime beforeLedger = FIRST_MONTH.atDay(1).atStartOfDay().minusDays(1);
+        for (int i = 0; i < QUERIES; i++) {
+            String accountId = "account-" + random.nextInt(ACCOUNTS);
+            LocalDateTime at = FIRST_MONTH.atDay(1).atStartOfDay().plusMinutes(random.nextInt(MONTHS * 30 * 24 * 60));
+
+            long startedAt = System.nanoTime();
+            BigDecimal fromSnapshot = readOnlyTransaction.execute(status ->
+                    balanceSnapshotService.getBalanceAt(accountId, at));
+            snapshotNanos[i] = System.nanoTime() - startedAt;
+
+            startedAt = System.nanoTime();
+            BigDecimal fromReplay = readOnlyTransaction.execute(status ->
+                    transactionRepository.sumBalanceChange(accountId, beforeLedger, at));
+            replayNanos[i] = System.nanoTime() - startedAt;
+
+            Assertions.assertEquals(0, fromReplay.compareTo(fromSnapshot), accountId + " at " + at);
+        }
+        Arrays.sort(snapshotNanos);
+        Arrays.sort(replayNanos);
+        log.info("{} rows, balance at time from snapshots: p50 {} us, p99 {} us", ROWS,
+                snapshotNanos[QUERIES / 2] / 1_000, snapshotNanos[QUERIES * 99 / 100] / 1_000);
+        log.info("{} rows, balance at time from full replay: p50 {} us, p99 {} us", ROWS,
+                replayNanos[QUERIES / 2] / 1_000, replayNanos[QUERIES * 99 / 100] / 1_000);
+        Assertions.assertTrue(snapshotNanos[QUERIES / 2] < replayNanos[QUERIES / 2]);
+    }
+
+    @Test
+    void importedHistoryKeepsItsTransactionTimes() {
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(factoryBean.getObject());
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        TransactionRepository transactionRepository = repositoryFactory.getRepository(TransactionRepository.class);
+        BalanceSnapshotService balanceSnapshotService = new BalanceSnapshotService(
+                repositoryFactory.getRepository(BalanceSnapshotRepository.class), transactionRepository,
+                Mockito.mock(AccountClient.class));
+        TransactionService transactionService = new TransactionService(transactionRepository,
+                Mockito.mock(AssetQuantityCache.class), Mockito.mock(TransactionEventOutbox.class),
+                Mockito.mock(AccountClient.class), Mockito.mock(SagaEngine.class), balanceSnapshotService,
+                Mockito.mock(Executor.class));
+        TransactionTemplate transaction = new TransactionTemplate(new JpaTransactionManager(factoryBean.getObject()));
+        LocalDateTime importedAt = FIRST_MONTH.plusMonths(1).atDay(10).atTime(9, 30);
+
+        transaction.executeWithoutResult(status -> transactionService.recordTransactions(List.of(
+                imported("imported-1", "deposit", "100.00", importedAt),
+                imported("imported-2", "withdrawal", "30.00", importedAt.plusDays(3)))));
+        transaction.executeWithoutResult(status -> transactionService.recordTransactions(List.of(
+                imported("imported-3", "deposit", "5.00", null))));
+
+        Map<LocalDateTime, String> expectedBalances = Map.of(
+                importedAt.minusMinutes(1), "0",
+                importedAt, "100.00",
+                importedAt.plusDays(2), "100.00",
+                importedAt.plusDays(3), "70.00",
+                LocalDateTime.now().plusMinutes(1), "75.00");
+        expectedBalances.forEach((at, expected) -> Assertions.assertEquals(0, new BigDecimal(expected).compareTo(
+                transaction.execute(status -> balanceSnapshotService.getBalanceAt("account-imported", at))),
+                "account-imported at " + at));
+    }
+
+    private static Transaction imported(String transactionId, String type, String amount,
+                                        LocalDateTime transactionTime) {
+        boolean deposit = type.equals("deposit");
+        return new Transaction(null, transactionId, "auth0|imported", deposit ? null : "account-imported",
+                deposit ? "account-imported" : null, type, new BigDecimal(amount), transactionTime);
+    }
+}
@@ -0,0 +1,146 @@
+package com.veritas.transaction.api.integration;
+
+import com.veritas.transaction.api.cache.AssetQuantityCache;
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.model.Transaction;
+import com.veritas.transaction.api.repository.BalanceSnapshotRepository;
+import com.veritas.transaction.api.repository.TransactionRepository;
+import com.veritas.transaction.api.saga.SagaEngine;
+import com.veritas.transaction.api.service.BalanceSnapshotService;
+import com.veritas.transaction.api.service.TransactionEventOutbox;
+import com.veritas.transaction.api.service.TransactionService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Insert throughput benchmark for {@link TransactionService#recordTransactions(List)} against Postgres, at
+ * different JDBC batch sizes. A batch size of 1 is what the inserts did before ids came from a pooled sequence.
+ * The balance snapshots of the batch are updated along with it, as in production.
+ */
+@Slf4j
+@Testcontainers
+class TransactionBatchInsertIT {
+
+    private static final int TRANSACTIONS = 20_000;
+
+    private static final int TRANSACTIONS_PER_FLUSH = 1_000;
+
+    private static final int[] BATCH_SIZES = {1, 50, 500};
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15.2");
+
+    private static HikariDataSource dataSource;
+
+    @BeforeAll
+    static void setUpPostgres() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgreSQLContainer.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        dataSource.setUsername(postgreSQLContainer.getUsername());
+        dataSource.setPassword(postgreSQLContainer.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @AfterAll
+    static void tearDownPostgres() {
+        dataSource.close();
+    }
+
+    @Test
+    void largerBatchesInsertFaster() {
+        Map<Integer, Double> transactionsPerSecond = new LinkedHashMap<>();
+        for (int batchSize : BATCH_SIZES) {
+            transactionsPerSecond.put(batchSize, measureInserts(batchSize));
+        }
+        transactionsPerSecond.forEach((batchSize, throughput) ->
+                log.info("batch size {}: {} inserts/s", batchSize, Math.round(throughput)));
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM t_transaction", Long.class);
+        Long distinctIds = jdbcTemplate.queryForObject("SELECT count(DISTINCT id) FROM t_transaction", Long.class);
+        Assertions.assertEquals(rows, distinctIds);
+        Assertions.assertTrue(transactionsPerSecond.get(50) > transactionsPerSecond.get(1));
+    }
+
+    private double measureInserts(int batchSize) {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.veritas.transaction.api.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "update",
+                "hibernate.hbm2ddl.extra_physical_table_types", "PARTITIONED TABLE",
+                "hibernate.jdbc.batch_size", batchSize,
+                "hibernate.order_inserts", true));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        try {
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+            TransactionRepository transactionRepository = repositoryFactory.getRepository(TransactionRepository.class);
+            BalanceSnapshotService balanceSnapshotService = new BalanceSnapshotService(
+                    repositoryFactory.getRepository(BalanceSnapshotRepository.class), transactionRepository,
+                    Mockito.mock(AccountClient.class));
+            TransactionService transactionService = new TransactionService(transactionRepository,
+                    Mockito.mock(AssetQuantityCache.class), Mockito.mock(TransactionEventOutbox.class),
+                    Mockito.mock(AccountClient.class), Mockito.mock(SagaEngine.class), balanceSnapshotService,
+                    Mockito.mock(Executor.class));
+            TransactionTemplate transactionTemplate =
+                    new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+
+            // Warm up the connections and the statement caches
+            transactionTemplate.executeWithoutResult(status ->
+                    transactionService.recordTransactions(transactions(TRANSACTIONS_PER_FLUSH)));
+
+            long startedAt = System.nanoTime();
+            for (int i = 0; i < TRANSACTIONS / TRANSACTIONS_PER_FLUSH; i++) {
+                transactionTemplate.executeWithoutResult(status ->
+                        transactionService.recordTransactions(transactions(TRANSACTIONS_PER_FLUSH)));
+            }
+            return TRANSACTIONS / ((System.nanoTime() - startedAt) / 1_000_000_000.0);
+        } finally {
+            factoryBean.destroy();
+        }
+    }
+
+    private static List<Transaction> transactions(int count) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setTransactionId(UUID.randomUUID().toString());
+            transaction.setUserId("auth0|" + i % 100);
+            transaction.setSourceAccountId("account-" + i % 1000);
+            transaction.setDestinationAccountId("account-" + (i + 1) % 1000);
+            transaction.setType("transfer");
+            transaction.setAmount(BigDecimal.TEN);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
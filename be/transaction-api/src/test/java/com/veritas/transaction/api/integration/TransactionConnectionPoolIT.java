@@ -0,0 +1,201 @@
+package com.veritas.transaction.api.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veritas.transaction.api.cache.AssetQuantityCache;
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.client.AssetManagementClient;
+import com.veritas.transaction.api.dto.AccountResponse;
+import com.veritas.transaction.api.dto.AssetQuantityResponse;
+import com.veritas.transaction.api.dto.MovementRequest;
+import com.veritas.transaction.api.dto.MovementResult;
+import com.veritas.transaction.api.dto.MovementStatus;
+import com.veritas.transaction.api.dto.TransactionRequest;
+import com.veritas.transaction.api.event.TransactionEvent;
+import com.veritas.transaction.api.repository.TransactionRepository;
+import com.veritas.transaction.api.saga.SagaEngine;
+import com.veritas.transaction.api.saga.TransactionSagas;
+import com.veritas.transaction.api.service.BalanceSnapshotService;
+import com.veritas.transaction.api.service.TransactionEventOutbox;
+import com.veritas.transaction.api.service.TransactionPartitionMaintenance;
+import com.veritas.transaction.api.service.TransactionService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs more concurrent transactions through {@link TransactionService#processTransaction(TransactionRequest)}
+ * than the connection pool has connections, against downstream stubs that block for {@value #LATENCY_MILLIS} ms
+ * per call. The remote calls and saga steps hold no connection, so the transactions complete instead of waiting
+ * for the connection timeout.
+ */
+@Slf4j
+@Testcontainers
+class TransactionConnectionPoolIT {
+
+    private static final int POOL_SIZE = 4;
+
+    private static final int CONCURRENT_TRANSACTIONS = 64;
+
+    private static final long LATENCY_MILLIS = 50;
+
+    private static final String USER_ID = "auth0|1";
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15.2");
+
+    @Test
+    void transactionsBeyondThePoolSizeComplete() throws InterruptedException {
+        ExecutorService transactionExecutor = Executors.newFixedThreadPool(CONCURRENT_TRANSACTIONS);
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(PoolConfig.class)) {
+            TransactionService transactionService = context.getBean(TransactionService.class);
+            List<CompletableFuture<String>> transactions = new ArrayList<>();
+            long startedAt = System.nanoTime();
+            for (int i = 0; i < CONCURRENT_TRANSACTIONS; i++) {
+                TransactionRequest deposit = new TransactionRequest(USER_ID, null, "account-" + i, "deposit", "EUR",
+                        BigDecimal.TEN);
+                transactions.add(CompletableFuture.supplyAsync(() -> transactionService.processTransaction(deposit),
+                        transactionExecutor));
+            }
+            CompletableFuture.allOf(transactions.toArray(CompletableFuture[]::new)).join();
+            log.info("{} concurrent transactions on {} connections completed in {} ms", CONCURRENT_TRANSACTIONS,
+                    POOL_SIZE, (System.nanoTime() - startedAt) / 1_000_000);
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+            Assertions.assertEquals(CONCURRENT_TRANSACTIONS,
+                    jdbcTemplate.queryForObject("SELECT count(*) FROM t_transaction", Integer.class));
+            Assertions.assertEquals(CONCURRENT_TRANSACTIONS,
+                    jdbcTemplate.queryForObject("SELECT count(*) FROM t_saga WHERE status = 'COMPLETED'", Integer.class));
+            Assertions.assertEquals(CONCURRENT_TRANSACTIONS,
+                    jdbcTemplate.queryForObject("SELECT count(*) FROM t_outbox_event", Integer.class));
+        } finally {
+            transactionExecutor.shutdown();
+            Assertions.assertTrue(transactionExecutor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    /**
+     * The transaction processing with a small connection pool and stubbed downstream services.
+     */
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = TransactionRepository.class)
+    @Import({TransactionService.class, SagaEngine.class, TransactionSagas.class, BalanceSnapshotService.class,
+            TransactionEventOutbox.class})
+    static class PoolConfig {
+
+        @Bean(destroyMethod = "close")
+        HikariDataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(postgreSQLContainer.getJdbcUrl());
+            dataSource.setUsername(postgreSQLContainer.getUsername());
+            dataSource.setPassword(postgreSQLContainer.getPassword());
+            dataSource.setMaximumPoolSize(POOL_SIZE);
+            dataSource.setConnectionTimeout(Duration.ofSeconds(5).toMillis());
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            YearMonth month = YearMonth.now();
+            new JdbcTemplate(dataSource).execute("CREATE TABLE IF NOT EXISTS "
+                    + TransactionPartitionMaintenance.partitionName(month) + " PARTITION OF t_transaction FOR VALUES"
+                    + " FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            return dataSource;
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+            factoryBean.setDataSource(dataSource);
+            factoryBean.setPackagesToScan("com.veritas.transaction.api.model");
+            factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factoryBean.setJpaPropertyMap(Map.of(
+                    "hibernate.hbm2ddl.auto", "update",
+                    "hibernate.hbm2ddl.extra_physical_table_types", "PARTITIONED TABLE"));
+            return factoryBean;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        ExecutorService remoteCallExecutor() {
+            return Executors.newFixedThreadPool(CONCURRENT_TRANSACTIONS * 2);
+        }
+
+        @Bean
+        AccountClient accountClient() {
+            AccountClient accountClient = Mockito.mock(AccountClient.class);
+            Mockito.when(accountClient.getAccountById(Mockito.anyString())).thenAnswer(invocation -> {
+                Thread.sleep(LATENCY_MILLIS);
+                return AccountResponse.builder().id(invocation.getArgument(0)).userId(USER_ID).build();
+            });
+            Mockito.when(accountClient.applyMovements(Mockito.any())).thenAnswer(invocation -> {
+                Thread.sleep(LATENCY_MILLIS);
+                List<MovementRequest> movements = invocation.getArgument(0);
+                return movements.stream().map(movement -> new MovementResult(movement.getMovementId(),
+                        movement.getAccountId(), movement.getAmount(), MovementStatus.APPLIED)).toList();
+            });
+            return accountClient;
+        }
+
+        @Bean
+        AssetManagementClient assetManagementClient() {
+            AssetManagementClient assetManagementClient = Mockito.mock(AssetManagementClient.class);
+            Mockito.when(assetManagementClient.getAssetQuantities(Mockito.any()))
+                    .thenReturn(List.of(new AssetQuantityResponse("EUR", Long.MAX_VALUE)));
+            Mockito.doAnswer(invocation -> {
+                Thread.sleep(LATENCY_MILLIS);
+                return null;
+            }).when(assetManagementClient).updateAssetAmount(Mockito.anyString(), Mockito.anyLong());
+            return assetManagementClient;
+        }
+
+        @Bean
+        AssetQuantityCache assetQuantityCache(AssetManagementClient assetManagementClient) {
+            return new AssetQuantityCache(assetManagementClient, Duration.ofMinutes(1), 10_000,
+                    new SimpleMeterRegistry());
+        }
+
+        @Bean
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, TransactionEvent> kafkaTemplate() {
+            return Mockito.mock(KafkaTemplate.class);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.veritas.transaction.api.unit.cache;
+
+import com.veritas.transaction.api.cache.AssetQuantityCache;
+import com.veritas.transaction.api.client.AssetManagementClient;
+import com.veritas.transaction.api.dto.AssetQuantityResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link AssetQuantityCache} class, backed by an in-memory stand-in for the Asset Management API.
+ */
+@Slf4j
+class AssetQuantityCacheTest {
+
+    private static final int ASSETS = 30;
+
+    private static final int TRANSACTIONS = 20_000;
+
+    private static final int TRANSACTIONS_PER_EVENT = 50;
+
+    private final Map<String, Long> quantities = new HashMap<>();
+
+    private final AssetManagementClient assetManagementClient = Mockito.mock(AssetManagementClient.class);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(assetManagementClient.getAssetQuantities(Mockito.any())).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream()
+                        .map(assetCode -> new AssetQuantityResponse(assetCode, quantities.get(assetCode)))
+                        .toList());
+        for (int i = 0; i < ASSETS; i++) {
+            quantities.put("ASSET-" + i, 1_000L);
+        }
+    }
+
+    /**
+     * Test for {@link AssetQuantityCache#isAvailable(String, long)} under a mix of transactions over popular
+     * and rare assets with any amounts, while the quantities change.
+     */
+    @Test
+    void testRealisticMixIsAnsweredLocally() {
+        // Given
+        AssetQuantityCache assetQuantityCache = new AssetQuantityCache(assetManagementClient, Duration.ofMinutes(1),
+                10_000, new SimpleMeterRegistry());
+        Random random = new Random(42);
+        double[] cumulativeWeights = new double[ASSETS];
+        double totalWeight = 0;
+        for (int rank = 0; rank < ASSETS; rank++) {
+            totalWeight += 1.0 / (rank + 1); // a few popular assets, a long tail of rare ones
+            cumulativeWeights[rank] = totalWeight;
+        }
+        Map<String, Long> published = new HashMap<>(quantities);
+        Set<String> changed = new LinkedHashSet<>();
+
+        // When
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            double draw = random.nextDouble() * totalWeight;
+            int rank = 0;
+            while (cumulativeWeights[rank] < draw) {
+                rank++;
+            }
+            String assetCode = "ASSET-" + rank;
+            long amount = random.nextInt(100) + 1;
+
+            boolean available = assetQuantityCache.isAvailable(assetCode, amount);
+            Assertions.assertEquals(published.get(assetCode) >= amount, available);
+            if (random.nextBoolean()) { // a deposit or a withdrawal changes the quantity
+                long delta = available && random.nextBoolean() ? -amount : amount;
+                quantities.merge(assetCode, delta, Long::sum);
+                changed.add(assetCode);
+            }
+            if (i % TRANSACTIONS_PER_EVENT == TRANSACTIONS_PER_EVENT - 1) {
+                List<AssetQuantityResponse> event = new ArrayList<>();
+                changed.forEach(code -> event.add(new AssetQuantityResponse(code, quantities.get(code))));
+                assetQuantityCache.apply(event);
+                published.putAll(quantities);
+                changed.clear();
+            }
+        }
+        log.info("Hit ratio {} over {} transactions", assetQuantityCache.getHitRatio(), TRANSACTIONS);
+
+        // Then
+        Assertions.assertTrue(assetQuantityCache.getHitRatio() > 0.95, "Hit ratio " + assetQuantityCache.getHitRatio());
+        Mockito.verify(assetManagementClient, Mockito.atMost(ASSETS)).getAssetQuantities(Mockito.any());
+    }
+
+    /**
+     * Test for {@link AssetQuantityCache#apply(List)} and the expiry of entries.
+     */
+    @Test
+    void testEventsReplaceQuantitiesAndEntriesExpire() {
+        // Given
+        AssetQuantityCache assetQuantityCache = new AssetQuantityCache(assetManagementClient, Duration.ofMinutes(1),
+                10_000, new SimpleMeterRegistry());
+        AssetQuantityCache expiringCache = new AssetQuantityCache(assetManagementClient, Duration.ZERO, 10_000,
+                new SimpleMeterRegistry());
+
+        // When
+        assetQuantityCache.apply(List.of(new AssetQuantityResponse("ASSET-0", 5L),
+                new AssetQuantityResponse("UNKNOWN", null)));
+        expiringCache.getQuantity("ASSET-0");
+        expiringCache.getQuantity("ASSET-0");
+
+        // Then
+        Assertions.assertTrue(assetQuantityCache.isAvailable("ASSET-0", 5));
+        Assertions.assertFalse(assetQuantityCache.isAvailable("ASSET-0", 6));
+        Assertions.assertFalse(assetQuantityCache.isAvailable("UNKNOWN", 1));
+        Assertions.assertEquals(1.0, assetQuantityCache.getHitRatio());
+        Assertions.assertEquals(0.0, expiringCache.getHitRatio());
+        Mockito.verify(assetManagementClient, Mockito.times(2)).getAssetQuantities(List.of("ASSET-0"));
+    }
+}
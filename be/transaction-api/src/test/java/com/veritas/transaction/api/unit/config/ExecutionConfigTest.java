@@ -0,0 +1,82 @@
+package com.veritas.transaction.api.unit.config;
+
+import com.veritas.transaction.api.config.ExecutionConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for {@link ExecutionConfig} class.
+ */
+class ExecutionConfigTest {
+
+    private final ExecutionConfig executionConfig = new ExecutionConfig();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(executionConfig, "poolSize", 1);
+        ReflectionTestUtils.setField(executionConfig, "queueCapacity", 1);
+        ReflectionTestUtils.setField(executionConfig, "remoteCallPoolSize", 1);
+        ReflectionTestUtils.setField(executionConfig, "remoteCallQueueCapacity", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    /**
+     * Test for {@link ExecutionConfig#transactionExecutor()}, where a transaction beyond the pool and its queue is
+     * rejected.
+     */
+    @Test
+    void testTransactionExecutorIsBounded() {
+        // Given
+        ExecutorService executor = executionConfig.transactionExecutor();
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+
+        // When / Then
+        Assertions.assertInstanceOf(ThreadPoolExecutor.class, executor);
+        Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(this::awaitRelease));
+        executor.shutdown();
+    }
+
+    /**
+     * Test for {@link ExecutionConfig#remoteCallExecutor()}, where a remote call beyond the pool and its queue runs
+     * on the calling thread.
+     */
+    @Test
+    void testRemoteCallExecutorRunsOnCallerWhenFull() {
+        // Given
+        ExecutorService executor = executionConfig.remoteCallExecutor();
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+        AtomicReference<Thread> runner = new AtomicReference<>();
+
+        // When
+        executor.execute(() -> runner.set(Thread.currentThread()));
+
+        // Then
+        Assertions.assertSame(Thread.currentThread(), runner.get());
+        executor.shutdown();
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
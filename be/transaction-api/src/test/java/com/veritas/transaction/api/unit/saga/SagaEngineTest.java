@@ -0,0 +1,374 @@
+package com.veritas.transaction.api.unit.saga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.client.AssetManagementClient;
+import com.veritas.transaction.api.dto.MovementRequest;
+import com.veritas.transaction.api.dto.MovementResult;
+import com.veritas.transaction.api.dto.AssetReservationResponse;
+import com.veritas.transaction.api.dto.MovementStatus;
+import com.veritas.transaction.api.dto.ReservationStatus;
+import com.veritas.transaction.api.dto.TransactionRequest;
+import com.veritas.transaction.api.model.Saga;
+import com.veritas.transaction.api.repository.SagaRepository;
+import com.veritas.transaction.api.saga.SagaEngine;
+import com.veritas.transaction.api.saga.SagaStatus;
+import com.veritas.transaction.api.saga.TransactionSagas;
+import com.veritas.transaction.api.util.AssetQuantities;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for {@link SagaEngine} class running the {@link TransactionSagas} against in-memory downstreams.
+ */
+@Slf4j
+class SagaEngineTest {
+
+    private static final int SAGAS = 2_000;
+
+    private static final int ACCOUNTS = 20;
+
+    private static final double ASSET_FAILURE_RATE = 0.2;
+
+    private final Map<String, BigDecimal> balances = new ConcurrentHashMap<>();
+
+    private final Set<String> appliedMovementIds = new HashSet<>();
+
+    private final AtomicLong assetAmount = new AtomicLong();
+
+    private final Map<String, AssetReservationResponse> reservations = new HashMap<>();
+
+    private final Map<String, Saga> sagas = new ConcurrentHashMap<>();
+
+    private final SagaRepository sagaRepository = Mockito.mock(SagaRepository.class);
+
+    private final AssetManagementClient assetManagementClient = Mockito.mock(AssetManagementClient.class);
+
+    private ExecutorService compensationExecutor;
+
+    private SagaEngine sagaEngine;
+
+    @BeforeEach
+    void setUp() {
+        AccountClient accountClient = Mockito.mock(AccountClient.class);
+        Mockito.when(accountClient.applyMovements(Mockito.any()))
+                .thenAnswer(invocation -> applyMovements(invocation.getArgument(0)));
+        Mockito.when(assetManagementClient.reserveAsset(Mockito.anyString(), Mockito.anyString(), Mockito.anyLong()))
+                .thenAnswer(invocation -> reserveAsset(invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(2)));
+        Mockito.when(assetManagementClient.commitReservation(Mockito.anyString()))
+                .thenAnswer(invocation -> finishReservation(invocation.getArgument(0), ReservationStatus.COMMITTED));
+        Mockito.when(assetManagementClient.releaseReservation(Mockito.anyString()))
+                .thenAnswer(invocation -> finishReservation(invocation.getArgument(0), ReservationStatus.RELEASED));
+        Mockito.when(sagaRepository.save(Mockito.any())).thenAnswer(invocation -> {
+            Saga saga = invocation.getArgument(0);
+            sagas.put(saga.getSagaId(), saga);
+            return saga;
+        });
+        Mockito.when(sagaRepository.claim(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyString(),
+                Mockito.any())).thenReturn(1);
+        PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        Mockito.when(transactionManager.getTransaction(Mockito.any())).thenReturn(Mockito.mock(TransactionStatus.class));
+
+        TransactionSagas transactionSagas = new TransactionSagas(accountClient, assetManagementClient);
+        compensationExecutor = Executors.newFixedThreadPool(4);
+        sagaEngine = new SagaEngine(sagaRepository, new ObjectMapper(), compensationExecutor, transactionManager,
+                List.of(transactionSagas.depositSaga(), transactionSagas.withdrawalSaga(), transactionSagas.transferSaga()));
+        ReflectionTestUtils.setField(sagaEngine, "staleAfter", Duration.ZERO);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            balances.put("account-" + i, BigDecimal.ZERO);
+        }
+    }
+
+    /**
+     * Test for {@link SagaEngine#run(String, String, Object, Runnable)} with asset updates failing mid-saga.
+     */
+    @Test
+    void testDepositsStayConsistentWithMidStepFailures() throws InterruptedException {
+        // Given
+        Mockito.doAnswer(invocation -> {
+            long amount = invocation.getArgument(1);
+            if (amount > 0 && ThreadLocalRandom.current().nextDouble() < ASSET_FAILURE_RATE) {
+                throw new IllegalStateException("asset-management-api unavailable");
+            }
+            assetAmount.addAndGet(amount);
+            return null;
+        }).when(assetManagementClient).updateAssetAmount(Mockito.anyString(), Mockito.anyLong());
+        AtomicInteger completed = new AtomicInteger();
+
+        // When
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < SAGAS; i++) {
+            try {
+                sagaEngine.run(TransactionSagas.DEPOSIT, "saga-" + i, deposit("account-" + i % ACCOUNTS), () -> { });
+                completed.incrementAndGet();
+            } catch (IllegalStateException assetFailure) {
+                // compensated in the background
+            }
+        }
+        compensationExecutor.shutdown();
+        Assertions.assertTrue(compensationExecutor.awaitTermination(1, TimeUnit.MINUTES));
+        double sagasPerSecond = SAGAS / ((System.nanoTime() - startedAt) / 1_000_000_000.0);
+
+        // Then
+        log.info("{} deposit sagas with {}% failing asset updates: {} sagas/s, {} completed",
+                SAGAS, Math.round(ASSET_FAILURE_RATE * 100), Math.round(sagasPerSecond), completed.get());
+        BigDecimal expectedTotal = BigDecimal.TEN.multiply(BigDecimal.valueOf(completed.get()));
+        Assertions.assertEquals(0, expectedTotal.compareTo(balances.values().stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add)));
+        Assertions.assertEquals(AssetQuantities.toMinorUnits(expectedTotal), assetAmount.get());
+        Assertions.assertEquals(completed.get(), sagas.values().stream()
+                .filter(saga -> saga.getStatus() == SagaStatus.COMPLETED).count());
+        Assertions.assertEquals(SAGAS - completed.get(), sagas.values().stream()
+                .filter(saga -> saga.getStatus() == SagaStatus.COMPENSATED).count());
+    }
+
+    /**
+     * Test for {@link SagaEngine#run(String, String, Object, Runnable)} with concurrent withdrawals asking for more of the
+     * asset than there is.
+     */
+    @Test
+    void testWithdrawalsNeverOversellTheAsset() throws InterruptedException {
+        // Given
+        assetAmount.set(50_000); // 500.00 in minor units
+        balances.replaceAll((accountId, balance) -> BigDecimal.valueOf(1_000));
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        AtomicInteger completed = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            String sagaId = "saga-" + i;
+            TransactionRequest withdrawal = new TransactionRequest("auth0|1", "account-" + i % ACCOUNTS, null,
+                    "withdrawal", "EUR", BigDecimal.TEN);
+            writers.execute(() -> {
+                try {
+                    sagaEngine.run(TransactionSagas.WITHDRAWAL, sagaId, withdrawal, () -> { });
+                    completed.incrementAndGet();
+                } catch (IllegalArgumentException assetNotAvailable) {
+                    // rejected by the reservation
+                }
+            });
+        }
+        writers.shutdown();
+        Assertions.assertTrue(writers.awaitTermination(1, TimeUnit.MINUTES));
+        compensationExecutor.shutdown();
+        Assertions.assertTrue(compensationExecutor.awaitTermination(1, TimeUnit.MINUTES));
+
+        // Then
+        Assertions.assertEquals(50, completed.get());
+        Assertions.assertEquals(0, assetAmount.get());
+        Assertions.assertEquals(0, BigDecimal.valueOf(1_000L * ACCOUNTS - 500).compareTo(balances.values().stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add)));
+        Mockito.verify(assetManagementClient, Mockito.never()).updateAssetAmount(Mockito.anyString(), Mockito.anyLong());
+    }
+
+    /**
+     * Test for {@link SagaEngine#run(String, String, Object, Runnable)} with the caller's changes failing to
+     * commit, which must leave the saga to recovery with all of its steps counted.
+     */
+    @Test
+    void testFailedCompletionLeavesAllStepsCounted() {
+        // Given
+        List<SagaStatus> statusesWhenRecorded = new ArrayList<>();
+
+        // When
+        sagaEngine.run(TransactionSagas.TRANSFER, "saga-6", new TransactionRequest("auth0|1", "account-0",
+                "account-1", "transfer", "EUR", BigDecimal.ZERO), () -> statusesWhenRecorded.add(
+                sagas.get("saga-6").getStatus()));
+        Assertions.assertThrows(IllegalStateException.class, () -> sagaEngine.run(TransactionSagas.TRANSFER,
+                "saga-7", new TransactionRequest("auth0|1", "account-0", "account-1", "transfer", "EUR",
+                        BigDecimal.ZERO), () -> {
+                    throw new IllegalStateException("database unavailable");
+                }));
+
+        // Then
+        Assertions.assertEquals(List.of(SagaStatus.COMPLETED), statusesWhenRecorded);
+        Assertions.assertEquals(1, sagas.get("saga-7").getCompletedSteps());
+    }
+
+    /**
+     * Test for {@link SagaEngine#recover()} with sagas interrupted by a restart.
+     */
+    @Test
+    void testRecoverCompensatesInterruptedSagas() throws Exception {
+        // Given
+        balances.put("account-0", BigDecimal.valueOf(100));
+        TransactionRequest withdrawal = new TransactionRequest("auth0|1", "account-0", null, "withdrawal", "EUR",
+                BigDecimal.TEN);
+        // the debit went through, but the instance died before recording it
+        applyMovements(List.of(MovementRequest.builder().movementId("saga-1:debit-source").accountId("account-0")
+                .amount(BigDecimal.TEN.negate()).build()));
+        assetAmount.set(1_000);
+        reserveAsset("saga-1:asset", "EUR", 1_000);
+        Saga interruptedInDebit = saga("saga-1", TransactionSagas.WITHDRAWAL, 1, withdrawal);
+        Saga interruptedInAssetUpdate = saga("saga-2", TransactionSagas.DEPOSIT, 1, deposit("account-1"));
+        Mockito.when(sagaRepository.findByStatusInAndUpdatedAtBefore(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(interruptedInDebit, interruptedInAssetUpdate));
+
+        // When
+        sagaEngine.recover();
+
+        // Then
+        Assertions.assertEquals(SagaStatus.COMPENSATED, interruptedInDebit.getStatus());
+        Assertions.assertEquals(0, BigDecimal.valueOf(100).compareTo(balances.get("account-0")));
+        Assertions.assertEquals(SagaStatus.FAILED, interruptedInAssetUpdate.getStatus());
+        Assertions.assertEquals(ReservationStatus.RELEASED, reservations.get("saga-1:asset").getStatus());
+        Assertions.assertEquals(1_000, assetAmount.get());
+        Mockito.verify(assetManagementClient, Mockito.never()).updateAssetAmount(Mockito.anyString(), Mockito.anyLong());
+    }
+
+    /**
+     * Test for {@link SagaEngine#recover()} with a withdrawal whose asset commit applied but whose response was lost.
+     */
+    @Test
+    void testRecoverRetriesLostAssetCommit() throws Exception {
+        // Given
+        balances.put("account-0", BigDecimal.valueOf(90));
+        appliedMovementIds.add("saga-5:debit-source");
+        assetAmount.set(1_000);
+        reserveAsset("saga-5:asset", "EUR", 1_000);
+        finishReservation("saga-5:asset", ReservationStatus.COMMITTED);
+        Saga interruptedInCommit = saga("saga-5", TransactionSagas.WITHDRAWAL, 2, new TransactionRequest("auth0|1",
+                "account-0", null, "withdrawal", "EUR", BigDecimal.TEN));
+        Mockito.when(sagaRepository.findByStatusInAndUpdatedAtBefore(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(interruptedInCommit));
+
+        // When
+        sagaEngine.recover();
+
+        // Then
+        Assertions.assertEquals(SagaStatus.COMPLETED, interruptedInCommit.getStatus());
+        Assertions.assertEquals(ReservationStatus.COMMITTED, reservations.get("saga-5:asset").getStatus());
+        Assertions.assertEquals(0, BigDecimal.valueOf(90).compareTo(balances.get("account-0")));
+        Assertions.assertEquals(0, assetAmount.get());
+    }
+
+    /**
+     * Test for {@link SagaEngine#recover()} with a deposit compensation that failed after taking the asset amount,
+     * which must not take it out twice when it is repeated.
+     */
+    @Test
+    void testRepeatedDepositCompensationTakesAssetOnce() throws Exception {
+        // Given
+        balances.put("account-1", BigDecimal.TEN);
+        appliedMovementIds.add("saga-3:credit-destination");
+        assetAmount.set(5_000);
+        Saga compensating = saga("saga-3", TransactionSagas.DEPOSIT, 2, deposit("account-1"));
+        compensating.setStatus(SagaStatus.COMPENSATING);
+        Mockito.when(sagaRepository.findByStatusInAndUpdatedAtBefore(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(compensating));
+        Mockito.doThrow(new IllegalStateException("asset-management-api unavailable"))
+                .doAnswer(invocation -> finishReservation(invocation.getArgument(0), ReservationStatus.COMMITTED))
+                .when(assetManagementClient).commitReservation("saga-3:update-asset:compensation");
+
+        // When
+        sagaEngine.recover();
+        SagaStatus afterFailedCompensation = compensating.getStatus();
+        sagaEngine.recover();
+
+        // Then
+        Assertions.assertEquals(SagaStatus.COMPENSATING, afterFailedCompensation);
+        Assertions.assertEquals(SagaStatus.COMPENSATED, compensating.getStatus());
+        Assertions.assertEquals(4_000, assetAmount.get());
+        Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(balances.get("account-1")));
+    }
+
+    /**
+     * Test for {@link SagaEngine#recover()} with a saga that another instance claimed first.
+     */
+    @Test
+    void testRecoverSkipsSagasClaimedByAnotherInstance() throws Exception {
+        // Given
+        Saga claimedElsewhere = saga("saga-4", TransactionSagas.DEPOSIT, 1, deposit("account-1"));
+        claimedElsewhere.setStatus(SagaStatus.COMPENSATING);
+        Mockito.when(sagaRepository.findByStatusInAndUpdatedAtBefore(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(claimedElsewhere));
+        Mockito.when(sagaRepository.claim(Mockito.eq("saga-4"), Mockito.eq(SagaStatus.COMPENSATING), Mockito.any(),
+                Mockito.anyString(), Mockito.any())).thenReturn(0);
+
+        // When
+        sagaEngine.recover();
+
+        // Then
+        Assertions.assertEquals(SagaStatus.COMPENSATING, claimedElsewhere.getStatus());
+        Assertions.assertNull(claimedElsewhere.getOwner());
+        Mockito.verify(sagaRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    private synchronized List<MovementResult> applyMovements(List<MovementRequest> movements) {
+        return movements.stream().map(movement -> {
+            MovementStatus status;
+            BigDecimal balance = balances.get(movement.getAccountId());
+            if (appliedMovementIds.contains(movement.getMovementId())) {
+                status = MovementStatus.APPLIED;
+            } else if (balance == null) {
+                status = MovementStatus.ACCOUNT_NOT_FOUND;
+            } else if (balance.add(movement.getAmount()).signum() < 0) {
+                status = MovementStatus.INSUFFICIENT_FUNDS;
+            } else {
+                balances.put(movement.getAccountId(), balance.add(movement.getAmount()));
+                appliedMovementIds.add(movement.getMovementId());
+                status = MovementStatus.APPLIED;
+            }
+            return new MovementResult(movement.getMovementId(), movement.getAccountId(), movement.getAmount(), status);
+        }).toList();
+    }
+
+    private synchronized AssetReservationResponse reserveAsset(String reservationId, String assetCode, long amount) {
+        AssetReservationResponse reservation = reservations.get(reservationId);
+        if (reservation != null) {
+            return reservation;
+        }
+        if (assetAmount.get() < amount) {
+            return new AssetReservationResponse(reservationId, assetCode, amount, ReservationStatus.REJECTED, null);
+        }
+        assetAmount.addAndGet(-amount);
+        reservation = new AssetReservationResponse(reservationId, assetCode, amount, ReservationStatus.HELD, null);
+        reservations.put(reservationId, reservation);
+        return reservation;
+    }
+
+    private synchronized AssetReservationResponse finishReservation(String reservationId, ReservationStatus status) {
+        AssetReservationResponse reservation = reservations.get(reservationId);
+        if (reservation.getStatus() == ReservationStatus.HELD) {
+            reservation.setStatus(status);
+            if (status == ReservationStatus.RELEASED) {
+                assetAmount.addAndGet(reservation.getAmount());
+            }
+        } else if (reservation.getStatus() != status) {
+            throw new IllegalStateException("Reservation " + reservationId + " is " + reservation.getStatus());
+        }
+        return reservation;
+    }
+
+    private static TransactionRequest deposit(String accountId) {
+        return new TransactionRequest("auth0|1", null, accountId, "deposit", "EUR", BigDecimal.TEN);
+    }
+
+    private static Saga saga(String sagaId, String type, int completedSteps, TransactionRequest data) throws Exception {
+        return new Saga(sagaId, type, SagaStatus.STARTED, completedSteps, new ObjectMapper().writeValueAsString(data),
+                null, null, null);
+    }
+}
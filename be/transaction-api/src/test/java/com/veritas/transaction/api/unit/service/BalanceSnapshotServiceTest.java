@@ -0,0 +1,188 @@
+package com.veritas.transaction.api.unit.service;
+
+import com.veritas.transaction.api.cache.AssetQuantityCache;
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.dto.AccountResponse;
+import com.veritas.transaction.api.model.BalanceSnapshot;
+import com.veritas.transaction.api.model.Transaction;
+import com.veritas.transaction.api.repository.BalanceSnapshotRepository;
+import com.veritas.transaction.api.repository.TransactionRepository;
+import com.veritas.transaction.api.saga.SagaEngine;
+import com.veritas.transaction.api.service.BalanceSnapshotService;
+import com.veritas.transaction.api.service.TransactionEventOutbox;
+import com.veritas.transaction.api.service.TransactionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Unit tests for {@link BalanceSnapshotService} class, backed by in-memory stand-ins for the snapshot and
+ * transaction queries.
+ */
+class BalanceSnapshotServiceTest {
+
+    private static final List<String> ACCOUNTS = List.of("account-1", "account-2", "account-3");
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final Map<String, TreeMap<LocalDate, BigDecimal>> snapshots = new TreeMap<>();
+
+    private final List<Transaction> ledger = new ArrayList<>();
+
+    private final AccountClient accountClient = Mockito.mock(AccountClient.class);
+
+    private final TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
+
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        BalanceSnapshotRepository balanceSnapshotRepository = Mockito.mock(BalanceSnapshotRepository.class);
+        Mockito.doAnswer(invocation -> {
+            TreeMap<LocalDate, BigDecimal> days = snapshots.computeIfAbsent(invocation.getArgument(0),
+                    accountId -> new TreeMap<>());
+            LocalDate day = invocation.getArgument(1);
+            BigDecimal change = invocation.getArgument(2);
+            Map.Entry<LocalDate, BigDecimal> before = days.lowerEntry(day);
+            days.merge(day, change.add(before == null ? BigDecimal.ZERO : before.getValue()),
+                    (existing, created) -> existing.add(change));
+            return null;
+        }).when(balanceSnapshotRepository).addToSnapshot(Mockito.anyString(), Mockito.any(), Mockito.any());
+        Mockito.doAnswer(invocation -> {
+            BigDecimal change = invocation.getArgument(2);
+            snapshots.getOrDefault(invocation.getArgument(0), new TreeMap<>())
+                    .tailMap(invocation.getArgument(1), false)
+                    .replaceAll((day, balance) -> balance.add(change));
+            return null;
+        }).when(balanceSnapshotRepository).addToLaterSnapshots(Mockito.anyString(), Mockito.any(), Mockito.any());
+        Mockito.when(balanceSnapshotRepository.findBalanceBefore(Mockito.anyString(), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    Map.Entry<LocalDate, BigDecimal> before = snapshots
+                            .getOrDefault(invocation.getArgument(0), new TreeMap<>())
+                            .lowerEntry(invocation.getArgument(1));
+                    return before == null ? null : before.getValue();
+                });
+
+        Mockito.when(transactionRepository.sumBalanceChange(Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> replay(invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(2)));
+
+        balanceSnapshotService = new BalanceSnapshotService(balanceSnapshotRepository, transactionRepository,
+                accountClient);
+    }
+
+    /**
+     * Test for {@link BalanceSnapshotService#getBalanceAt(String, LocalDateTime)} against a full replay, with
+     * transactions applied out of order as an import would.
+     */
+    @Test
+    void testBalanceAtMatchesFullReplay() {
+        // Given
+        Random random = new Random(42);
+        String[] types = {"deposit", "withdrawal", "Transfer"};
+        for (int i = 0; i < 2_000; i++) {
+            Transaction transaction = new Transaction((long) i, "tx-" + i, "auth0|1",
+                    ACCOUNTS.get(random.nextInt(ACCOUNTS.size())), ACCOUNTS.get(random.nextInt(ACCOUNTS.size())),
+                    types[random.nextInt(types.length)], BigDecimal.valueOf(random.nextInt(10_000), 2),
+                    START.plusMinutes(random.nextInt(60 * 24 * 60)));
+            ledger.add(transaction);
+        }
+
+        // When
+        for (int i = 0; i < ledger.size(); i += 100) {
+            balanceSnapshotService.applyTransactions(ledger.subList(i, i + 100));
+        }
+
+        // Then
+        for (int i = 0; i < 500; i++) {
+            String accountId = ACCOUNTS.get(random.nextInt(ACCOUNTS.size()));
+            LocalDateTime at = START.plusMinutes(random.nextInt(60 * 24 * 62) - 60 * 24);
+            Assertions.assertEquals(0, replay(accountId, START.minusYears(1), at)
+                    .compareTo(balanceSnapshotService.getBalanceAt(accountId, at)), accountId + " at " + at);
+        }
+    }
+
+    /**
+     * Test for {@link TransactionService#recordTransactions(List)} with back-dated transactions recorded after a
+     * later one, which must change the balances of their own days and of the days after them.
+     */
+    @Test
+    void testRecordedBackDatedTransactionsChangePastBalances() {
+        // Given
+        Mockito.when(transactionRepository.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            ledger.addAll(transactions);
+            return transactions;
+        });
+        TransactionService transactionService = new TransactionService(transactionRepository,
+                Mockito.mock(AssetQuantityCache.class), Mockito.mock(TransactionEventOutbox.class), accountClient,
+                Mockito.mock(SagaEngine.class), balanceSnapshotService, Mockito.mock(Executor.class));
+        transactionService.recordTransactions(List.of(
+                transaction("tx-1", null, "deposit", "50.00", START.plusDays(10))));
+
+        // When
+        transactionService.recordTransactions(List.of(
+                transaction("tx-2", null, "deposit", "100.00", START.plusDays(1)),
+                transaction("tx-3", "account-1", "withdrawal", "30.00", START.plusDays(2).plusHours(8))));
+
+        // Then
+        Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(balanceSnapshotService.getBalanceAt("account-1",
+                START.plusHours(12))));
+        Assertions.assertEquals(0, new BigDecimal("100.00").compareTo(balanceSnapshotService.getBalanceAt(
+                "account-1", START.plusDays(2).plusHours(7))));
+        Assertions.assertEquals(0, new BigDecimal("70.00").compareTo(balanceSnapshotService.getBalanceAt(
+                "account-1", START.plusDays(5))));
+        Assertions.assertEquals(0, new BigDecimal("120.00").compareTo(balanceSnapshotService.getBalanceAt(
+                "account-1", START.plusDays(20))));
+        Assertions.assertEquals(new BigDecimal("120.00"), snapshots.get("account-1").get(START.plusDays(10)
+                .toLocalDate()));
+    }
+
+    /**
+     * Test for {@link BalanceSnapshotService#getBalanceAt(String, String, LocalDateTime)} with a foreign account.
+     */
+    @Test
+    void testBalanceOfForeignAccountIsRejected() {
+        // Given
+        Mockito.when(accountClient.getAccountById("account-1"))
+                .thenReturn(AccountResponse.builder().id("account-1").userId("auth0|2").build());
+
+        // When / Then
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> balanceSnapshotService.getBalanceAt("auth0|1", "account-1", START));
+    }
+
+    private static Transaction transaction(String transactionId, String sourceAccountId, String type, String amount,
+                                           LocalDateTime transactionTime) {
+        return new Transaction(null, transactionId, "auth0|1", sourceAccountId,
+                sourceAccountId == null ? "account-1" : null, type, new BigDecimal(amount), transactionTime);
+    }
+
+    private BigDecimal replay(String accountId, LocalDateTime from, LocalDateTime to) {
+        BigDecimal balance = BigDecimal.ZERO;
+        for (Transaction transaction : ledger) {
+            if (transaction.getTransactionTime().isBefore(from) || transaction.getTransactionTime().isAfter(to)) {
+                continue;
+            }
+            String type = transaction.getType().toLowerCase();
+            if (accountId.equals(transaction.getDestinationAccountId()) && !type.equals("withdrawal")) {
+                balance = balance.add(transaction.getAmount());
+            }
+            if (accountId.equals(transaction.getSourceAccountId()) && !type.equals("deposit")) {
+                balance = balance.subtract(transaction.getAmount());
+            }
+        }
+        return balance;
+    }
+}
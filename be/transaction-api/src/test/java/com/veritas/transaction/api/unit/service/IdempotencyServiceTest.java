@@ -0,0 +1,195 @@
+package com.veritas.transaction.api.unit.service;
+
+import com.veritas.transaction.api.service.IdempotencyKeyReusedException;
+import com.veritas.transaction.api.service.IdempotencyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link IdempotencyService} class, backed by an in-memory stand-in for Redis.
+ */
+class IdempotencyServiceTest {
+
+    private static final String REQUEST = "TransactionRequest(type=deposit, amount=10.00)";
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = Mockito.mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = Mockito.mock(ValueOperations.class);
+        Mockito.when(redisTemplate.opsForValue()).thenReturn(values);
+        Mockito.when(values.get(Mockito.anyString())).thenAnswer(invocation -> redis.get(invocation.getArgument(0)));
+        Mockito.when(values.setIfAbsent(Mockito.anyString(), Mockito.anyString(), Mockito.any(Duration.class)))
+                .thenAnswer(invocation -> redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        Mockito.doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(values).set(Mockito.anyString(), Mockito.anyString(), Mockito.any(Duration.class));
+        Mockito.when(redisTemplate.delete(Mockito.anyString()))
+                .thenAnswer(invocation -> redis.remove(invocation.getArgument(0)) != null);
+
+        executor = Executors.newFixedThreadPool(8);
+        idempotencyService = new IdempotencyService(redisTemplate);
+        ReflectionTestUtils.setField(idempotencyService, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(idempotencyService, "pendingTtl", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(idempotencyService, "pollInterval", Duration.ofMillis(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test for replaying a completed request.
+     */
+    @Test
+    void testReplayReturnsFirstResult() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        String first = idempotencyService.execute("auth0|1", "key-1", REQUEST,
+                () -> "result-" + executions.incrementAndGet(), executor).join();
+        String replay = idempotencyService.execute("auth0|1", "key-1", REQUEST,
+                () -> "result-" + executions.incrementAndGet(), executor).join();
+
+        // Then
+        Assertions.assertEquals("result-1", first);
+        Assertions.assertEquals("result-1", replay);
+        Assertions.assertEquals(1, executions.get());
+    }
+
+    /**
+     * Test for concurrent duplicates of a slow request.
+     */
+    @Test
+    void testConcurrentDuplicatesRunOnce() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<String>> duplicates = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            duplicates.add(idempotencyService.execute("auth0|1", "key-2", REQUEST, () -> {
+                executions.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "done";
+            }, executor));
+        }
+        release.countDown();
+
+        // Then
+        duplicates.forEach(duplicate -> Assertions.assertEquals("done", duplicate.join()));
+        Assertions.assertEquals(1, executions.get());
+    }
+
+    /**
+     * Test for retrying a failed request and for keys of different users.
+     */
+    @Test
+    void testFailedRequestCanBeRetried() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        CompletableFuture<String> failed = idempotencyService.execute("auth0|1", "key-3", REQUEST, () -> {
+            executions.incrementAndGet();
+            throw new IllegalArgumentException("Insufficient funds");
+        }, executor);
+        Assertions.assertThrows(Exception.class, failed::join);
+        String retried = idempotencyService.execute("auth0|1", "key-3", REQUEST,
+                () -> "retry-" + executions.incrementAndGet(), executor).join();
+        String otherUser = idempotencyService.execute("auth0|2", "key-3", REQUEST,
+                () -> "other-" + executions.incrementAndGet(), executor).join();
+
+        // Then
+        Assertions.assertEquals("retry-2", retried);
+        Assertions.assertEquals("other-3", otherUser);
+    }
+
+    /**
+     * Test for reusing a key with a different request, after the first one completed and while it is running.
+     */
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() throws InterruptedException {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        idempotencyService.execute("auth0|1", "key-4", REQUEST, () -> "done", executor).join();
+        CompletableFuture<String> running = idempotencyService.execute("auth0|1", "key-5", REQUEST, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        }, executor);
+        started.await();
+
+        // When
+        CompletableFuture<String> afterCompletion = idempotencyService.execute("auth0|1", "key-4",
+                "TransactionRequest(type=deposit, amount=99.00)", () -> "other", executor);
+        CompletableFuture<String> whileRunning = idempotencyService.execute("auth0|1", "key-5",
+                "TransactionRequest(type=deposit, amount=99.00)", () -> "other", executor);
+
+        // Then
+        CompletionException completed = Assertions.assertThrows(CompletionException.class, afterCompletion::join);
+        Assertions.assertInstanceOf(IdempotencyKeyReusedException.class, completed.getCause());
+        CompletionException inProgress = Assertions.assertThrows(CompletionException.class, whileRunning::join);
+        Assertions.assertInstanceOf(IdempotencyKeyReusedException.class, inProgress.getCause());
+        release.countDown();
+        Assertions.assertEquals("done", running.join());
+    }
+
+    /**
+     * Test for an execution rejected by a saturated executor, which must not keep its key in flight.
+     */
+    @Test
+    void testRejectedExecutionCanBeRetried() {
+        // Given
+        Executor saturated = command -> {
+            throw new RejectedExecutionException("saturated");
+        };
+
+        // When
+        CompletableFuture<String> rejected = idempotencyService.execute("auth0|1", "key-6", REQUEST, () -> "done",
+                saturated);
+        String retried = idempotencyService.execute("auth0|1", "key-6", REQUEST, () -> "done", executor).join();
+
+        // Then
+        CompletionException failure = Assertions.assertThrows(CompletionException.class, rejected::join);
+        Assertions.assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        Assertions.assertEquals("done", retried);
+    }
+}
@@ -0,0 +1,112 @@
+package com.veritas.transaction.api.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veritas.transaction.api.event.TransactionEvent;
+import com.veritas.transaction.api.model.OutboxEvent;
+import com.veritas.transaction.api.repository.OutboxEventRepository;
+import com.veritas.transaction.api.service.TransactionEventOutbox;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Unit tests for {@link TransactionEventOutbox} class.
+ */
+class TransactionEventOutboxTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final OutboxEventRepository outboxEventRepository = Mockito.mock(OutboxEventRepository.class);
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, TransactionEvent> kafkaTemplate = Mockito.mock(KafkaTemplate.class);
+
+    private final PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+
+    private TransactionEventOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(transactionManager.getTransaction(Mockito.any())).thenReturn(Mockito.mock(TransactionStatus.class));
+        outbox = new TransactionEventOutbox(outboxEventRepository, kafkaTemplate, objectMapper, transactionManager);
+        ReflectionTestUtils.setField(outbox, "batchSize", 2);
+        ReflectionTestUtils.setField(outbox, "sendTimeoutMillis", 1_000L);
+    }
+
+    /**
+     * Test for {@link TransactionEventOutbox#enqueue(String, TransactionEvent)}.
+     */
+    @Test
+    void testEnqueue() throws Exception {
+        // Given
+        TransactionEvent event = event("t1");
+        ArgumentCaptor<OutboxEvent> saved = ArgumentCaptor.forClass(OutboxEvent.class);
+
+        // When
+        outbox.enqueue("notificationTopic", event);
+
+        // Then
+        Mockito.verify(outboxEventRepository).save(saved.capture());
+        Assertions.assertEquals("notificationTopic", saved.getValue().getTopic());
+        Assertions.assertEquals("t1", saved.getValue().getEventKey());
+        Assertions.assertEquals(event, objectMapper.readValue(saved.getValue().getPayload(), TransactionEvent.class));
+        Mockito.verifyNoInteractions(kafkaTemplate);
+    }
+
+    /**
+     * Test for {@link TransactionEventOutbox#relay()} draining more than one batch.
+     */
+    @Test
+    void testRelayDrainsOutboxInBatches() throws Exception {
+        // Given
+        Mockito.when(outboxEventRepository.lockNextBatch(2))
+                .thenReturn(List.of(outboxEvent(1L, "t1"), outboxEvent(2L, "t2")))
+                .thenReturn(List.of(outboxEvent(3L, "t3")));
+        Mockito.when(kafkaTemplate.send(Mockito.anyString(), Mockito.anyString(), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        outbox.relay();
+
+        // Then
+        Mockito.verify(kafkaTemplate).send("notificationTopic", "t1", event("t1"));
+        Mockito.verify(kafkaTemplate).send("notificationTopic", "t3", event("t3"));
+        Mockito.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        Mockito.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        Mockito.verify(outboxEventRepository, Mockito.times(2)).lockNextBatch(2);
+    }
+
+    /**
+     * Test for {@link TransactionEventOutbox#relay()} when the broker rejects an event.
+     */
+    @Test
+    void testRelayKeepsEventsWhenSendFails() throws Exception {
+        // Given
+        Mockito.when(outboxEventRepository.lockNextBatch(2)).thenReturn(List.of(outboxEvent(1L, "t1")));
+        Mockito.when(kafkaTemplate.send(Mockito.anyString(), Mockito.anyString(), Mockito.any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // When / Then
+        Assertions.assertThrows(IllegalStateException.class, () -> outbox.relay());
+        Mockito.verify(outboxEventRepository, Mockito.never()).deleteAllByIdInBatch(Mockito.any());
+        Mockito.verify(transactionManager).rollback(Mockito.any());
+    }
+
+    private OutboxEvent outboxEvent(long id, String transactionId) throws Exception {
+        return new OutboxEvent(id, "notificationTopic", transactionId,
+                objectMapper.writeValueAsString(event(transactionId)), null);
+    }
+
+    private static TransactionEvent event(String transactionId) {
+        return new TransactionEvent(transactionId, "auth0|1", "source", "destination", "transfer", "10", "EUR");
+    }
+}
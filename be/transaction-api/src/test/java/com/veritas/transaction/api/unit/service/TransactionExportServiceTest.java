@@ -0,0 +1,134 @@
+package com.veritas.transaction.api.unit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.dto.ExportFormat;
+import com.veritas.transaction.api.model.Transaction;
+import com.veritas.transaction.api.repository.TransactionRepository;
+import com.veritas.transaction.api.service.TransactionExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for {@link TransactionExportService} class.
+ */
+class TransactionExportServiceTest {
+
+    private static final String USER_ID = "auth0|1";
+
+    private final TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
+
+    private final EntityManager entityManager = Mockito.mock(EntityManager.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final TransactionExportService exportService = new TransactionExportService(transactionRepository,
+            Mockito.mock(AccountClient.class), entityManager, objectMapper, 2);
+
+    /**
+     * Test for {@link TransactionExportService#exportTransactionsForUser} writing CSV.
+     */
+    @Test
+    void testCsvExportEscapesFields() throws IOException {
+        // Given
+        Transaction plain = transaction(1, "tx-1");
+        Transaction quoted = transaction(2, "tx-\"2\", imported");
+        Mockito.when(transactionRepository.streamHistory(USER_ID, List.of("account-1")))
+                .thenReturn(Stream.of(plain, quoted));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportTransactionsForUser(USER_ID, List.of("account-1"), ExportFormat.CSV, output);
+
+        // Then
+        Assertions.assertEquals("""
+                transactionId,userId,type,amount,sourceAccountId,destinationAccountId,transactionTime
+                tx-1,auth0|1,transfer,10.50,account-1,,2024-01-01T12:00:01
+                "tx-""2"", imported",auth0|1,transfer,10.50,account-1,,2024-01-01T12:00:02
+                """, output.toString(StandardCharsets.UTF_8));
+        Mockito.verify(entityManager).detach(plain);
+        Mockito.verify(entityManager).detach(quoted);
+    }
+
+    /**
+     * Test for {@link TransactionExportService#exportTransactionsForUser} streaming a long history as NDJSON.
+     */
+    @Test
+    void testNdjsonExportStreamsEveryRow() throws IOException {
+        // Given
+        int rows = 50_000;
+        AtomicInteger produced = new AtomicInteger();
+        Mockito.when(transactionRepository.streamHistory(Mockito.eq(USER_ID), Mockito.any()))
+                .thenAnswer(invocation -> Stream.iterate(1, i -> i + 1).limit(rows)
+                        .map(i -> transaction(produced.incrementAndGet(), "tx-" + i)));
+        AtomicLong lines = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        OutputStream output = new OutputStream() {
+            private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+            @Override
+            public void write(int b) throws IOException {
+                bytes.incrementAndGet();
+                if (b != '\n') {
+                    line.write(b);
+                    return;
+                }
+                // Spot check that every line is a whole JSON document
+                if (lines.incrementAndGet() % 10_000 == 1) {
+                    JsonNode document = objectMapper.readTree(line.toByteArray());
+                    Assertions.assertEquals("tx-" + lines.get(), document.get("transactionId").asText());
+                }
+                line.reset();
+            }
+        };
+
+        // When
+        exportService.exportTransactionsForUser(USER_ID, List.of(), ExportFormat.NDJSON, output);
+
+        // Then
+        Assertions.assertEquals(rows, lines.get());
+        Assertions.assertEquals(rows, produced.get());
+        Assertions.assertTrue(bytes.get() > rows);
+        Mockito.verify(entityManager, Mockito.times(rows)).detach(Mockito.any());
+    }
+
+    /**
+     * Test for {@link TransactionExportService#tryAcquireExportSlot()} with more exports than slots.
+     */
+    @Test
+    void testExportsBeyondTheSlotsAreRefused() {
+        // Given
+        Assertions.assertTrue(exportService.tryAcquireExportSlot());
+        Assertions.assertTrue(exportService.tryAcquireExportSlot());
+
+        // When
+        boolean third = exportService.tryAcquireExportSlot();
+        exportService.releaseExportSlot();
+        boolean afterRelease = exportService.tryAcquireExportSlot();
+
+        // Then
+        Assertions.assertFalse(third);
+        Assertions.assertTrue(afterRelease);
+    }
+
+    private static Transaction transaction(long id, String transactionId) {
+        return new Transaction(id, transactionId, USER_ID, "account-1", null, "transfer", new BigDecimal("10.50"),
+                LocalDateTime.of(2024, 1, 1, 12, 0).plusSeconds(id % 60));
+    }
+}
@@ -0,0 +1,133 @@
+package com.veritas.transaction.api.unit.service;
+
+import com.veritas.transaction.api.cache.AssetQuantityCache;
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.dto.AccountResponse;
+import com.veritas.transaction.api.dto.TransactionPage;
+import com.veritas.transaction.api.model.Transaction;
+import com.veritas.transaction.api.repository.TransactionRepository;
+import com.veritas.transaction.api.saga.SagaEngine;
+import com.veritas.transaction.api.service.BalanceSnapshotService;
+import com.veritas.transaction.api.service.TransactionEventOutbox;
+import com.veritas.transaction.api.service.TransactionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Unit tests for the keyset-paginated history of {@link TransactionService}, backed by an in-memory stand-in for
+ * the history query.
+ */
+class TransactionHistoryTest {
+
+    private static final String USER_ID = "auth0|1";
+
+    private static final Comparator<Transaction> NEWEST_FIRST = Comparator
+            .comparing(Transaction::getTransactionTime).thenComparing(Transaction::getId).reversed();
+
+    private final List<Transaction> table = new ArrayList<>();
+
+    private final AccountClient accountClient = Mockito.mock(AccountClient.class);
+
+    private final TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
+
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = new TransactionService(transactionRepository, Mockito.mock(AssetQuantityCache.class),
+                Mockito.mock(TransactionEventOutbox.class), accountClient, Mockito.mock(SagaEngine.class),
+                Mockito.mock(BalanceSnapshotService.class), Mockito.mock(Executor.class));
+        Mockito.when(transactionRepository.findHistoryPage(Mockito.anyString(), Mockito.any(), Mockito.any(),
+                Mockito.anyLong(), Mockito.anyInt())).thenAnswer(invocation -> findHistoryPage(
+                invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2),
+                invocation.getArgument(3), invocation.getArgument(4)));
+
+        // Several transactions share a timestamp, so the id has to break the ties
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (long id = 1; id <= 500; id++) {
+            String account = "account-" + id % 4;
+            table.add(new Transaction(id, "tx-" + id, id % 3 == 0 ? USER_ID : "auth0|2", account,
+                    "account-" + (id + 1) % 4, "transfer", BigDecimal.ONE, start.plusSeconds(id / 3)));
+        }
+    }
+
+    /**
+     * Test for {@link TransactionService#getTransactionsForUser(String, String, int)} walking the whole history.
+     */
+    @Test
+    void testPagesCoverHistoryOnceInOrder() {
+        // Given
+        Mockito.when(accountClient.getAllAccountsForUser())
+                .thenReturn(List.of(AccountResponse.builder().id("account-1").userId(USER_ID).build()));
+        List<Transaction> expected = table.stream()
+                .filter(transaction -> isVisible(transaction, USER_ID, List.of("account-1")))
+                .sorted(NEWEST_FIRST)
+                .toList();
+
+        // When
+        List<Transaction> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionPage page = transactionService.getTransactionsForUser(USER_ID, cursor, 50);
+            Assertions.assertTrue(page.getItems().size() <= 50);
+            walked.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        Assertions.assertEquals(expected, walked);
+        Assertions.assertEquals((expected.size() + 49) / 50, pages);
+    }
+
+    /**
+     * Test for the history of a user without accounts and for a malformed cursor.
+     */
+    @Test
+    void testUserWithoutAccountsAndMalformedCursor() {
+        // Given
+        Mockito.when(accountClient.getAllAccountsForUser()).thenReturn(List.of());
+
+        // When
+        TransactionPage page = transactionService.getTransactionsForUser(USER_ID, null, 1000);
+
+        // Then
+        Assertions.assertEquals(table.stream().filter(transaction -> USER_ID.equals(transaction.getUserId())).count(),
+                page.getItems().size());
+        Assertions.assertNull(page.getNextCursor());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getTransactionsForUser(USER_ID, "not-a-cursor", 50));
+    }
+
+    private List<Transaction> findHistoryPage(String userId, Collection<String> accountIds, LocalDateTime beforeTime,
+                                              long beforeId, int limit) {
+        Assertions.assertFalse(accountIds.isEmpty());
+        Set<Long> seen = new HashSet<>();
+        return table.stream()
+                .filter(transaction -> isVisible(transaction, userId, accountIds))
+                .filter(transaction -> transaction.getTransactionTime().isBefore(beforeTime)
+                        || transaction.getTransactionTime().isEqual(beforeTime) && transaction.getId() < beforeId)
+                .filter(transaction -> seen.add(transaction.getId()))
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    private static boolean isVisible(Transaction transaction, String userId, Collection<String> accountIds) {
+        return userId.equals(transaction.getUserId()) || accountIds.contains(transaction.getSourceAccountId())
+                || accountIds.contains(transaction.getDestinationAccountId());
+    }
+}
@@ -0,0 +1,86 @@
+package com.veritas.transaction.api.unit.service;
+
+import com.veritas.transaction.api.service.TransactionPartitionMaintenance;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Unit tests for {@link TransactionPartitionMaintenance} class.
+ */
+class TransactionPartitionMaintenanceTest {
+
+    private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+
+    private final TransactionPartitionMaintenance maintenance = new TransactionPartitionMaintenance(jdbcTemplate);
+
+    /**
+     * Test for {@link TransactionPartitionMaintenance#maintainPartitions()} with missing and expired partitions.
+     */
+    @Test
+    void testCreatesComingAndDetachesExpiredPartitions() {
+        // Given
+        YearMonth now = YearMonth.now();
+        String current = TransactionPartitionMaintenance.partitionName(now);
+        String expired = TransactionPartitionMaintenance.partitionName(now.minusMonths(13));
+        String retained = TransactionPartitionMaintenance.partitionName(now.minusMonths(12));
+        Mockito.when(jdbcTemplate.queryForList(Mockito.contains("NOT i.inhdetachpending"), Mockito.eq(String.class)))
+                .thenReturn(List.of(expired, retained, current));
+        Mockito.when(jdbcTemplate.queryForList(Mockito.contains("AND i.inhdetachpending"), Mockito.eq(String.class)))
+                .thenReturn(List.of());
+        ReflectionTestUtils.setField(maintenance, "monthsAhead", 2);
+        ReflectionTestUtils.setField(maintenance, "retentionMonths", 12);
+
+        // When
+        maintenance.maintainPartitions();
+
+        // Then
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(jdbcTemplate, Mockito.atLeastOnce()).execute(statements.capture());
+        Assertions.assertEquals(List.of(
+                createStatement(now.plusMonths(1)), attachStatement(now.plusMonths(1)),
+                createStatement(now.plusMonths(2)), attachStatement(now.plusMonths(2)),
+                "ALTER TABLE t_transaction DETACH PARTITION " + expired + " CONCURRENTLY"),
+                statements.getAllValues());
+    }
+
+    /**
+     * Test for {@link TransactionPartitionMaintenance#maintainPartitions()} without a retention.
+     */
+    @Test
+    void testKeepsPartitionsWithoutRetention() {
+        // Given
+        YearMonth now = YearMonth.now();
+        Mockito.when(jdbcTemplate.queryForList(Mockito.contains("NOT i.inhdetachpending"), Mockito.eq(String.class)))
+                .thenReturn(List.of(TransactionPartitionMaintenance.partitionName(now.minusYears(5)),
+                        TransactionPartitionMaintenance.partitionName(now)));
+        Mockito.when(jdbcTemplate.queryForList(Mockito.contains("AND i.inhdetachpending"), Mockito.eq(String.class)))
+                .thenReturn(List.of("t_transaction_p2020_01"));
+        ReflectionTestUtils.setField(maintenance, "monthsAhead", 0);
+        ReflectionTestUtils.setField(maintenance, "retentionMonths", 0);
+
+        // When
+        maintenance.maintainPartitions();
+
+        // Then
+        Mockito.verify(jdbcTemplate)
+                .execute("ALTER TABLE t_transaction DETACH PARTITION t_transaction_p2020_01 FINALIZE");
+        Mockito.verify(jdbcTemplate, Mockito.times(1)).execute(Mockito.anyString());
+    }
+
+    private static String createStatement(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + TransactionPartitionMaintenance.partitionName(month)
+                + " (LIKE t_transaction INCLUDING DEFAULTS INCLUDING CONSTRAINTS)";
+    }
+
+    private static String attachStatement(YearMonth month) {
+        return "ALTER TABLE t_transaction ATTACH PARTITION " + TransactionPartitionMaintenance.partitionName(month)
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+}
@@ -0,0 +1,133 @@
+package com.veritas.transaction.api.unit.service;
+
+import com.veritas.transaction.api.cache.AssetQuantityCache;
+import com.veritas.transaction.api.client.AccountClient;
+import com.veritas.transaction.api.client.AssetManagementClient;
+import com.veritas.transaction.api.dto.AccountResponse;
+import com.veritas.transaction.api.dto.AssetQuantityResponse;
+import com.veritas.transaction.api.dto.TransactionRequest;
+import com.veritas.transaction.api.repository.TransactionRepository;
+import com.veritas.transaction.api.saga.SagaEngine;
+import com.veritas.transaction.api.service.BalanceSnapshotService;
+import com.veritas.transaction.api.service.TransactionEventOutbox;
+import com.veritas.transaction.api.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Unit tests for the concurrent remote reads of {@link TransactionService}.
+ * <p>
+ * Every downstream read is stubbed with a fixed latency. Run one after another, a transfer would wait for
+ * three of them; fanned out it only waits for the slowest one.
+ */
+@Slf4j
+class TransactionServiceFanOutTest {
+
+    private static final long LATENCY_MILLIS = 25;
+
+    private static final int ITERATIONS = 40;
+
+    private static final String USER_ID = "auth0|1";
+
+    private final AccountClient accountClient = Mockito.mock(AccountClient.class);
+
+    private final AssetManagementClient assetManagementClient = Mockito.mock(AssetManagementClient.class);
+
+    private final SagaEngine sagaEngine = Mockito.mock(SagaEngine.class);
+
+    private ExecutorService executor;
+
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        // Without a time to live, so that every transaction reads the asset quantity remotely
+        AssetQuantityCache assetQuantityCache = new AssetQuantityCache(assetManagementClient, Duration.ZERO, 10_000,
+                new SimpleMeterRegistry());
+        transactionService = new TransactionService(Mockito.mock(TransactionRepository.class), assetQuantityCache,
+                Mockito.mock(TransactionEventOutbox.class), accountClient, sagaEngine,
+                Mockito.mock(BalanceSnapshotService.class), executor);
+        ReflectionTestUtils.setField(transactionService, "remoteCallTimeout", Duration.ofSeconds(5));
+
+        // 100.00 in minor units
+        Mockito.when(assetManagementClient.getAssetQuantities(Mockito.any()))
+                .thenAnswer(delayed(List.of(new AssetQuantityResponse("EUR", 10_000L))));
+        Mockito.when(accountClient.getAccountById(Mockito.anyString()))
+                .thenAnswer(invocation -> delayed(AccountResponse.builder()
+                        .id(invocation.getArgument(0))
+                        .userId(USER_ID)
+                        .build()).answer(invocation));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test for {@link TransactionService#processTransaction(TransactionRequest)} latency with slow downstreams.
+     */
+    @Test
+    void testTransferWaitsForSlowestReadOnly() {
+        // Given
+        TransactionRequest request = new TransactionRequest(USER_ID, "source", "destination", "transfer", "EUR",
+                BigDecimal.TEN);
+        long[] latencies = new long[ITERATIONS];
+
+        // When
+        for (int i = 0; i < ITERATIONS; i++) {
+            long startedAt = System.nanoTime();
+            transactionService.processTransaction(request);
+            latencies[i] = (System.nanoTime() - startedAt) / 1_000_000;
+        }
+        Arrays.sort(latencies);
+        long p50 = latencies[ITERATIONS / 2];
+        long p99 = latencies[(int) Math.ceil(ITERATIONS * 0.99) - 1];
+        log.info("Transfer with {} ms per read: p50 {} ms, p99 {} ms (sequential reads: {} ms)",
+                LATENCY_MILLIS, p50, p99, 3 * LATENCY_MILLIS);
+
+        // Then
+        Assertions.assertTrue(p50 >= LATENCY_MILLIS);
+        Assertions.assertTrue(p50 < 2 * LATENCY_MILLIS, "p50 was " + p50 + " ms");
+    }
+
+    /**
+     * Test for {@link TransactionService#processTransaction(TransactionRequest)} with an account of another user.
+     */
+    @Test
+    void testTransferRejectsForeignSourceAccount() {
+        // Given
+        TransactionRequest request = new TransactionRequest("auth0|2", "source", "destination", "transfer", "EUR",
+                BigDecimal.TEN);
+
+        // When
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> transactionService.processTransaction(request));
+
+        // Then
+        Assertions.assertEquals("Source account does not belong to the user", exception.getMessage());
+        Mockito.verify(sagaEngine, Mockito.never()).run(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    private static <T> Answer<T> delayed(T result) {
+        return invocation -> {
+            Thread.sleep(LATENCY_MILLIS);
+            return result;
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.veritas.transaction.api.unit.util;
+
+import com.veritas.transaction.api.util.AssetQuantities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+/**
+ * Unit tests for {@link AssetQuantities} class.
+ */
+class AssetQuantitiesTest {
+
+    /**
+     * Test for {@link AssetQuantities#toMinorUnits(BigDecimal)} with amounts that convert exactly.
+     */
+    @Test
+    void testExactAmountsConvert() {
+        // Given
+        BigDecimal cash = new BigDecimal("100000000");
+        BigDecimal cents = new BigDecimal("0.07");
+        BigDecimal trailingZeros = new BigDecimal("12.5000");
+        BigDecimal exponent = new BigDecimal("3E+12");
+        BigDecimal largest = AssetQuantities.fromMinorUnits(Long.MAX_VALUE);
+
+        // When
+        long[] minorUnits = {AssetQuantities.toMinorUnits(cash), AssetQuantities.toMinorUnits(cents),
+                AssetQuantities.toMinorUnits(trailingZeros), AssetQuantities.toMinorUnits(exponent),
+                AssetQuantities.toMinorUnits(largest)};
+
+        // Then
+        Assertions.assertArrayEquals(new long[]{10_000_000_000L, 7, 1_250, 300_000_000_000_000L, Long.MAX_VALUE},
+                minorUnits);
+        Assertions.assertEquals(new BigDecimal("100000000.00"), AssetQuantities.fromMinorUnits(10_000_000_000L));
+        Assertions.assertEquals(new BigDecimal("-0.07"), AssetQuantities.fromMinorUnits(-7));
+    }
+
+    /**
+     * Test for {@link AssetQuantities#toMinorUnits(BigDecimal)} with amounts that would be rounded or overflow.
+     */
+    @Test
+    void testInexactAmountsAreRejected() {
+        // Given
+        BigDecimal finerFraction = new BigDecimal("10.001");
+        BigDecimal beyondLong = AssetQuantities.fromMinorUnits(Long.MAX_VALUE).add(new BigDecimal("0.01"));
+        BigDecimal beyondInt = BigDecimal.valueOf(Integer.MAX_VALUE).add(BigDecimal.ONE);
+
+        // When / Then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> AssetQuantities.toMinorUnits(finerFraction));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> AssetQuantities.toMinorUnits(beyondLong));
+        Assertions.assertEquals(214_748_364_800L, AssetQuantities.toMinorUnits(beyondInt));
+    }
+}
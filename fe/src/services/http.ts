@@ -43,6 +43,11 @@ export interface Transaction {
   transactionTime: string;
 }
 
+export interface TransactionPage {
+  items: Transaction[];
+  nextCursor: string | null;
+}
+
 export const createAccount = (data: CreateAccountRequest) => {
   return post<Account, CreateAccountRequest>(`${BASE_URL}account`, data);
 };
@@ -92,6 +97,7 @@ export const createTransaction = (data: TransactionRequest) => {
   return post<Transaction, TransactionRequest>(`${BASE_URL}transaction`, data);
 };
 
-export const getTransactions = () => {
-  return get<Transaction[]>(`${BASE_URL}transaction`);
+export const getTransactions = async () => {
+  const page = await get<TransactionPage>(`${BASE_URL}transaction`);
+  return page.items;
 };